@@ -0,0 +1,98 @@
+package com.example.photobooth;
+
+import javafx.application.Platform;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deterministic stand-ins for camera frames, plus the JavaFX start-up some
+ * benchmarks need. Frames are a colour gradient with seeded noise so encoders
+ * and scalers see realistic detail rather than flat colour.
+ */
+final class BenchmarkImages {
+
+    /** Resolutions every imaging benchmark runs at: VGA, 720p and 1080p. */
+    static final String VGA = "640x480";
+    static final String HD = "1280x720";
+    static final String FULL_HD = "1920x1080";
+
+    private static volatile boolean fxStarted;
+
+    private BenchmarkImages() {
+    }
+
+    static int width(String resolution) {
+        return Integer.parseInt(resolution.substring(0, resolution.indexOf('x')));
+    }
+
+    static int height(String resolution) {
+        return Integer.parseInt(resolution.substring(resolution.indexOf('x') + 1));
+    }
+
+    /** A frame laid out the way the webcam driver delivers it ({@code TYPE_3BYTE_BGR}). */
+    static BufferedImage cameraFrame(String resolution, long seed) {
+        BufferedImage frame = new BufferedImage(width(resolution), height(resolution), BufferedImage.TYPE_3BYTE_BGR);
+        byte[] data = ((DataBufferByte) frame.getRaster().getDataBuffer()).getData();
+        fill(data, frame.getWidth(), frame.getHeight(), seed, true);
+        return frame;
+    }
+
+    /** A capture as held by the frame ring and still capture ({@code TYPE_INT_RGB}). */
+    static BufferedImage capture(String resolution, long seed) {
+        BufferedImage source = cameraFrame(resolution, seed);
+        BufferedImage capture = new BufferedImage(source.getWidth(), source.getHeight(), BufferedImage.TYPE_INT_RGB);
+        capture.getGraphics().drawImage(source, 0, 0, null);
+        return capture;
+    }
+
+    /** Packed 24-bit RGB bytes, as written by {@code Webcam#getImageBytes(ByteBuffer)}. */
+    static ByteBuffer rgbBytes(String resolution, long seed) {
+        int width = width(resolution);
+        int height = height(resolution);
+        byte[] data = new byte[width * height * 3];
+        fill(data, width, height, seed, false);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(data.length);
+        buffer.put(data).flip();
+        return buffer;
+    }
+
+    /** Starts the JavaFX toolkit once per JVM; {@code WritableImage} cannot be created without it. */
+    static void startFx() throws InterruptedException {
+        if (fxStarted) {
+            return;
+        }
+        CountDownLatch started = new CountDownLatch(1);
+        try {
+            Platform.startup(started::countDown);
+        } catch (IllegalStateException alreadyRunning) {
+            started.countDown();
+        }
+        if (!started.await(10, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("JavaFX toolkit did not start.");
+        }
+        fxStarted = true;
+    }
+
+    private static void fill(byte[] data, int width, int height, long seed, boolean bgr) {
+        Random random = new Random(seed);
+        for (int y = 0, p = 0; y < height; y++) {
+            for (int x = 0; x < width; x++, p += 3) {
+                int r = clamp(x * 255 / width + random.nextInt(24) - 12);
+                int g = clamp(y * 255 / height + random.nextInt(24) - 12);
+                int b = clamp((x + y) * 255 / (width + height) + random.nextInt(24) - 12);
+                data[p] = (byte) (bgr ? b : r);
+                data[p + 1] = (byte) g;
+                data[p + 2] = (byte) (bgr ? r : b);
+            }
+        }
+    }
+
+    private static int clamp(int value) {
+        return Math.max(0, Math.min(255, value));
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.photobooth;
+
+import javafx.embed.swing.SwingFXUtils;
+import javafx.scene.image.WritableImage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Cost of saving an image: pulling it back out of JavaFX with
+ * {@code SwingFXUtils.fromFXImage}, and encoding it with the pooled
+ * {@link JpegEncoder} including the atomic write to disk.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EncodeBenchmark {
+
+    @Param({BenchmarkImages.VGA, BenchmarkImages.HD, BenchmarkImages.FULL_HD})
+    public String resolution;
+
+    private WritableImage fxImage;
+    private BufferedImage image;
+    private JpegEncoder encoder;
+    private Path directory;
+    private Path target;
+
+    @Setup
+    public void setUp() throws Exception {
+        BenchmarkImages.startFx();
+        image = BenchmarkImages.capture(resolution, 7);
+        fxImage = SwingFXUtils.toFXImage(image, null);
+        encoder = new JpegEncoder(0.92f, JpegEncoder.ChromaSubsampling.YUV444, 1);
+        directory = Files.createTempDirectory("photobooth-encode");
+        target = directory.resolve("strip.jpg");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        encoder.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public BufferedImage fromFXImage() {
+        return SwingFXUtils.fromFXImage(fxImage, null);
+    }
+
+    @Benchmark
+    public Path encodeJpeg() throws IOException, InterruptedException {
+        return encoder.write(image, target);
+    }
+
+    @Benchmark
+    public Path fromFXImageAndEncode() throws IOException, InterruptedException {
+        return encoder.write(SwingFXUtils.fromFXImage(fxImage, null), target);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.photobooth;
+
+import javafx.embed.swing.SwingFXUtils;
+import javafx.scene.image.WritableImage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.image.BufferedImage;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-frame cost of getting a camera frame onto the preview: the
+ * {@code SwingFXUtils.toFXImage} fallback in {@code openWebcam} (with and without
+ * a reused target image) against the pixel-buffer {@link PreviewSurface} path.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrameConversionBenchmark {
+
+    @Param({BenchmarkImages.VGA, BenchmarkImages.HD, BenchmarkImages.FULL_HD})
+    public String resolution;
+
+    private BufferedImage frame;
+    private WritableImage reusedImage;
+    private ByteBuffer rgbBytes;
+    private PreviewSurface surface;
+
+    @Setup
+    public void setUp() throws InterruptedException {
+        BenchmarkImages.startFx();
+        frame = BenchmarkImages.cameraFrame(resolution, 1);
+        reusedImage = new WritableImage(frame.getWidth(), frame.getHeight());
+        rgbBytes = BenchmarkImages.rgbBytes(resolution, 1);
+        surface = new PreviewSurface(frame.getWidth(), frame.getHeight());
+    }
+
+    @Benchmark
+    public WritableImage toFXImage() {
+        return SwingFXUtils.toFXImage(frame, null);
+    }
+
+    @Benchmark
+    public WritableImage toFXImageReused() {
+        return SwingFXUtils.toFXImage(frame, reusedImage);
+    }
+
+    @Benchmark
+    public WritableImage previewSurfaceWrite() {
+        rgbBytes.rewind();
+        surface.writeRgb(rgbBytes);
+        return surface.image();
+    }
+}
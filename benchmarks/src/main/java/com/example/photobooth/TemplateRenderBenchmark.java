@@ -0,0 +1,81 @@
+package com.example.photobooth;
+
+import com.example.photobooth.PhotoBooth.FrameTheme;
+import com.example.photobooth.PhotoBooth.TextStyle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full strip render from five captures of each input size, on the calling thread
+ * and with the region pool the application uses. {@code renderUncached} drops the
+ * compositor's static layers first, as happens after the setup changes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Djava.awt.headless=true")
+public class TemplateRenderBenchmark {
+
+    @Param({BenchmarkImages.VGA, BenchmarkImages.HD, BenchmarkImages.FULL_HD})
+    public String resolution;
+
+    private final List<BufferedImage> captures = new ArrayList<>();
+    private ExecutorService regionPool;
+    private TemplateCompositor serial;
+    private TemplateCompositor parallel;
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < PhotoBooth.CAPTURE_COUNT; i++) {
+            captures.add(BenchmarkImages.capture(resolution, i));
+        }
+        regionPool = Executors.newFixedThreadPool(
+                Math.max(1, Math.min(3, Runtime.getRuntime().availableProcessors() - 1)),
+                new DaemonThreadFactory("template-region"));
+        serial = new TemplateCompositor(null);
+        parallel = new TemplateCompositor(regionPool);
+    }
+
+    @TearDown
+    public void tearDown() {
+        regionPool.shutdownNow();
+    }
+
+    @Benchmark
+    public BufferedImage renderSerial() throws InterruptedException {
+        return serial.render(captures, FrameTheme.BIRTHDAY_CELEBRATION, TextStyle.SCRIPT,
+                "Benchmark Birthday", "January 1, 2025");
+    }
+
+    @Benchmark
+    public BufferedImage renderUncached() throws InterruptedException {
+        serial.invalidate();
+        return serial.render(captures, FrameTheme.BIRTHDAY_CELEBRATION, TextStyle.SCRIPT,
+                "Benchmark Birthday", "January 1, 2025");
+    }
+
+    @Benchmark
+    public BufferedImage renderParallel() throws InterruptedException {
+        return parallel.render(captures, FrameTheme.BIRTHDAY_CELEBRATION, TextStyle.SCRIPT,
+                "Benchmark Birthday", "January 1, 2025");
+    }
+}
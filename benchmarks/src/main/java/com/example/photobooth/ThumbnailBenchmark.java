@@ -0,0 +1,93 @@
+package com.example.photobooth;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scaling a capture down to the strip's thumbnail slot: a single bilinear pass,
+ * progressive halving, the AWT area-averaging filter, and the booth's own
+ * {@link AreaAverageScaler} writing into a reused target.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Djava.awt.headless=true")
+public class ThumbnailBenchmark {
+
+    @Param({BenchmarkImages.VGA, BenchmarkImages.HD, BenchmarkImages.FULL_HD})
+    public String resolution;
+
+    private BufferedImage capture;
+    private int thumbWidth;
+    private int thumbHeight;
+    private final AreaAverageScaler scaler = new AreaAverageScaler();
+    private BufferedImage scalerTarget;
+
+    @Setup
+    public void setUp() {
+        capture = BenchmarkImages.capture(resolution, 3);
+        TemplateLayout layout = TemplateLayout.strip();
+        thumbWidth = (int) Math.round(layout.thumbWidth());
+        thumbHeight = (int) Math.round(layout.thumbHeight());
+        scalerTarget = new BufferedImage(thumbWidth, thumbHeight, BufferedImage.TYPE_INT_RGB);
+    }
+
+    @Benchmark
+    public BufferedImage bilinear() {
+        return scale(capture, thumbWidth, thumbHeight);
+    }
+
+    @Benchmark
+    public BufferedImage progressiveBilinear() {
+        BufferedImage current = capture;
+        int width = current.getWidth();
+        int height = current.getHeight();
+        while (width / 2 >= thumbWidth && height / 2 >= thumbHeight) {
+            width /= 2;
+            height /= 2;
+            current = scale(current, width, height);
+        }
+        return scale(current, thumbWidth, thumbHeight);
+    }
+
+    @Benchmark
+    public BufferedImage areaAveraging() {
+        Image scaled = capture.getScaledInstance(thumbWidth, thumbHeight, Image.SCALE_AREA_AVERAGING);
+        BufferedImage thumb = new BufferedImage(thumbWidth, thumbHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = thumb.createGraphics();
+        g.drawImage(scaled, 0, 0, null);
+        g.dispose();
+        return thumb;
+    }
+
+    @Benchmark
+    public BufferedImage areaAverageScaler() {
+        return scaler.scale(capture, scalerTarget);
+    }
+
+    private static BufferedImage scale(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(source, 0, 0, width, height, null);
+        g.dispose();
+        return target;
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.photobooth;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+/**
+ * Box-filter downscaler: every target pixel is the exact area-weighted average of
+ * the source pixels it covers, the same result as {@code Image.SCALE_AREA_AVERAGING}
+ * without its image-producer pipeline. It runs as two separable passes over one
+ * source row at a time, so it needs no copy of the source. Heap {@code INT_RGB}
+ * images and {@link FrameArena} frames are read in place.
+ *
+ * <p>The per-column weights, row buffers and accumulators are kept between calls
+ * and reallocated only when the sizes change. An instance is therefore not
+ * thread-safe; give each worker its own.</p>
+ */
+final class AreaAverageScaler {
+
+    private int sourceWidth = -1;
+    private int targetWidth = -1;
+    private int[] columnStart = new int[0];
+    private int[] columnEnd = new int[0];
+    private float[] firstWeight = new float[0];
+    private float[] lastWeight = new float[0];
+    private int[] sourceRow = new int[0];
+    private float[] rowRed = new float[0];
+    private float[] rowGreen = new float[0];
+    private float[] rowBlue = new float[0];
+    private float[] sumRed = new float[0];
+    private float[] sumGreen = new float[0];
+    private float[] sumBlue = new float[0];
+
+    /** Largest size with the source's aspect ratio that fits in {@code maxWidth x maxHeight}, never upscaled. */
+    static Dimension fit(int width, int height, double maxWidth, double maxHeight) {
+        double scale = Math.min(1.0, Math.min(maxWidth / width, maxHeight / height));
+        return new Dimension(Math.max(1, (int) Math.round(width * scale)),
+                Math.max(1, (int) Math.round(height * scale)));
+    }
+
+    /**
+     * Scales {@code source} down into {@code target}, which sets the output size and
+     * must be {@code TYPE_INT_RGB} no larger than the source in either direction.
+     *
+     * @return {@code target}
+     */
+    BufferedImage scale(BufferedImage source, BufferedImage target) {
+        int sw = source.getWidth();
+        int sh = source.getHeight();
+        int tw = target.getWidth();
+        int th = target.getHeight();
+        if (target.getType() != BufferedImage.TYPE_INT_RGB) {
+            throw new IllegalArgumentException("Target must be TYPE_INT_RGB");
+        }
+        if (tw > sw || th > sh) {
+            throw new IllegalArgumentException("Cannot upscale " + sw + "x" + sh + " to " + tw + "x" + th);
+        }
+        prepare(sw, tw);
+        int[] out = ((DataBufferInt) target.getRaster().getDataBuffer()).getData();
+        int[] directSource = source.getType() == BufferedImage.TYPE_INT_RGB
+                || source.getType() == BufferedImage.TYPE_INT_ARGB
+                ? ((DataBufferInt) source.getRaster().getDataBuffer()).getData()
+                : null;
+        FrameArena.OffHeapIntBuffer offHeapSource =
+                source.getRaster().getDataBuffer() instanceof FrameArena.OffHeapIntBuffer buffer ? buffer : null;
+
+        double rowScale = sh / (double) th;
+        float norm = (float) (1.0 / (rowScale * (sw / (double) tw)));
+        int ty = 0;
+        clearSums(tw);
+        for (int y = 0; y < sh && ty < th; y++) {
+            int[] row;
+            int offset;
+            if (directSource != null) {
+                row = directSource;
+                offset = y * sw;
+            } else if (offHeapSource != null) {
+                offHeapSource.get(y * sw, sourceRow, 0, sw);
+                row = sourceRow;
+                offset = 0;
+            } else {
+                source.getRGB(0, y, sw, 1, sourceRow, 0, sw);
+                row = sourceRow;
+                offset = 0;
+            }
+            scaleRow(row, offset, tw);
+
+            double top = y;
+            double bottom = y + 1;
+            while (ty < th) {
+                double rowEnd = (ty + 1) * rowScale;
+                float weight = (float) (Math.min(bottom, rowEnd) - top);
+                addRow(weight, tw);
+                if (rowEnd > bottom) {
+                    break;
+                }
+                emitRow(out, ty, tw, norm);
+                ty++;
+                top = rowEnd;
+                if (top >= bottom) {
+                    break;
+                }
+            }
+        }
+        if (ty < th) {
+            // Floating-point rounding can leave the last target row one sliver short.
+            emitRow(out, ty, tw, norm);
+        }
+        return target;
+    }
+
+    /** Convenience overload that allocates the target. */
+    BufferedImage scale(BufferedImage source, int width, int height) {
+        return scale(source, new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB));
+    }
+
+    private void prepare(int sw, int tw) {
+        if (sourceRow.length < sw) {
+            sourceRow = new int[sw];
+        }
+        if (rowRed.length < tw) {
+            rowRed = new float[tw];
+            rowGreen = new float[tw];
+            rowBlue = new float[tw];
+            sumRed = new float[tw];
+            sumGreen = new float[tw];
+            sumBlue = new float[tw];
+        }
+        if (sw == sourceWidth && tw == targetWidth) {
+            return;
+        }
+        columnStart = new int[tw];
+        columnEnd = new int[tw];
+        firstWeight = new float[tw];
+        lastWeight = new float[tw];
+        double columnScale = sw / (double) tw;
+        for (int x = 0; x < tw; x++) {
+            double left = x * columnScale;
+            double right = Math.min(sw, (x + 1) * columnScale);
+            int start = (int) Math.floor(left);
+            int end = Math.min(sw - 1, (int) Math.ceil(right) - 1);
+            columnStart[x] = start;
+            columnEnd[x] = end;
+            firstWeight[x] = (float) (Math.min(start + 1, right) - left);
+            lastWeight[x] = end > start ? (float) (right - end) : 0f;
+        }
+        sourceWidth = sw;
+        targetWidth = tw;
+    }
+
+    /** Horizontal pass: area-weighted sums of one source row for every target column. */
+    private void scaleRow(int[] row, int offset, int tw) {
+        for (int x = 0; x < tw; x++) {
+            int start = columnStart[x];
+            int end = columnEnd[x];
+            int rgb = row[offset + start];
+            float w = firstWeight[x];
+            float r = ((rgb >> 16) & 0xFF) * w;
+            float g = ((rgb >> 8) & 0xFF) * w;
+            float b = (rgb & 0xFF) * w;
+            for (int i = start + 1; i < end; i++) {
+                rgb = row[offset + i];
+                r += (rgb >> 16) & 0xFF;
+                g += (rgb >> 8) & 0xFF;
+                b += rgb & 0xFF;
+            }
+            if (end > start) {
+                rgb = row[offset + end];
+                w = lastWeight[x];
+                r += ((rgb >> 16) & 0xFF) * w;
+                g += ((rgb >> 8) & 0xFF) * w;
+                b += (rgb & 0xFF) * w;
+            }
+            rowRed[x] = r;
+            rowGreen[x] = g;
+            rowBlue[x] = b;
+        }
+    }
+
+    private void addRow(float weight, int tw) {
+        for (int x = 0; x < tw; x++) {
+            sumRed[x] += rowRed[x] * weight;
+            sumGreen[x] += rowGreen[x] * weight;
+            sumBlue[x] += rowBlue[x] * weight;
+        }
+    }
+
+    private void emitRow(int[] out, int ty, int tw, float norm) {
+        int base = ty * tw;
+        for (int x = 0; x < tw; x++) {
+            out[base + x] = channel(sumRed[x] * norm) << 16 | channel(sumGreen[x] * norm) << 8
+                    | channel(sumBlue[x] * norm);
+        }
+        clearSums(tw);
+    }
+
+    private void clearSums(int tw) {
+        Arrays.fill(sumRed, 0, tw, 0f);
+        Arrays.fill(sumGreen, 0, tw, 0f);
+        Arrays.fill(sumBlue, 0, tw, 0f);
+    }
+
+    private static int channel(float value) {
+        int rounded = Math.round(value);
+        return rounded < 0 ? 0 : Math.min(255, rounded);
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.photobooth;
+
+import com.github.sarxos.webcam.Webcam;
+import com.github.sarxos.webcam.WebcamDevice;
+import com.github.sarxos.webcam.WebcamResolution;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.time.Duration;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * An extra camera that shoots alongside the main one, such as a close-up next to
+ * the wide group shot. Each camera has its own lock, frame ring and stream task,
+ * so one slow camera never holds up another. The cost of adding a camera is one
+ * more stream and one more small preview.
+ *
+ * <p>The camera is opened by its own stream task, never by the caller. The stream
+ * keeps the ring filled at the camera's own rate, up to {@value #STREAM_FPS} fps.
+ * The preview is converted at a lower rate. At the shutter, {@link #snapshotAt}
+ * picks the frame nearest the instant the main camera fired, waiting briefly for
+ * a frame taken after it. It starts straight away, so a slow main still cannot
+ * let the ring roll past that frame. The shots from every camera therefore line
+ * up in time without a hardware trigger.</p>
+ */
+final class AuxiliaryCamera implements AutoCloseable {
+
+    private static final double STREAM_FPS = 30;
+    private static final long PREVIEW_INTERVAL_NANOS = 1_000_000_000L / 12;
+    private static final int RING_CAPACITY = 8;
+    private static final long SHUTTER_WAIT_NANOS = 100_000_000L;
+    private static final Duration STOP_TIMEOUT = Duration.ofMillis(750);
+
+    private final Webcam camera;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final FrameRing ring;
+    private final CaptureRuntime.Scope scope;
+    private long lastPreview;
+
+    /**
+     * Starts a scope of {@code runtime} that opens {@code camera} at VGA and streams it.
+     *
+     * @param preview    receives a frame every so often, on the stream thread
+     * @param openFailed receives the failure, on the stream thread, if the camera cannot be opened
+     */
+    AuxiliaryCamera(Webcam camera, CaptureRuntime runtime, Consumer<BufferedImage> preview,
+            Consumer<RuntimeException> openFailed) {
+        this.camera = camera;
+        camera.setViewSize(WebcamResolution.VGA.getSize());
+        Dimension size = camera.getViewSize();
+        this.ring = new FrameRing(RING_CAPACITY, size.width, size.height);
+        this.scope = runtime.open("camera-" + camera.getName());
+        PreviewStream stream = new PreviewStream(camera, ring, null, null, frame -> {
+            long now = System.nanoTime();
+            if (now - lastPreview >= PREVIEW_INTERVAL_NANOS) {
+                lastPreview = now;
+                preview.accept(frame);
+            }
+        });
+        PreviewPacer pacer = new PreviewPacer(STREAM_FPS,
+                camera.getDevice() instanceof WebcamDevice.FPSSource source ? source.getFPS() : 0);
+        scope.fork("stream", () -> {
+            lock.lock();
+            try {
+                camera.open(true);
+            } catch (RuntimeException ex) {
+                openFailed.accept(ex);
+                return;
+            } finally {
+                lock.unlock();
+            }
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    pacer.awaitFrame();
+                    lock.lock();
+                    long started = System.nanoTime();
+                    try {
+                        if (!camera.isOpen()) {
+                            break;
+                        }
+                        stream.pumpFrame();
+                    } finally {
+                        lock.unlock();
+                    }
+                    pacer.frameDone(started, System.nanoTime());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        });
+    }
+
+    String name() {
+        return camera.getName();
+    }
+
+    /** Whether the stream task has opened the camera and it is still connected. */
+    boolean isOpen() {
+        return camera.isOpen();
+    }
+
+    /**
+     * Starts picking this camera's frame for a shot the main camera took at
+     * {@code shutterNanos}, on this camera's scope, so the pick does not wait for
+     * whatever the caller does next.
+     */
+    Future<BufferedImage> snapshotAt(long shutterNanos, boolean sharpest, long sharpestWindowNanos) {
+        return scope.fork("shot", () -> frameAt(shutterNanos, sharpest, sharpestWindowNanos));
+    }
+
+    /**
+     * This camera's frame for a shot the main camera took at {@code shutterNanos}.
+     *
+     * @param sharpest pick the sharpest frame around the shutter instead of the closest
+     */
+    BufferedImage frameAt(long shutterNanos, boolean sharpest, long sharpestWindowNanos)
+            throws InterruptedException {
+        long deadline = shutterNanos + SHUTTER_WAIT_NANOS;
+        while (ring.newestNanos() < shutterNanos && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        BufferedImage frame = sharpest
+                ? ring.sharpestAround(shutterNanos, sharpestWindowNanos)
+                : ring.closestTo(shutterNanos);
+        if (frame != null) {
+            return frame;
+        }
+        lock.lock();
+        try {
+            if (!camera.isOpen()) {
+                throw new IllegalStateException(camera.getName() + " disconnected.");
+            }
+            return camera.getImage();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!scope.cancelAndJoin(STOP_TIMEOUT)) {
+            BoothMetrics.shared().captureTasksStuck(scope.stragglers().size());
+        }
+        lock.lock();
+        try {
+            camera.close();
+        } catch (Exception ignored) {
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.photobooth;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder events for the booth, so a recording taken on site shows
+ * each stage of a session next to GC, allocation and thread activity. Record with
+ * {@code -XX:StartFlightRecording} or {@code jcmd <pid> JFR.start}; every event
+ * is under the "PhotoBooth" category.
+ *
+ * <p>Events are created, {@code begin()}-ed and committed around the work they
+ * time. When recording is off {@code shouldCommit()} is false and the JIT removes
+ * the allocation, so they are safe on the per-frame path.</p>
+ */
+final class BoothEvents {
+
+    private BoothEvents() {
+    }
+
+    @Name("com.example.photobooth.FrameDelivered")
+    @Label("Preview Frame")
+    @Description("A camera frame read and handed to the preview and frame ring")
+    @Category({"PhotoBooth", "Preview"})
+    @StackTrace(false)
+    static final class FrameDelivered extends Event {
+        @Label("Camera")
+        String camera;
+
+        @Label("Width")
+        int width;
+
+        @Label("Height")
+        int height;
+    }
+
+    @Name("com.example.photobooth.Capture")
+    @Label("Capture")
+    @Description("Grabbing one shot of a session once the countdown reached zero")
+    @Category({"PhotoBooth", "Session"})
+    @StackTrace(false)
+    static final class Capture extends Event {
+        @Label("Session")
+        String session;
+
+        @Label("Shot")
+        int shot;
+
+        @Label("Capture Mode")
+        String mode;
+
+        @Label("Width")
+        int width;
+
+        @Label("Height")
+        int height;
+    }
+
+    @Name("com.example.photobooth.TemplateRender")
+    @Label("Template Render")
+    @Category({"PhotoBooth", "Session"})
+    @StackTrace(false)
+    static final class TemplateRender extends Event {
+        @Label("Session")
+        String session;
+
+        @Label("Fallback Renderer")
+        boolean fallback;
+    }
+
+    @Name("com.example.photobooth.Encode")
+    @Label("Encode")
+    @Description("JPEG encoding of a strip and its captures to temporary files")
+    @Category({"PhotoBooth", "Session"})
+    @StackTrace(false)
+    static final class Encode extends Event {
+        @Label("Session")
+        String session;
+
+        @Label("Files")
+        int files;
+
+        @Label("Bytes Written")
+        @DataAmount(DataAmount.BYTES)
+        long bytes;
+    }
+
+    @Name("com.example.photobooth.Print")
+    @Label("Print")
+    @Description("One attempt to print a spooled strip")
+    @Category({"PhotoBooth", "Printing"})
+    @StackTrace(false)
+    static final class Print extends Event {
+        @Label("Printer")
+        String printer;
+
+        @Label("Job")
+        String job;
+
+        @Label("Attempt")
+        int attempt;
+
+        @Label("Succeeded")
+        boolean succeeded;
+    }
+}
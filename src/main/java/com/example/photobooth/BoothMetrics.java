@@ -0,0 +1,273 @@
+package com.example.photobooth;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Process-wide timings for every stage of a session, from camera frames to the
+ * printed strip. Stages record into {@link LatencyHistogram}s; the numbers are
+ * published over JMX under {@value #JMX_DOMAIN} and summarised by
+ * {@link #describe()} for the on-screen diagnostics overlay.
+ */
+final class BoothMetrics {
+
+    static final String JMX_DOMAIN = "com.example.photobooth";
+
+    enum Stage {
+        CAMERA_FRAME("cameraFrame", "Camera frame"),
+        SHUTTER_LAG("shutterLag", "Countdown to capture"),
+        TEMPLATE_RENDER("templateRender", "Template render"),
+        ENCODE("encode", "JPEG encode"),
+        PRINT_SPOOL("printSpool", "Print spool"),
+        SESSION("session", "Session end to end");
+
+        private final String key;
+        private final String displayName;
+
+        Stage(String key, String displayName) {
+            this.key = key;
+            this.displayName = displayName;
+        }
+
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+
+    private static final BoothMetrics SHARED = new BoothMetrics();
+    private static final int RATE_WINDOW_SECONDS = 5;
+
+    private final Map<Stage, LatencyHistogram> histograms = new EnumMap<>(Stage.class);
+    private final AtomicLong framesPresented = new AtomicLong();
+    private final AtomicLong framesDropped = new AtomicLong();
+    private final AtomicLong stuckCaptureTasks = new AtomicLong();
+    private final AtomicLongArray framesPerSecond = new AtomicLongArray(RATE_WINDOW_SECONDS + 1);
+    private final AtomicLongArray frameSeconds = new AtomicLongArray(RATE_WINDOW_SECONDS + 1);
+    private volatile PreviewPacer previewPacer;
+    private boolean registered;
+
+    BoothMetrics() {
+        for (Stage stage : Stage.values()) {
+            histograms.put(stage, new LatencyHistogram());
+        }
+    }
+
+    /** The instance the booth and the JMX beans share. */
+    static BoothMetrics shared() {
+        return SHARED;
+    }
+
+    LatencyHistogram histogram(Stage stage) {
+        return histograms.get(stage);
+    }
+
+    void record(Stage stage, long nanos) {
+        histograms.get(stage).record(nanos);
+    }
+
+    void recordSince(Stage stage, long startNanos) {
+        histograms.get(stage).recordSince(startNanos);
+    }
+
+    /** Called on the FX thread each time a preview frame reaches the screen. */
+    void framePresented() {
+        framesPresented.incrementAndGet();
+        long second = System.nanoTime() / 1_000_000_000L;
+        int slot = (int) (second % framesPerSecond.length());
+        if (frameSeconds.getAndSet(slot, second) != second) {
+            framesPerSecond.set(slot, 0);
+        }
+        framesPerSecond.incrementAndGet(slot);
+    }
+
+    /** Called on the stream thread when a frame is replaced before it was drawn. */
+    void frameDropped() {
+        framesDropped.incrementAndGet();
+    }
+
+    /** Average presented frames per second over the last complete seconds. */
+    double previewFps() {
+        long now = System.nanoTime() / 1_000_000_000L;
+        long frames = 0;
+        for (int i = 0; i < framesPerSecond.length(); i++) {
+            long second = frameSeconds.get(i);
+            if (second < now && second >= now - RATE_WINDOW_SECONDS) {
+                frames += framesPerSecond.get(i);
+            }
+        }
+        return frames / (double) RATE_WINDOW_SECONDS;
+    }
+
+    /** The pacer driving the current camera stream, whose target rate the overlay and JMX report. */
+    void attachPreviewPacer(PreviewPacer pacer) {
+        previewPacer = pacer;
+    }
+
+    /** Rate the preview pacer is aiming for, or zero before a camera has streamed. */
+    double previewTargetFps() {
+        PreviewPacer pacer = previewPacer;
+        return pacer != null ? pacer.targetFps() : 0;
+    }
+
+    /** Rate the stream thread has actually started frames at, or zero before a camera has streamed. */
+    double previewEffectiveFps() {
+        PreviewPacer pacer = previewPacer;
+        return pacer != null ? pacer.effectiveFps() : 0;
+    }
+
+    /** Smoothed time the stream thread spends reading and converting a frame, in milliseconds. */
+    double previewFrameCostMillis() {
+        PreviewPacer pacer = previewPacer;
+        return pacer != null ? pacer.frameCostMillis() : 0;
+    }
+
+    /** Called when {@code tasks} capture tasks were still running after their scope's stop timeout. */
+    void captureTasksStuck(int tasks) {
+        stuckCaptureTasks.addAndGet(tasks);
+    }
+
+    long stuckCaptureTasks() {
+        return stuckCaptureTasks.get();
+    }
+
+    long framesPresented() {
+        return framesPresented.get();
+    }
+
+    long framesDropped() {
+        return framesDropped.get();
+    }
+
+    /** Multi-line summary of every stage, for the diagnostics overlay. */
+    String describe() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format(Locale.ROOT,
+                "%-22s %6.1f fps  paced %.1f  target %.1f  %.1f ms/frame  %d dropped", "Preview", previewFps(),
+                previewEffectiveFps(), previewTargetFps(), previewFrameCostMillis(), framesDropped()));
+        long stuck = stuckCaptureTasks();
+        if (stuck > 0) {
+            text.append(String.format(Locale.ROOT, "%n%-22s %6d", "Capture tasks stuck", stuck));
+        }
+        text.append(String.format(Locale.ROOT, "%n%-22s %8s %8s %8s %8s %6s",
+                "", "p50 ms", "p90 ms", "p99 ms", "max ms", "n"));
+        for (Stage stage : Stage.values()) {
+            LatencyHistogram.Snapshot s = histograms.get(stage).snapshot();
+            text.append(String.format(Locale.ROOT, "%n%-22s %8.1f %8.1f %8.1f %8.1f %6d",
+                    stage, s.p50(), s.p90(), s.p99(), s.max(), s.count()));
+        }
+        return text.toString();
+    }
+
+    /** Publishes the preview and per-stage beans on the platform MBean server. Safe to call more than once. */
+    synchronized void registerMBeans() {
+        if (registered) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            register(server, new ObjectName(JMX_DOMAIN + ":type=Preview"), new PreviewStats());
+            for (Stage stage : Stage.values()) {
+                register(server, new ObjectName(JMX_DOMAIN + ":type=Latency,name=" + stage.key),
+                        new LatencyStats(stage));
+            }
+            registered = true;
+        } catch (JMException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    private static void register(MBeanServer server, ObjectName name, Object bean) throws JMException {
+        if (server.isRegistered(name)) {
+            server.unregisterMBean(name);
+        }
+        server.registerMBean(bean, name);
+    }
+
+    private final class PreviewStats implements PreviewStatsMXBean {
+        @Override
+        public double getFramesPerSecond() {
+            return previewFps();
+        }
+
+        @Override
+        public double getTargetFramesPerSecond() {
+            return previewTargetFps();
+        }
+
+        @Override
+        public double getEffectiveFramesPerSecond() {
+            return previewEffectiveFps();
+        }
+
+        @Override
+        public double getFrameCostMillis() {
+            return previewFrameCostMillis();
+        }
+
+        @Override
+        public long getFramesPresented() {
+            return framesPresented();
+        }
+
+        @Override
+        public long getFramesDropped() {
+            return framesDropped();
+        }
+    }
+
+    private final class LatencyStats implements LatencyStatsMXBean {
+        private final Stage stage;
+
+        private LatencyStats(Stage stage) {
+            this.stage = stage;
+        }
+
+        @Override
+        public String getDescription() {
+            return stage.toString();
+        }
+
+        @Override
+        public long getCount() {
+            return histogram(stage).snapshot().count();
+        }
+
+        @Override
+        public double getMeanMillis() {
+            return histogram(stage).snapshot().mean();
+        }
+
+        @Override
+        public double getP50Millis() {
+            return histogram(stage).snapshot().p50();
+        }
+
+        @Override
+        public double getP90Millis() {
+            return histogram(stage).snapshot().p90();
+        }
+
+        @Override
+        public double getP99Millis() {
+            return histogram(stage).snapshot().p99();
+        }
+
+        @Override
+        public double getMaxMillis() {
+            return histogram(stage).snapshot().max();
+        }
+
+        @Override
+        public void reset() {
+            histogram(stage).reset();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.photobooth;
+
+import com.github.sarxos.webcam.Webcam;
+import com.github.sarxos.webcam.WebcamDiscoveryEvent;
+import com.github.sarxos.webcam.WebcamDiscoveryListener;
+import com.github.sarxos.webcam.WebcamDiscoveryService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Enumerates cameras off the FX thread and keeps the result cached. Devices are
+ * reported one at a time as they are found, and hot-plug events from the driver's
+ * discovery service keep the cache current, so callers can update their UI
+ * incrementally instead of re-enumerating.
+ */
+final class CameraDiscovery implements WebcamDiscoveryListener, AutoCloseable {
+
+    interface Listener {
+        void cameraFound(Webcam webcam);
+
+        void cameraGone(Webcam webcam);
+
+        /** Called after every enumeration, including the first, with the cameras now known. */
+        void enumerationFinished(List<Webcam> cameras);
+
+        void discoveryFailed(Exception ex);
+    }
+
+    private final Listener listener;
+    private final CopyOnWriteArrayList<Webcam> cameras = new CopyOnWriteArrayList<>();
+    private final ExecutorService executor =
+            Executors.newSingleThreadExecutor(new DaemonThreadFactory("camera-discovery"));
+
+    private volatile boolean hotPlugStarted;
+
+    CameraDiscovery(Listener listener) {
+        this.listener = listener;
+    }
+
+    /** Cameras discovered so far. */
+    List<Webcam> cameras() {
+        return List.copyOf(cameras);
+    }
+
+    /** Starts the initial enumeration in the background; hot-plug tracking begins once it completes. */
+    void start() {
+        executor.execute(() -> {
+            enumerate();
+            startHotPlug();
+        });
+    }
+
+    /** Re-enumerates in the background and reports only the devices that changed. */
+    void refresh() {
+        executor.execute(this::enumerate);
+    }
+
+    @Override
+    public void webcamFound(WebcamDiscoveryEvent event) {
+        Webcam webcam = event.getWebcam();
+        if (webcam != null && cameras.addIfAbsent(webcam)) {
+            listener.cameraFound(webcam);
+        }
+    }
+
+    @Override
+    public void webcamGone(WebcamDiscoveryEvent event) {
+        Webcam webcam = event.getWebcam();
+        if (webcam != null && cameras.remove(webcam)) {
+            listener.cameraGone(webcam);
+        }
+    }
+
+    @Override
+    public void close() {
+        Webcam.removeDiscoveryListener(this);
+        executor.shutdownNow();
+    }
+
+    private void enumerate() {
+        List<Webcam> found;
+        try {
+            found = Webcam.getWebcams();
+        } catch (Exception ex) {
+            listener.discoveryFailed(ex);
+            return;
+        }
+        for (Webcam webcam : found) {
+            if (cameras.addIfAbsent(webcam)) {
+                listener.cameraFound(webcam);
+            }
+        }
+        for (Webcam known : new ArrayList<>(cameras)) {
+            if (!found.contains(known) && cameras.remove(known)) {
+                listener.cameraGone(known);
+            }
+        }
+        listener.enumerationFinished(cameras());
+    }
+
+    private void startHotPlug() {
+        if (hotPlugStarted) {
+            return;
+        }
+        hotPlugStarted = true;
+        try {
+            Webcam.addDiscoveryListener(this);
+            WebcamDiscoveryService service = Webcam.getDiscoveryService();
+            if (service != null && !service.isRunning()) {
+                service.start();
+            }
+        } catch (Exception ex) {
+            // Hot-plug is a convenience; manual refresh still works without it.
+            ex.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.photobooth;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the camera stream loop, the countdown and the capture tasks on virtual
+ * threads grouped into {@link Scope scopes}. A scope is opened when a camera or a
+ * session starts and closed when it ends; closing cancels every task still running
+ * in it and waits a bounded time for them to exit, so no task outlives the camera
+ * or session it belongs to.
+ *
+ * <p>{@code StructuredTaskScope} is still a preview API on the Java release this
+ * project targets, so scopes implement the same fork / cancel / join contract on
+ * plain virtual threads.</p>
+ */
+final class CaptureRuntime implements AutoCloseable {
+
+    private final ThreadFactory threadFactory;
+    private final Set<Scope> scopes = ConcurrentHashMap.newKeySet();
+    private final AtomicLong tasksStarted = new AtomicLong();
+    private volatile boolean closed;
+
+    CaptureRuntime(String name) {
+        this.threadFactory = Thread.ofVirtual().name(name + "-", 0).factory();
+    }
+
+    /** Opens a scope for tasks that must all stop together. */
+    Scope open(String name) {
+        if (closed) {
+            throw new IllegalStateException("Capture runtime is closed.");
+        }
+        Scope scope = new Scope(name);
+        scopes.add(scope);
+        return scope;
+    }
+
+    /** Number of tasks currently running in any scope. */
+    int activeTasks() {
+        int active = 0;
+        for (Scope scope : scopes) {
+            active += scope.threads.size();
+        }
+        return active;
+    }
+
+    /** Scopes that are open or still have tasks winding down. */
+    int openScopes() {
+        return scopes.size();
+    }
+
+    /** Total number of tasks ever forked, for leak checks over long runs. */
+    long tasksStarted() {
+        return tasksStarted.get();
+    }
+
+    /** Cancels every open scope, waiting up to {@code timeout} for each. */
+    boolean shutdown(Duration timeout) {
+        closed = true;
+        boolean stopped = true;
+        for (Scope scope : new ArrayList<>(scopes)) {
+            stopped &= scope.cancelAndJoin(timeout);
+        }
+        return stopped;
+    }
+
+    @Override
+    public void close() {
+        shutdown(Duration.ofSeconds(1));
+    }
+
+    /**
+     * A group of tasks with a shared lifetime. Tasks are forked onto their own
+     * virtual threads; cancelling the scope interrupts all of them and refuses
+     * new forks.
+     */
+    final class Scope implements AutoCloseable {
+
+        private final String name;
+        private final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        private final Set<Future<?>> futures = ConcurrentHashMap.newKeySet();
+        private volatile boolean cancelled;
+
+        private Scope(String name) {
+            this.name = name;
+        }
+
+        /** Starts {@code task} on a new virtual thread owned by this scope. */
+        <T> Future<T> fork(String taskName, Callable<T> task) {
+            FutureTask<T> future = new FutureTask<>(task);
+            Thread thread = threadFactory.newThread(() -> {
+                try {
+                    future.run();
+                } finally {
+                    threads.remove(Thread.currentThread());
+                    futures.remove(future);
+                    retireIfDone();
+                }
+            });
+            thread.setName(name + "/" + taskName);
+            synchronized (this) {
+                if (cancelled) {
+                    future.cancel(false);
+                    return future;
+                }
+                threads.add(thread);
+                futures.add(future);
+            }
+            tasksStarted.incrementAndGet();
+            thread.start();
+            return future;
+        }
+
+        /** Starts {@code task} on a new virtual thread owned by this scope. */
+        Future<?> fork(String taskName, Runnable task) {
+            return fork(taskName, () -> {
+                task.run();
+                return null;
+            });
+        }
+
+        boolean isCancelled() {
+            return cancelled;
+        }
+
+        /** Interrupts every task and refuses new ones. Returns immediately. */
+        void cancel() {
+            List<Future<?>> running;
+            synchronized (this) {
+                cancelled = true;
+                running = new ArrayList<>(futures);
+            }
+            for (Future<?> future : running) {
+                future.cancel(true);
+            }
+            retireIfDone();
+        }
+
+        /**
+         * Waits up to {@code timeout} for every task in this scope to exit.
+         *
+         * @return {@code true} if no task is still running
+         */
+        boolean join(Duration timeout) {
+            long deadline = System.nanoTime() + timeout.toNanos();
+            for (Thread thread : new ArrayList<>(threads)) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    break;
+                }
+                try {
+                    thread.join(Duration.ofNanos(remaining));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            retireIfDone();
+            return threads.isEmpty();
+        }
+
+        /** {@link #cancel()} followed by a bounded {@link #join(Duration)}. */
+        boolean cancelAndJoin(Duration timeout) {
+            cancel();
+            return join(timeout);
+        }
+
+        /** Threads of tasks that are still running, for diagnostics after a failed join. */
+        List<Thread> stragglers() {
+            return List.copyOf(threads);
+        }
+
+        @Override
+        public void close() {
+            cancelAndJoin(Duration.ofSeconds(1));
+        }
+
+        /** Forgets a cancelled scope once its last task has exited. */
+        private void retireIfDone() {
+            if (cancelled && threads.isEmpty()) {
+                scopes.remove(this);
+            }
+        }
+    }
+}
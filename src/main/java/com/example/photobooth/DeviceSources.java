@@ -0,0 +1,139 @@
+package com.example.photobooth;
+
+import com.github.sarxos.webcam.Webcam;
+import javafx.print.Printer;
+
+import java.awt.Dimension;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Chooses where cameras and printers come from. By default the booth uses the
+ * webcam driver and the system's printers; the {@value #CAMERA_PROPERTY} and
+ * {@value #PRINTER_PROPERTY} system properties swap in the synthetic
+ * implementations, for example:
+ *
+ * <pre>
+ * -Dphotobooth.camera=synthetic:size=1920x1080,fps=30,count=2
+ * -Dphotobooth.printer=synthetic:count=3,ms=1500,fail=0.02
+ * </pre>
+ *
+ * Every key is optional; {@code -Dphotobooth.camera=synthetic} alone gives one
+ * 1280x720 camera at 30 fps.
+ *
+ * <p>Real printers print through {@link RasterPrinterBackend}. Setting
+ * {@value #PRINT_MODE_PROPERTY} to {@code scene} switches back to the JavaFX
+ * scene path in {@link FxPrinterBackend}.</p>
+ */
+final class DeviceSources {
+
+    static final String CAMERA_PROPERTY = "photobooth.camera";
+    static final String PRINTER_PROPERTY = "photobooth.printer";
+    static final String PRINT_MODE_PROPERTY = "photobooth.printMode";
+    private static final String SYNTHETIC = "synthetic";
+
+    /** Settings for the synthetic camera driver. */
+    record CameraSpec(int count, Dimension size, double fps) {
+
+        SyntheticWebcamDriver driver() {
+            return new SyntheticWebcamDriver(count, size, fps);
+        }
+    }
+
+    /** Settings for a set of synthetic printers. */
+    record PrinterSpec(int count, Duration timePerJob, double failureRate) {
+
+        List<PrinterBackend> backends() {
+            List<PrinterBackend> printers = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                printers.add(new SyntheticPrinterBackend("Synthetic Printer " + (i + 1), timePerJob, failureRate));
+            }
+            return printers;
+        }
+    }
+
+    private DeviceSources() {
+    }
+
+    /**
+     * Installs the synthetic webcam driver when {@value #CAMERA_PROPERTY} asks for it.
+     * Must run before the first camera enumeration.
+     *
+     * @return {@code true} if the synthetic driver was installed
+     */
+    static boolean installConfiguredCamera() {
+        String spec = System.getProperty(CAMERA_PROPERTY);
+        if (!isSynthetic(spec)) {
+            return false;
+        }
+        Webcam.setDriver(parseCamera(options(spec)).driver());
+        return true;
+    }
+
+    /** Synthetic printers requested by {@value #PRINTER_PROPERTY}, or an empty list for real printers. */
+    static List<PrinterBackend> configuredPrinters() {
+        String spec = System.getProperty(PRINTER_PROPERTY);
+        return isSynthetic(spec) ? parsePrinters(options(spec)).backends() : List.of();
+    }
+
+    /** Backend for a real printer, in the mode {@value #PRINT_MODE_PROPERTY} asks for. */
+    static PrinterBackend printerBackend(Printer printer, PrinterCatalog catalog) {
+        PrinterBackend scene = new FxPrinterBackend(printer, catalog);
+        return "scene".equals(System.getProperty(PRINT_MODE_PROPERTY))
+                ? scene
+                : new RasterPrinterBackend(printer, catalog, scene);
+    }
+
+    /** Parses {@code size=WxH,fps=N,count=N}; missing keys take their defaults. */
+    static CameraSpec parseCamera(String options) {
+        Map<String, String> values = parseOptions(options);
+        return new CameraSpec(
+                Integer.parseInt(values.getOrDefault("count", "1")),
+                parseSize(values.getOrDefault("size", "1280x720")),
+                Double.parseDouble(values.getOrDefault("fps", "30")));
+    }
+
+    /** Parses {@code count=N,ms=N,fail=F}; missing keys take their defaults. */
+    static PrinterSpec parsePrinters(String options) {
+        Map<String, String> values = parseOptions(options);
+        return new PrinterSpec(
+                Integer.parseInt(values.getOrDefault("count", "1")),
+                Duration.ofMillis(Long.parseLong(values.getOrDefault("ms", "1000"))),
+                Double.parseDouble(values.getOrDefault("fail", "0")));
+    }
+
+    static Dimension parseSize(String size) {
+        int x = size.indexOf('x');
+        if (x <= 0) {
+            throw new IllegalArgumentException("Expected WIDTHxHEIGHT but got " + size);
+        }
+        return new Dimension(Integer.parseInt(size.substring(0, x).trim()),
+                Integer.parseInt(size.substring(x + 1).trim()));
+    }
+
+    private static boolean isSynthetic(String spec) {
+        return spec != null && (spec.equals(SYNTHETIC) || spec.startsWith(SYNTHETIC + ":"));
+    }
+
+    private static String options(String spec) {
+        return spec.length() > SYNTHETIC.length() ? spec.substring(SYNTHETIC.length() + 1) : "";
+    }
+
+    private static Map<String, String> parseOptions(String options) {
+        Map<String, String> values = new HashMap<>();
+        if (options == null || options.isBlank()) {
+            return values;
+        }
+        for (String option : options.split(",")) {
+            int equals = option.indexOf('=');
+            if (equals <= 0) {
+                throw new IllegalArgumentException("Expected key=value but got " + option);
+            }
+            values.put(option.substring(0, equals).trim(), option.substring(equals + 1).trim());
+        }
+        return values;
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.photobooth;
+
+import java.awt.Point;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of off-heap slots that hold captured frames from the shutter until the
+ * session pipeline has rendered and encoded them. A frame is copied in once and
+ * then shared as a {@link BufferedImage} view over the slot, so a session's
+ * captures never sit in the Java heap and overlapped sessions do not churn the
+ * old generation.
+ *
+ * <p>The arena never reserves more than its capacity in direct memory. Released
+ * slots are kept and reused for frames that fit. A free slot that is too small is
+ * dropped only when its space is needed for a larger frame. When the capacity is
+ * taken by leased frames, {@link #lease} blocks until one is released.</p>
+ *
+ * <p>A frame starts with one reference. Anything that reads it after the owner may
+ * have released it, such as the session journal writing it to disk, takes its own
+ * reference with {@link Frame#retain()}. The slot returns to the pool when the last
+ * reference is released. After that the frame's view must not be used, because the
+ * slot may already hold another capture.</p>
+ */
+final class FrameArena {
+
+    private static final DirectColorModel RGB = new DirectColorModel(24, 0xFF0000, 0x00FF00, 0x0000FF);
+
+    private final long capacityBytes;
+    private final List<ByteBuffer> free = new ArrayList<>();
+    private long reservedBytes;
+    private int leased;
+
+    /** @param capacityBytes most direct memory the arena may hold, leased and free slots together */
+    FrameArena(long capacityBytes) {
+        if (capacityBytes < Integer.BYTES) {
+            throw new IllegalArgumentException("capacity must hold at least one pixel");
+        }
+        this.capacityBytes = capacityBytes;
+    }
+
+    long capacityBytes() {
+        return capacityBytes;
+    }
+
+    /** Direct memory currently held by leased and free slots. */
+    synchronized long reservedBytes() {
+        return reservedBytes;
+    }
+
+    /** Frames currently leased. */
+    synchronized int leased() {
+        return leased;
+    }
+
+    /** Copies {@code image} into a slot, waiting for frames to be released if the arena is full. */
+    Frame lease(BufferedImage image) throws InterruptedException {
+        return fill(reserve(pixelsOf(image) * Integer.BYTES, Long.MAX_VALUE), image);
+    }
+
+    /**
+     * Like {@link #lease(BufferedImage)} but gives up after {@code timeout}.
+     *
+     * @return the frame, or {@code null} if not enough was released in time
+     */
+    Frame tryLease(BufferedImage image, Duration timeout) throws InterruptedException {
+        ByteBuffer slot = reserve(pixelsOf(image) * Integer.BYTES, System.nanoTime() + timeout.toNanos());
+        return slot != null ? fill(slot, image) : null;
+    }
+
+    private int pixelsOf(BufferedImage image) {
+        long pixels = (long) image.getWidth() * image.getHeight();
+        if (pixels * Integer.BYTES > capacityBytes) {
+            throw new IllegalArgumentException("A " + image.getWidth() + "x" + image.getHeight()
+                    + " frame does not fit in a " + capacityBytes + " byte arena");
+        }
+        return (int) pixels;
+    }
+
+    private synchronized ByteBuffer reserve(int bytes, long deadlineNanos) throws InterruptedException {
+        while (true) {
+            ByteBuffer slot = takeFreeSlot(bytes);
+            if (slot != null) {
+                leased++;
+                return slot;
+            }
+            while (reservedBytes + bytes > capacityBytes && !free.isEmpty()) {
+                // Every free slot is too small for this frame; give its space to a bigger one.
+                reservedBytes -= free.remove(free.size() - 1).capacity();
+            }
+            if (reservedBytes + bytes <= capacityBytes) {
+                reservedBytes += bytes;
+                leased++;
+                return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+            }
+            if (deadlineNanos == Long.MAX_VALUE) {
+                wait();
+            } else {
+                long remaining = deadlineNanos - System.nanoTime();
+                if (remaining <= 0) {
+                    return null;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+        }
+    }
+
+    /** Smallest free slot that holds {@code bytes}, removed from the free list. */
+    private ByteBuffer takeFreeSlot(int bytes) {
+        ByteBuffer best = null;
+        for (ByteBuffer slot : free) {
+            if (slot.capacity() >= bytes && (best == null || slot.capacity() < best.capacity())) {
+                best = slot;
+            }
+        }
+        if (best != null) {
+            for (Iterator<ByteBuffer> it = free.iterator(); it.hasNext(); ) {
+                if (it.next() == best) {
+                    it.remove();
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+
+    private synchronized void release(ByteBuffer slot) {
+        leased--;
+        free.add(slot);
+        notifyAll();
+    }
+
+    private Frame fill(ByteBuffer slot, BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        IntBuffer pixels = slot.asIntBuffer();
+        int type = image.getType();
+        if (type == BufferedImage.TYPE_INT_RGB || type == BufferedImage.TYPE_INT_ARGB) {
+            int[] source = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+            pixels.put(0, source, 0, width * height);
+        } else {
+            int[] row = new int[width];
+            for (int y = 0; y < height; y++) {
+                image.getRGB(0, y, width, 1, row, 0, width);
+                pixels.put(y * width, row, 0, width);
+            }
+        }
+        return new Frame(slot, pixels, width, height);
+    }
+
+    /** One leased capture. Release it once its session no longer needs the pixels. */
+    final class Frame {
+        private final ByteBuffer slot;
+        private final int width;
+        private final int height;
+        private final BufferedImage image;
+        private final AtomicInteger references = new AtomicInteger(1);
+
+        private Frame(ByteBuffer slot, IntBuffer pixels, int width, int height) {
+            this.slot = slot;
+            this.width = width;
+            this.height = height;
+            SinglePixelPackedSampleModel layout = new SinglePixelPackedSampleModel(DataBuffer.TYPE_INT,
+                    width, height, RGB.getMasks());
+            WritableRaster raster = Raster.createWritableRaster(layout,
+                    new OffHeapIntBuffer(pixels, width * height), new Point());
+            this.image = new BufferedImage(RGB, raster, false, null);
+        }
+
+        /** The frame as an image backed by the slot; valid until the last {@link #release()}. */
+        BufferedImage image() {
+            return image;
+        }
+
+        /** The packed pixels as raw bytes in the platform's byte order, for writing out in one call. */
+        ByteBuffer bytes() {
+            return slot.asReadOnlyBuffer().order(slot.order()).limit(width * height * Integer.BYTES);
+        }
+
+        /** Takes another reference, so the slot survives the owner's release. */
+        Frame retain() {
+            if (references.getAndUpdate(count -> count > 0 ? count + 1 : count) == 0) {
+                throw new IllegalStateException("Frame was already released");
+            }
+            return this;
+        }
+
+        /** Drops one reference; the last one returns the slot to the arena. Extra calls do nothing. */
+        void release() {
+            if (references.getAndUpdate(count -> count > 0 ? count - 1 : 0) == 1) {
+                FrameArena.this.release(slot);
+            }
+        }
+
+        boolean isReleased() {
+            return references.get() == 0;
+        }
+    }
+
+    /** {@code TYPE_INT} data buffer over direct memory, so Java2D and ImageIO can read a slot in place. */
+    static final class OffHeapIntBuffer extends DataBuffer {
+        private final IntBuffer pixels;
+
+        OffHeapIntBuffer(IntBuffer pixels, int size) {
+            super(DataBuffer.TYPE_INT, size);
+            this.pixels = pixels;
+        }
+
+        /** Bulk-copies {@code length} elements starting at {@code index} into {@code target}. */
+        void get(int index, int[] target, int offset, int length) {
+            pixels.get(index, target, offset, length);
+        }
+
+        @Override
+        public int getElem(int bank, int i) {
+            return pixels.get(i);
+        }
+
+        @Override
+        public void setElem(int bank, int i, int val) {
+            pixels.put(i, val);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.photobooth;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.nio.ByteBuffer;
+
+/**
+ * Fixed-size ring of the most recent preview frames with their capture times.
+ * Every slot is allocated up front, so recording a frame never allocates and the
+ * buffer's footprint stays at {@code capacity * width * height * 4} bytes.
+ *
+ * <p>Lets the countdown pick the frame that was on screen at zero (or the sharpest
+ * one around it) instead of waiting for the driver to deliver the next frame.</p>
+ */
+final class FrameRing {
+
+    private final int width;
+    private final int height;
+    private final int[][] slots;
+    private final long[] timestamps;
+
+    private int next;
+    private int count;
+
+    FrameRing(int capacity, int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.slots = new int[capacity][width * height];
+        this.timestamps = new long[capacity];
+    }
+
+    /** Records a packed 24-bit RGB frame taken at {@code nanos} ({@link System#nanoTime()}). */
+    synchronized void writeRgb(ByteBuffer rgb, long nanos) {
+        int[] slot = slots[next];
+        int pixels = Math.min(slot.length, rgb.limit() / 3);
+        for (int i = 0, p = 0; i < pixels; i++, p += 3) {
+            slot[i] = (rgb.get(p) & 0xFF) << 16 | (rgb.get(p + 1) & 0xFF) << 8 | (rgb.get(p + 2) & 0xFF);
+        }
+        advance(nanos);
+    }
+
+    /** Records a frame of this ring's size; frames of any other size are ignored. */
+    synchronized void write(BufferedImage frame, long nanos) {
+        if (frame.getWidth() != width || frame.getHeight() != height) {
+            return;
+        }
+        frame.getRGB(0, 0, width, height, slots[next], 0, width);
+        advance(nanos);
+    }
+
+    /** Capture time of the most recent frame, or {@link Long#MIN_VALUE} if the ring is empty. */
+    synchronized long newestNanos() {
+        return count == 0 ? Long.MIN_VALUE : timestamps[indexOf(count - 1)];
+    }
+
+    /** Copy of the frame captured closest to {@code nanos}, or {@code null} if the ring is empty. */
+    synchronized BufferedImage closestTo(long nanos) {
+        int best = -1;
+        long bestDistance = Long.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            int index = indexOf(i);
+            long distance = Math.abs(timestamps[index] - nanos);
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = index;
+            }
+        }
+        return best < 0 ? null : copyOf(best);
+    }
+
+    /**
+     * Copy of the sharpest frame captured within {@code windowNanos} of {@code nanos},
+     * falling back to the closest frame when none is in the window.
+     */
+    synchronized BufferedImage sharpestAround(long nanos, long windowNanos) {
+        int best = -1;
+        long bestScore = -1;
+        for (int i = 0; i < count; i++) {
+            int index = indexOf(i);
+            if (Math.abs(timestamps[index] - nanos) > windowNanos) {
+                continue;
+            }
+            long score = sharpness(slots[index]);
+            if (score > bestScore) {
+                bestScore = score;
+                best = index;
+            }
+        }
+        return best < 0 ? closestTo(nanos) : copyOf(best);
+    }
+
+    /**
+     * Focus measure: energy of the 4-neighbour Laplacian of the luma channel over the
+     * central region, sampled on a 2-pixel grid. Higher means more edge detail.
+     */
+    private long sharpness(int[] pixels) {
+        int x0 = width / 4;
+        int x1 = width - width / 4;
+        int y0 = height / 4;
+        int y1 = height - height / 4;
+        long energy = 0;
+        for (int y = Math.max(1, y0); y < Math.min(height - 1, y1); y += 2) {
+            int row = y * width;
+            for (int x = Math.max(1, x0); x < Math.min(width - 1, x1); x += 2) {
+                int i = row + x;
+                int laplacian = 4 * luma(pixels[i])
+                        - luma(pixels[i - 1]) - luma(pixels[i + 1])
+                        - luma(pixels[i - width]) - luma(pixels[i + width]);
+                energy += (long) laplacian * laplacian;
+            }
+        }
+        return energy;
+    }
+
+    private static int luma(int rgb) {
+        return ((rgb >> 16 & 0xFF) * 77 + (rgb >> 8 & 0xFF) * 150 + (rgb & 0xFF) * 29) >> 8;
+    }
+
+    private BufferedImage copyOf(int index) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        int[] target = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        System.arraycopy(slots[index], 0, target, 0, target.length);
+        return image;
+    }
+
+    /** Slot index of the {@code i}-th oldest frame. */
+    private int indexOf(int i) {
+        return Math.floorMod(next - count + i, slots.length);
+    }
+
+    private void advance(long nanos) {
+        timestamps[next] = nanos;
+        next = (next + 1) % slots.length;
+        if (count < slots.length) {
+            count++;
+        }
+    }
+}
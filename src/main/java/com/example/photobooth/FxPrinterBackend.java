@@ -0,0 +1,65 @@
+package com.example.photobooth;
+
+import javafx.embed.swing.SwingFXUtils;
+import javafx.print.PageLayout;
+import javafx.print.Printer;
+import javafx.print.PrinterJob;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.WritableImage;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+/**
+ * Prints spooled strips on a JavaFX {@link Printer} using the page layout cached
+ * in the {@link PrinterCatalog}. The image view is never attached to a live
+ * scene, so this is safe on a spooler thread.
+ */
+final class FxPrinterBackend implements PrinterBackend {
+
+    private final Printer printer;
+    private final PrinterCatalog catalog;
+
+    FxPrinterBackend(Printer printer, PrinterCatalog catalog) {
+        this.printer = printer;
+        this.catalog = catalog;
+    }
+
+    @Override
+    public String name() {
+        return printer.getName();
+    }
+
+    @Override
+    public void print(PrintSpooler.SpoolJob job) throws IOException {
+        BufferedImage strip = job.loadImage();
+
+        PrinterJob printerJob = PrinterJob.createPrinterJob(printer);
+        if (printerJob == null) {
+            throw new IOException("Unable to create printer job for " + printer.getName());
+        }
+        PageLayout layout = catalog.capabilities(printer).pageLayout();
+        printerJob.getJobSettings().setPageLayout(layout);
+
+        WritableImage templateImage = SwingFXUtils.toFXImage(strip, null);
+        ImageView iv = new ImageView(templateImage);
+        double printableWidth = layout.getPrintableWidth();
+        double printableHeight = layout.getPrintableHeight();
+        double scale = Math.min(printableWidth / templateImage.getWidth(),
+                printableHeight / templateImage.getHeight());
+        if (scale > 1.0) {
+            scale = 1.0;
+        }
+        iv.setFitWidth(templateImage.getWidth() * scale);
+        iv.setFitHeight(templateImage.getHeight() * scale);
+        iv.setPreserveRatio(true);
+
+        if (!printerJob.printPage(layout, iv)) {
+            printerJob.cancelJob();
+            throw new IOException("Print could not be completed.");
+        }
+        if (!printerJob.endJob()) {
+            throw new IOException("Print could not be completed.");
+        }
+    }
+}
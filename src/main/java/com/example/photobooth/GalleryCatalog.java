@@ -0,0 +1,225 @@
+package com.example.photobooth;
+
+import javax.imageio.ImageIO;
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UTFDataFormatException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Append-only catalog of every saved strip, for browsing and reprinting from the
+ * gallery. Each record holds the event, the session stamp, when the strip was
+ * saved, its path and a small JPEG thumbnail. Opening the catalog reads only the
+ * record headers and skips the thumbnails, so thousands of strips load without
+ * decoding a single image or listing the save folder.
+ *
+ * <p>Thumbnails are decoded on demand on a small background pool. The results
+ * are kept in an LRU cache of at most {@code thumbnailCacheSize} images, so
+ * scrolling back through the gallery is cheap while memory stays bounded. A
+ * thumbnail that fails to decode is not cached, so asking again retries it.</p>
+ */
+final class GalleryCatalog implements SessionPipeline.SavedStrips, AutoCloseable {
+
+    static final int THUMBNAIL_WIDTH = 120;
+    static final int THUMBNAIL_HEIGHT = 360;
+    private static final int RECORD_MAGIC = 0x47414c31;
+    private static final int THUMBNAIL_WORKERS = 2;
+
+    /** One saved strip; {@code thumbnailOffset} is where its JPEG thumbnail starts in the catalog file. */
+    record Entry(String eventName, String stamp, Instant savedAt, Path stripFile, long thumbnailOffset,
+            int thumbnailLength) {
+    }
+
+    private final Path file;
+    private final int thumbnailCacheSize;
+    private final FileChannel channel;
+    private final List<Entry> entries = new ArrayList<>();
+    private final AreaAverageScaler scaler = new AreaAverageScaler();
+    private final ExecutorService decoders =
+            Executors.newFixedThreadPool(THUMBNAIL_WORKERS, new DaemonThreadFactory("gallery-thumbnails"));
+    private final Map<Entry, CompletableFuture<BufferedImage>> thumbnails;
+    private long droppedBytes;
+
+    GalleryCatalog(Path file, int thumbnailCacheSize) throws IOException {
+        this.file = file;
+        this.thumbnailCacheSize = thumbnailCacheSize;
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.thumbnails = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Entry, CompletableFuture<BufferedImage>> eldest) {
+                return size() > GalleryCatalog.this.thumbnailCacheSize;
+            }
+        };
+        load();
+    }
+
+    /** Every strip in the catalog, oldest first. */
+    synchronized List<Entry> entries() {
+        return List.copyOf(entries);
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    /** Bytes of a record torn by a crash that opening the catalog cut off. */
+    long droppedBytes() {
+        return droppedBytes;
+    }
+
+    /** Appends a strip to the catalog with a thumbnail cut from {@code strip}. */
+    @Override
+    public void stripSaved(SessionPipeline.Session session, Path stripFile, BufferedImage strip) throws IOException {
+        add(session.eventName(), session.stamp(), stripFile, strip);
+    }
+
+    synchronized Entry add(String eventName, String stamp, Path stripFile, BufferedImage strip) throws IOException {
+        Dimension size = AreaAverageScaler.fit(strip.getWidth(), strip.getHeight(), THUMBNAIL_WIDTH,
+                THUMBNAIL_HEIGHT);
+        ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+        if (!ImageIO.write(scaler.scale(strip, size.width, size.height), "jpg", jpeg)) {
+            throw new IOException("No JPEG writer available");
+        }
+        byte[] thumbnail = jpeg.toByteArray();
+        Instant savedAt = Instant.now();
+
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(header)) {
+            out.writeUTF(eventName != null ? eventName : "");
+            out.writeUTF(stamp);
+            out.writeLong(savedAt.toEpochMilli());
+            out.writeUTF(stripFile.toAbsolutePath().toString());
+        }
+        ByteBuffer record = ByteBuffer.allocate(3 * Integer.BYTES + header.size() + thumbnail.length);
+        record.putInt(RECORD_MAGIC).putInt(header.size()).put(header.toByteArray())
+                .putInt(thumbnail.length).put(thumbnail).flip();
+
+        long offset = channel.size();
+        long position = offset;
+        while (record.hasRemaining()) {
+            position += channel.write(record, position);
+        }
+        channel.force(false);
+        Entry entry = new Entry(eventName, stamp, Instant.ofEpochMilli(savedAt.toEpochMilli()),
+                stripFile.toAbsolutePath(), position - thumbnail.length, thumbnail.length);
+        entries.add(entry);
+        return entry;
+    }
+
+    /** Starts decoding the thumbnail for {@code entry}, or returns the cached result. */
+    CompletableFuture<BufferedImage> thumbnail(Entry entry) {
+        synchronized (thumbnails) {
+            return thumbnails.computeIfAbsent(entry, key -> CompletableFuture.supplyAsync(() -> {
+                try {
+                    return decodeThumbnail(entry);
+                } catch (RuntimeException ex) {
+                    // Forget the failure before it is reported, so the next request decodes again.
+                    synchronized (thumbnails) {
+                        thumbnails.remove(entry);
+                    }
+                    throw ex;
+                }
+            }, decoders));
+        }
+    }
+
+    /** Number of thumbnails currently held by the cache. */
+    int cachedThumbnails() {
+        synchronized (thumbnails) {
+            return thumbnails.size();
+        }
+    }
+
+    private BufferedImage decodeThumbnail(Entry entry) {
+        ByteBuffer bytes = ByteBuffer.allocate(entry.thumbnailLength());
+        try {
+            long position = entry.thumbnailOffset();
+            while (bytes.hasRemaining()) {
+                int read = channel.read(bytes, position);
+                if (read < 0) {
+                    throw new EOFException("Catalog ends inside the thumbnail for " + entry.stamp());
+                }
+                position += read;
+            }
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(bytes.array()));
+            if (image == null) {
+                throw new IOException("Unreadable thumbnail for " + entry.stamp());
+            }
+            return image;
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /** Reads every record header, skipping the thumbnails, and cuts off a record torn by a crash. */
+    private void load() throws IOException {
+        long offset = 0;
+        try (InputStream stream = Files.newInputStream(file);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(stream))) {
+            while (true) {
+                int magic;
+                try {
+                    magic = in.readInt();
+                } catch (EOFException end) {
+                    break;
+                }
+                if (magic != RECORD_MAGIC) {
+                    break;
+                }
+                byte[] header = new byte[in.readInt()];
+                in.readFully(header);
+                DataInputStream fields = new DataInputStream(new ByteArrayInputStream(header));
+                String eventName = fields.readUTF();
+                String stamp = fields.readUTF();
+                Instant savedAt = Instant.ofEpochMilli(fields.readLong());
+                Path stripFile = Path.of(fields.readUTF());
+                int thumbnailLength = in.readInt();
+                in.skipNBytes(thumbnailLength);
+                long thumbnailOffset = offset + 3L * Integer.BYTES + header.length;
+                entries.add(new Entry(eventName, stamp, savedAt, stripFile, thumbnailOffset, thumbnailLength));
+                offset = thumbnailOffset + thumbnailLength;
+            }
+        } catch (EOFException | UTFDataFormatException | NegativeArraySizeException | IllegalArgumentException torn) {
+            // The last append was cut short; everything before it is intact.
+        }
+        if (channel.size() > offset) {
+            droppedBytes = channel.size() - offset;
+            channel.truncate(offset);
+        }
+    }
+
+    @Override
+    public void close() {
+        decoders.shutdownNow();
+        try {
+            channel.close();
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.photobooth;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Caps how many sessions are between their first capture and their printed strip.
+ * Each session holds its captures and rendered strip in memory until it settles, so
+ * letting the booth capture ahead of a slow printer without a limit would let the
+ * backlog grow without bound.
+ *
+ * <p>A session takes a slot when its capture sequence starts. It gives the slot
+ * back when the capture is abandoned, when the session pipeline fails or completes
+ * without printing, or, if its strip was queued with the print spooler, when that
+ * print job has printed or given up. Releasing is idempotent, so the pipeline and
+ * the spooler may report in either order.</p>
+ */
+final class InFlightSessions {
+
+    private final int limit;
+    private final Semaphore slots;
+    private final Map<String, Boolean> sessions = new ConcurrentHashMap<>();
+    private final Map<Path, String> printing = new ConcurrentHashMap<>();
+
+    InFlightSessions(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
+        }
+        this.limit = limit;
+        this.slots = new Semaphore(limit, true);
+    }
+
+    /** Takes a slot for {@code stamp} if one is free right now. */
+    boolean tryAcquire(String stamp) {
+        if (!slots.tryAcquire()) {
+            return false;
+        }
+        sessions.put(stamp, Boolean.TRUE);
+        return true;
+    }
+
+    /** Waits for a free slot, then takes it for {@code stamp}. */
+    void acquire(String stamp) throws InterruptedException {
+        slots.acquire();
+        sessions.put(stamp, Boolean.TRUE);
+    }
+
+    /** Records that the session's strip was queued to print; its slot is held until {@link #printFinished}. */
+    void printing(String stamp, Path stripFile) {
+        if (sessions.containsKey(stamp)) {
+            printing.put(stripFile, stamp);
+        }
+    }
+
+    /** Called when the session pipeline reports a final stage for {@code stamp}. */
+    void pipelineFinished(String stamp, boolean failed) {
+        if (failed || !printing.containsValue(stamp)) {
+            release(stamp);
+        }
+    }
+
+    /** Called when the print spooler has printed or given up on {@code stripFile}. */
+    void printFinished(Path stripFile) {
+        String stamp = printing.remove(stripFile);
+        if (stamp != null) {
+            release(stamp);
+        }
+    }
+
+    /** Gives back the slot held by {@code stamp}; does nothing if it holds none. */
+    void release(String stamp) {
+        if (sessions.remove(stamp) != null) {
+            printing.values().remove(stamp);
+            slots.release();
+        }
+    }
+
+    int inFlight() {
+        return sessions.size();
+    }
+
+    int limit() {
+        return limit;
+    }
+}
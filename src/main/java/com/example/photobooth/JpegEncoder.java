@@ -0,0 +1,308 @@
+package com.example.photobooth;
+
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOInvalidTreeException;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * JPEG encoding service shared across sessions. A fixed set of {@link ImageWriter}s
+ * and output buffers is reused, several outputs can be encoded in parallel, and
+ * every file is written to a temporary sibling first and only renamed into place
+ * once it is complete, so a crash never leaves a half-written JPEG behind.
+ */
+final class JpegEncoder implements AutoCloseable {
+
+    private static final String JPEG_METADATA_FORMAT = "javax_imageio_jpeg_image_1.0";
+
+    /** Luma sampling factors; chroma components are always sampled at 1x1. */
+    enum ChromaSubsampling {
+        YUV444(1, 1),
+        YUV422(2, 1),
+        YUV420(2, 2);
+
+        private final int horizontal;
+        private final int vertical;
+
+        ChromaSubsampling(int horizontal, int vertical) {
+            this.horizontal = horizontal;
+            this.vertical = vertical;
+        }
+    }
+
+    /** One image to encode and the final path it should appear at. */
+    record Output(BufferedImage image, Path target) {
+    }
+
+    /** A fully written temporary file waiting to be renamed onto its target. */
+    static final class PendingFile {
+        private final Path temp;
+        private final Path target;
+
+        private PendingFile(Path temp, Path target) {
+            this.temp = temp;
+            this.target = target;
+        }
+
+        Path target() {
+            return target;
+        }
+
+        /** Encoded size in bytes. */
+        long size() throws IOException {
+            return Files.size(temp);
+        }
+
+        /** Atomically publishes the file under its final name. */
+        Path commit() throws IOException {
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException unsupported) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return target;
+        }
+
+        void discard() {
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private final float quality;
+    private final ChromaSubsampling subsampling;
+    private final BlockingQueue<Slot> slots;
+    private final ExecutorService encodePool;
+
+    JpegEncoder(float quality, ChromaSubsampling subsampling, int parallelism) {
+        if (quality < 0f || quality > 1f) {
+            throw new IllegalArgumentException("JPEG quality must be between 0 and 1: " + quality);
+        }
+        int workers = Math.max(1, parallelism);
+        this.quality = quality;
+        this.subsampling = subsampling;
+        this.slots = new ArrayBlockingQueue<>(workers);
+        for (int i = 0; i < workers; i++) {
+            slots.add(new Slot(newJpegWriter()));
+        }
+        this.encodePool = Executors.newFixedThreadPool(workers, new DaemonThreadFactory("jpeg-encoder"));
+    }
+
+    /**
+     * Encodes every output in parallel into temporary files next to their targets.
+     * Nothing is visible under the final names until each {@link PendingFile} is
+     * committed. If any output fails, or the caller is interrupted while waiting,
+     * the remaining encodes are cancelled and every temporary file is discarded.
+     */
+    List<PendingFile> encodeAll(List<Output> outputs) throws IOException, InterruptedException {
+        Batch batch = new Batch();
+        List<Future<PendingFile>> futures = new ArrayList<>(outputs.size());
+        boolean complete = false;
+        try {
+            for (Output output : outputs) {
+                futures.add(encodePool.submit(() -> batch.keep(encodeToTemp(output.image(), output.target()))));
+            }
+            List<PendingFile> pending = new ArrayList<>(outputs.size());
+            for (Future<PendingFile> future : futures) {
+                try {
+                    pending.add(future.get());
+                } catch (ExecutionException ex) {
+                    Throwable cause = ex.getCause();
+                    throw cause instanceof IOException io ? io : new IOException("JPEG encoding failed.", cause);
+                }
+            }
+            complete = true;
+            return pending;
+        } finally {
+            if (!complete) {
+                batch.abandon();
+                for (Future<PendingFile> future : futures) {
+                    future.cancel(true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Deletes the temporary files a crash left behind under {@code directory},
+     * which never became JPEGs. Call before anything writes there.
+     *
+     * @return the number of files deleted
+     */
+    static int discardPartialFiles(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        int[] deleted = {0};
+        Files.walkFileTree(directory, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                String name = file.getFileName().toString();
+                if (attributes.isRegularFile() && name.startsWith(".") && name.endsWith(".part")
+                        && name.contains(".jpg")) {
+                    try {
+                        Files.deleteIfExists(file);
+                        deleted[0]++;
+                    } catch (IOException ignored) {
+                    }
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException ex) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return deleted[0];
+    }
+
+    /** Encodes one image and atomically writes it to {@code target}. */
+    Path write(BufferedImage image, Path target) throws IOException, InterruptedException {
+        return encodeToTemp(image, target).commit();
+    }
+
+    @Override
+    public void close() {
+        encodePool.shutdownNow();
+        for (Slot slot : slots) {
+            slot.writer.dispose();
+        }
+    }
+
+    private PendingFile encodeToTemp(BufferedImage image, Path target) throws IOException, InterruptedException {
+        Slot slot = slots.take();
+        try {
+            slot.buffer.reset();
+            try (ImageOutputStream stream = new MemoryCacheImageOutputStream(slot.buffer)) {
+                ImageWriter writer = slot.writer;
+                writer.setOutput(stream);
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(quality);
+                IIOMetadata metadata = metadataFor(writer, image, param);
+                writer.write(null, new IIOImage(image, null, metadata), param);
+                writer.reset();
+            }
+
+            Path directory = target.toAbsolutePath().getParent();
+            Path temp = Files.createTempFile(directory, "." + target.getFileName(), ".part");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer bytes = ByteBuffer.wrap(slot.buffer.array(), 0, slot.buffer.size());
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+                channel.force(true);
+            } catch (IOException | RuntimeException ex) {
+                Files.deleteIfExists(temp);
+                throw ex;
+            }
+            return new PendingFile(temp, target);
+        } finally {
+            slots.put(slot);
+        }
+    }
+
+    private IIOMetadata metadataFor(ImageWriter writer, BufferedImage image, ImageWriteParam param)
+            throws IIOInvalidTreeException {
+        IIOMetadata metadata = writer.getDefaultImageMetadata(ImageTypeSpecifier.createFromRenderedImage(image), param);
+        Node root = metadata.getAsTree(JPEG_METADATA_FORMAT);
+        NodeList components = ((Element) root).getElementsByTagName("componentSpec");
+        for (int i = 0; i < components.getLength(); i++) {
+            Element component = (Element) components.item(i);
+            // Component 0 is luma; only its factors express the subsampling ratio.
+            component.setAttribute("HsamplingFactor", String.valueOf(i == 0 ? subsampling.horizontal : 1));
+            component.setAttribute("VsamplingFactor", String.valueOf(i == 0 ? subsampling.vertical : 1));
+        }
+        metadata.setFromTree(JPEG_METADATA_FORMAT, root);
+        return metadata;
+    }
+
+    private static ImageWriter newJpegWriter() {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+        if (!writers.hasNext()) {
+            throw new IllegalStateException("No JPEG writer available.");
+        }
+        return writers.next();
+    }
+
+    /**
+     * Temporary files written for one {@link #encodeAll} call. Once the call gives
+     * up, files already written are discarded and any encode still finishing
+     * discards its own, so none outlive a failed or interrupted batch.
+     */
+    private static final class Batch {
+        private final List<PendingFile> written = new ArrayList<>();
+        private boolean abandoned;
+
+        private synchronized PendingFile keep(PendingFile file) {
+            if (abandoned) {
+                file.discard();
+                throw new CancellationException("JPEG batch abandoned.");
+            }
+            written.add(file);
+            return file;
+        }
+
+        private synchronized void abandon() {
+            abandoned = true;
+            written.forEach(PendingFile::discard);
+            written.clear();
+        }
+    }
+
+    private static final class Slot {
+        private final ImageWriter writer;
+        private final ReusableByteArrayOutputStream buffer = new ReusableByteArrayOutputStream(1024 * 1024);
+
+        private Slot(ImageWriter writer) {
+            this.writer = writer;
+        }
+    }
+
+    /** Exposes its backing array so encoded bytes can be written without a copy. */
+    private static final class ReusableByteArrayOutputStream extends ByteArrayOutputStream {
+        private ReusableByteArrayOutputStream(int size) {
+            super(size);
+        }
+
+        private byte[] array() {
+            return buf;
+        }
+    }
+}
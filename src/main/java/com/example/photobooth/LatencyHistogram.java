@@ -0,0 +1,103 @@
+package com.example.photobooth;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with logarithmic buckets. Each power of two (in
+ * microseconds) is split into {@value #SUB_BUCKETS} linear sub-buckets, so any
+ * percentile is accurate to within about 6% from 1 &micro;s up to days while
+ * the whole histogram stays a few kilobytes. Recording is a couple of atomic
+ * increments and never allocates, so it is safe on the frame path.
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BUCKETS = 8;
+    private static final int POWERS = 42;
+
+    /** Point-in-time summary, all values in milliseconds. */
+    record Snapshot(long count, double mean, double p50, double p90, double p99, double max) {
+    }
+
+    private final AtomicLongArray buckets = new AtomicLongArray(POWERS * SUB_BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    void record(long nanos) {
+        if (nanos < 0) {
+            return;
+        }
+        buckets.incrementAndGet(indexOf(nanos / 1000));
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /** Records the time elapsed since {@code startNanos} ({@link System#nanoTime()}). */
+    void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    Snapshot snapshot() {
+        long[] counts = new long[buckets.length()];
+        long total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return new Snapshot(0, 0, 0, 0, 0, 0);
+        }
+        double mean = totalNanos.sum() / 1e6 / Math.max(1, count.sum());
+        double max = maxNanos.get() / 1e6;
+        return new Snapshot(total, mean,
+                Math.min(max, percentile(counts, total, 0.50)),
+                Math.min(max, percentile(counts, total, 0.90)),
+                Math.min(max, percentile(counts, total, 0.99)),
+                max);
+    }
+
+    void reset() {
+        for (int i = 0; i < buckets.length(); i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        totalNanos.reset();
+        maxNanos.set(0);
+    }
+
+    /** Value in milliseconds below which {@code fraction} of the recorded samples fall. */
+    private static double percentile(long[] counts, long total, double fraction) {
+        long rank = (long) Math.ceil(fraction * total);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return midpointMicros(i) / 1000.0;
+            }
+        }
+        return midpointMicros(counts.length - 1) / 1000.0;
+    }
+
+    static int indexOf(long micros) {
+        if (micros < 1) {
+            return 0;
+        }
+        int power = 63 - Long.numberOfLeadingZeros(micros);
+        if (power >= POWERS) {
+            return POWERS * SUB_BUCKETS - 1;
+        }
+        int sub = (int) (((micros - (1L << power)) * SUB_BUCKETS) >>> power);
+        return power * SUB_BUCKETS + sub;
+    }
+
+    private static double midpointMicros(int index) {
+        int power = index / SUB_BUCKETS;
+        int sub = index % SUB_BUCKETS;
+        double base = 1L << power;
+        double width = base / SUB_BUCKETS;
+        return base + width * (sub + 0.5);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.photobooth;
+
+/**
+ * JMX view of one {@link LatencyHistogram}, registered per stage by
+ * {@link BoothMetrics#registerMBeans()}. Times are in milliseconds.
+ */
+public interface LatencyStatsMXBean {
+
+    String getDescription();
+
+    long getCount();
+
+    double getMeanMillis();
+
+    double getP50Millis();
+
+    double getP90Millis();
+
+    double getP99Millis();
+
+    double getMaxMillis();
+
+    void reset();
+}
@@ -1,7 +1,12 @@
 package com.example.photobooth;
 
 import com.github.sarxos.webcam.Webcam;
+import com.github.sarxos.webcam.WebcamDevice;
 import com.github.sarxos.webcam.WebcamResolution;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.PauseTransition;
+import javafx.animation.Timeline;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.embed.swing.SwingFXUtils;
@@ -12,6 +17,7 @@ import javafx.scene.Scene;
 import javafx.scene.SnapshotParameters;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.ColorPicker;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.ContentDisplay;
@@ -19,12 +25,17 @@ import javafx.scene.control.ListCell;
 import javafx.scene.control.ListView;
 import javafx.scene.control.Label;
 import javafx.scene.control.ScrollPane;
+import javafx.scene.control.SelectionMode;
 import javafx.scene.control.TextField;
 import javafx.scene.control.ToggleButton;
 import javafx.scene.control.ToggleGroup;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.image.WritableImage;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCodeCombination;
+import javafx.scene.input.KeyCombination;
+import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.FlowPane;
 import javafx.scene.layout.HBox;
@@ -36,47 +47,111 @@ import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Rectangle;
 import javafx.scene.text.TextAlignment;
-import javafx.print.PageLayout;
-import javafx.print.PageOrientation;
-import javafx.print.Paper;
 import javafx.print.Printer;
-import javafx.print.PrinterJob;
 import javafx.stage.DirectoryChooser;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 import javafx.util.StringConverter;
 
-import javax.imageio.ImageIO;
+import java.awt.Dimension;
 import java.awt.FontMetrics;
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
 import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.URI;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class PhotoBooth extends Application {
 
-    private static final int CAPTURE_COUNT = 5;
+    static final int CAPTURE_COUNT = 5;
+    private static final int FRAME_RING_CAPACITY = 8;
+    private static final long SHARPEST_FRAME_WINDOW_NANOS = 150_000_000L;
+    private static final float JPEG_QUALITY = 0.92f;
+    private static final JpegEncoder.ChromaSubsampling JPEG_SUBSAMPLING = JpegEncoder.ChromaSubsampling.YUV444;
+    private static final boolean SAVE_RAW_CAPTURES = true;
+    /** Print queue, kept under the save folder so it does not depend on the launch directory. */
+    private static final String PRINT_SPOOL_DIRECTORY = ".print-spool";
+    private static final String SESSION_JOURNAL_DIRECTORY = ".session-journal";
+    private static final String GALLERY_DIRECTORY = ".gallery";
+    private static final String GALLERY_CATALOG_FILE = "strips.catalog";
+    /** Decoded gallery thumbnails kept in memory; enough for a few screens of scrolling. */
+    private static final int GALLERY_CACHED_THUMBNAILS = 240;
+    /** Base URI of a shared {@link RenderServer}; when set, sessions are uploaded instead of rendered here. */
+    private static final String RENDER_SERVER_PROPERTY = "photobooth.renderServer";
+    private static final String BOOTH_NAME_PROPERTY = "photobooth.boothName";
+    private static final DateTimeFormatter GALLERY_DATE_FORMAT =
+            DateTimeFormatter.ofPattern("MMM d, yyyy  h:mm a").withZone(ZoneId.systemDefault());
+    private static final int PRINT_MAX_ATTEMPTS = 3;
+    private static final Duration CAPTURE_STOP_TIMEOUT = Duration.ofMillis(750);
+    private static final KeyCombination DIAGNOSTICS_HOTKEY =
+            new KeyCodeCombination(KeyCode.D, KeyCombination.SHORTCUT_DOWN, KeyCombination.SHIFT_DOWN);
+    private static final KeyCombination KIOSK_PAUSE_HOTKEY = new KeyCodeCombination(KeyCode.ESCAPE);
+    /** Sessions that may be captured, rendering or waiting to print at once. */
+    private static final int MAX_SESSIONS_IN_FLIGHT = 3;
+    /** Cameras that may shoot alongside the main one; each adds a stream and a small preview. */
+    private static final int MAX_EXTRA_CAMERAS = 2;
+    private static final double EXTRA_CAMERA_PREVIEW_WIDTH = 220;
+    /** Off-heap budget for captures waiting to be rendered and encoded; {@code -Dphotobooth.frameArenaMb} overrides it. */
+    private static final long FRAME_ARENA_BYTES = Long.getLong("photobooth.frameArenaMb", 512) << 20;
+    /** Preview rate to aim for; {@code -Dphotobooth.previewFps} overrides it. The pacer may settle lower under load. */
+    private static final double PREVIEW_TARGET_FPS =
+            PreviewPacer.configuredFps(System.getProperty("photobooth.previewFps"));
+    private static final javafx.util.Duration KIOSK_NEXT_SESSION_DELAY = javafx.util.Duration.seconds(5);
 
     private Stage primaryStage;
     private Scene setupScene;
     private Scene captureScene;
 
     private ComboBox<Webcam> webcamBox;
+    private CameraDiscovery cameraDiscovery;
+    private PrinterCatalog printerCatalog;
     private TextField eventField;
     private ColorPicker colorPicker;
     private ComboBox<Integer> fontSizeBox;
     private ComboBox<Printer> printerBox;
+    private ListView<Printer> extraPrintersList;
+    private ListView<Webcam> extraCamerasList;
+    private HBox extraCameraPreviews;
+    private final List<AuxiliaryCamera> auxiliaryCameras = new CopyOnWriteArrayList<>();
+    private final List<PreviewScheduler> auxiliaryPreviewSchedulers = new ArrayList<>();
     private ComboBox<TextStyle> textStyleBox;
+    private ComboBox<CaptureMode> captureModeBox;
+    private CheckBox kioskModeBox;
     private ToggleGroup frameToggleGroup;
     private Label frameStatementPreview;
 
-    private Webcam webcam;
+    private volatile Webcam webcam;
     private ImageView videoView;
+    private PreviewScheduler previewScheduler;
+    private StillCapture stillCapture;
+    private FrameRing frameRing;
+    private final ReentrantLock cameraLock = new ReentrantLock();
+    private final CaptureRuntime captureRuntime = new CaptureRuntime("capture");
+    private CaptureRuntime.Scope cameraScope;
+    private CaptureRuntime.Scope sessionScope;
+    private CaptureRuntime.Scope recoveryScope;
     private Label captureInstruction;
     private Label captureTimerOverlay;
     private Label captureHeaderLabel;
@@ -88,9 +163,14 @@ public class PhotoBooth extends Application {
     private final Label[] captureThumbnailBadges = new Label[CAPTURE_COUNT];
 
     private boolean captureInProgress;
-    private final List<BufferedImage> capturedImages = new ArrayList<>();
+    private final FrameArena frameArena = new FrameArena(FRAME_ARENA_BYTES);
+    private final Map<String, List<FrameArena.Frame>> sessionFrames = new ConcurrentHashMap<>();
     private FrameTheme selectedTheme = FrameTheme.BIRTHDAY_CELEBRATION;
     private TextStyle selectedTextStyle = TextStyle.SCRIPT;
+    private CaptureMode selectedCaptureMode = CaptureMode.FULL_RESOLUTION;
+    private boolean kioskMode;
+    private PauseTransition kioskNextSession;
+    private final InFlightSessions inFlightSessions = new InFlightSessions(MAX_SESSIONS_IN_FLIGHT);
     private Printer selectedPrinter;
 
     private File saveDirectory = new File("photos");
@@ -99,6 +179,26 @@ public class PhotoBooth extends Application {
 
     private String stylesheet;
 
+    private SessionPipeline sessionPipeline;
+    private final JpegEncoder jpegEncoder = new JpegEncoder(JPEG_QUALITY, JPEG_SUBSAMPLING,
+            Math.max(1, Math.min(CAPTURE_COUNT + 1, Runtime.getRuntime().availableProcessors())));
+    private final ThumbnailService thumbnailService = new ThumbnailService();
+    private Label pipelineStatusLabel;
+    private Label diagnosticsLabel;
+    private Timeline diagnosticsRefresh;
+    private final BoothMetrics metrics = BoothMetrics.shared();
+    private String pipelineStatusText;
+    private String printQueueText;
+    private volatile PrintSpooler printSpooler;
+    private volatile SessionJournal sessionJournal;
+    private volatile GalleryCatalog galleryCatalog;
+    private RenderClient renderClient;
+    private List<PrinterBackend> syntheticPrinters = List.of();
+    private volatile boolean printersConfigured;
+    private final TemplateCompositor templateCompositor = new TemplateCompositor(
+            Executors.newFixedThreadPool(Math.max(1, Math.min(3, Runtime.getRuntime().availableProcessors() - 1)),
+                    new DaemonThreadFactory("template-region")));
+
     public static void main(String[] args) {
         launch(args);
     }
@@ -108,8 +208,22 @@ public class PhotoBooth extends Application {
         primaryStage = stage;
         primaryStage.setTitle("PhotoBooth Studio");
 
+        BoothMetrics.shared().registerMBeans();
+        DeviceSources.installConfiguredCamera();
+        syntheticPrinters = DeviceSources.configuredPrinters();
+        discardPartialJpegs();
+        startPrintSpooler();
         setupScene = buildSetupScene();
         captureScene = buildCaptureScene();
+        openGalleryCatalog();
+        sessionPipeline = new SessionPipeline(this::renderStrip, this::renderStripOnFxThread, jpegEncoder,
+                SAVE_RAW_CAPTURES, this::printStrip, this::stripSaved, this::onPipelineStatus, MAX_SESSIONS_IN_FLIGHT);
+        String renderServer = System.getProperty(RENDER_SERVER_PROPERTY);
+        if (renderServer != null && !renderServer.isBlank()) {
+            renderClient = new RenderClient(URI.create(renderServer), System.getProperty(RenderServer.TOKEN_PROPERTY),
+                    boothName(), this::onPipelineStatus);
+        }
+        openSessionJournal();
 
         primaryStage.setMinWidth(1040);
         primaryStage.setMinHeight(760);
@@ -117,17 +231,80 @@ public class PhotoBooth extends Application {
         primaryStage.show();
     }
 
+    @Override
+    public void stop() {
+        stopWebcam();
+        stopCaptureScope(recoveryScope);
+        captureRuntime.shutdown(CAPTURE_STOP_TIMEOUT);
+        if (cameraDiscovery != null) {
+            cameraDiscovery.close();
+        }
+        if (printerCatalog != null) {
+            printerCatalog.close();
+        }
+        if (sessionPipeline != null) {
+            sessionPipeline.close();
+        }
+        if (renderClient != null) {
+            renderClient.close();
+        }
+        if (sessionJournal != null) {
+            sessionJournal.close();
+        }
+        if (printSpooler != null) {
+            printSpooler.close();
+        }
+        if (galleryCatalog != null) {
+            galleryCatalog.close();
+        }
+        jpegEncoder.close();
+        thumbnailService.close();
+    }
+
     private Scene buildSetupScene() {
         webcamBox = new ComboBox<>();
         webcamBox.setPrefWidth(260);
-        loadAvailableWebcams();
+        webcamBox.setPromptText("Searching for cameras...");
+        cameraDiscovery = new CameraDiscovery(new CameraDiscovery.Listener() {
+            @Override
+            public void cameraFound(Webcam found) {
+                Platform.runLater(() -> addDiscoveredWebcam(found));
+            }
+
+            @Override
+            public void cameraGone(Webcam gone) {
+                Platform.runLater(() -> removeDiscoveredWebcam(gone));
+            }
+
+            @Override
+            public void enumerationFinished(List<Webcam> cameras) {
+                Platform.runLater(PhotoBooth.this::updateCameraPrompt);
+            }
+
+            @Override
+            public void discoveryFailed(Exception ex) {
+                Platform.runLater(PhotoBooth.this::updateCameraPrompt);
+                showError("Unable to enumerate available cameras.", ex);
+            }
+        });
+        cameraDiscovery.start();
 
         Button refreshCameras = new Button("Refresh Cameras");
         refreshCameras.getStyleClass().add("secondary-button");
-        refreshCameras.setOnAction(e -> loadAvailableWebcams());
+        refreshCameras.setOnAction(e -> cameraDiscovery.refresh());
 
         HBox cameraRow = new HBox(12, webcamBox, refreshCameras);
         cameraRow.setAlignment(Pos.CENTER_LEFT);
+        extraCamerasList = new ListView<>();
+        extraCamerasList.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        extraCamerasList.setPrefSize(260, 72);
+        extraCamerasList.setCellFactory(list -> new ListCell<>() {
+            @Override
+            protected void updateItem(Webcam item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty || item == null ? null : item.getName());
+            }
+        });
 
         eventField = new TextField("my event");
         eventField.setPromptText("Event name or honoree");
@@ -149,6 +326,13 @@ public class PhotoBooth extends Application {
         textStyleBox.getItems().addAll(TextStyle.values());
         textStyleBox.getSelectionModel().select(TextStyle.SCRIPT);
 
+        captureModeBox = new ComboBox<>();
+        captureModeBox.getItems().addAll(CaptureMode.values());
+        captureModeBox.getSelectionModel().select(selectedCaptureMode);
+
+        kioskModeBox = new CheckBox("Start the next session automatically");
+        kioskModeBox.setSelected(kioskMode);
+
         printerBox = new ComboBox<>();
         printerBox.setPrefWidth(260);
         printerBox.setPromptText("Use system default");
@@ -182,18 +366,44 @@ public class PhotoBooth extends Application {
         });
         Button refreshPrinters = new Button("Refresh Printers");
         refreshPrinters.getStyleClass().add("secondary-button");
-        refreshPrinters.setOnAction(e -> loadAvailablePrinters());
+        refreshPrinters.setOnAction(e -> printerCatalog.refresh());
         HBox printerRow = new HBox(12, printerBox, refreshPrinters);
         printerRow.setAlignment(Pos.CENTER_LEFT);
-        loadAvailablePrinters();
+        extraPrintersList = new ListView<>();
+        extraPrintersList.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        extraPrintersList.setPrefSize(260, 96);
+        extraPrintersList.setCellFactory(list -> new ListCell<>() {
+            @Override
+            protected void updateItem(Printer item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty || item == null ? null : item.getName());
+            }
+        });
+        printerBox.setPromptText("Searching for printers...");
+        printerCatalog = new PrinterCatalog(new PrinterCatalog.Listener() {
+            @Override
+            public void printersLoaded(List<Printer> printers, Printer defaultPrinter) {
+                Platform.runLater(() -> loadAvailablePrinters(printers, defaultPrinter));
+            }
+
+            @Override
+            public void loadFailed(Exception ex) {
+                showError("Unable to enumerate printers.", ex);
+            }
+        });
+        printerCatalog.refresh();
 
         controlFlow.getChildren().addAll(
                 buildField("Camera", cameraRow),
+                buildField("Also Shoot With", extraCamerasList),
                 buildField("Event Name", eventField),
                 buildField("Font Size", fontSizeBox),
                 buildField("Accent Color", colorPicker),
                 buildField("Event Text Style", textStyleBox),
-                buildField("Printer", printerRow));
+                buildField("Capture Mode", captureModeBox),
+                buildField("Continuous Kiosk Mode", kioskModeBox),
+                buildField("Printer", printerRow),
+                buildField("Also Print On", extraPrintersList));
 
         frameToggleGroup = new ToggleGroup();
         FlowPane frameSelector = new FlowPane();
@@ -231,6 +441,10 @@ public class PhotoBooth extends Application {
         chooseSaveFolder.getStyleClass().add("secondary-button");
         chooseSaveFolder.setOnAction(e -> chooseSaveDirectory());
 
+        Button openGallery = new Button("Gallery");
+        openGallery.getStyleClass().add("secondary-button");
+        openGallery.setOnAction(e -> showGallery());
+
         saveLocationLabel = new Label();
         saveLocationLabel.getStyleClass().add("save-location-label");
         updateSaveLocationLabel();
@@ -242,7 +456,7 @@ public class PhotoBooth extends Application {
         Region spacer = new Region();
         HBox.setHgrow(spacer, Priority.ALWAYS);
 
-        HBox actionRow = new HBox(14, chooseSaveFolder, saveLocationLabel, spacer, startSession);
+        HBox actionRow = new HBox(14, chooseSaveFolder, saveLocationLabel, spacer, openGallery, startSession);
         actionRow.getStyleClass().add("action-bar");
         actionRow.setAlignment(Pos.CENTER_RIGHT);
 
@@ -297,6 +511,9 @@ public class PhotoBooth extends Application {
         videoView.setPreserveRatio(true);
         videoView.setSmooth(true);
         videoView.getStyleClass().add("video-view");
+        previewScheduler = new PreviewScheduler(videoView,
+                () -> captureInstruction.setVisible(false),
+                () -> adjustVideoFit(captureScene));
 
         captureInstruction = new Label("Your live preview will appear here shortly.");
         captureInstruction.getStyleClass().add("capture-instruction");
@@ -340,7 +557,13 @@ public class PhotoBooth extends Application {
         thumbnailColumn.setMaxHeight(Double.MAX_VALUE);
         VBox.setVgrow(thumbnailList, Priority.ALWAYS);
 
-        videoStack = new StackPane(videoView, captureInstruction, captureTimerOverlay, startCycleButton);
+        extraCameraPreviews = new HBox(12);
+        extraCameraPreviews.setPickOnBounds(false);
+        extraCameraPreviews.setAlignment(Pos.BOTTOM_RIGHT);
+        extraCameraPreviews.setMaxSize(Region.USE_PREF_SIZE, Region.USE_PREF_SIZE);
+
+        videoStack = new StackPane(videoView, extraCameraPreviews, captureInstruction, captureTimerOverlay,
+                startCycleButton);
         videoStack.getStyleClass().add("capture-video-stack");
         videoStack.setMinSize(640, 480);
         videoStack.setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
@@ -348,6 +571,8 @@ public class PhotoBooth extends Application {
         StackPane.setMargin(captureInstruction, new Insets(96, 32, 0, 32));
         StackPane.setAlignment(captureTimerOverlay, Pos.CENTER);
         StackPane.setAlignment(startCycleButton, Pos.CENTER);
+        StackPane.setAlignment(extraCameraPreviews, Pos.BOTTOM_RIGHT);
+        StackPane.setMargin(extraCameraPreviews, new Insets(0, 24, 24, 0));
 
         videoClip = new Rectangle();
         videoStack.setClip(videoClip);
@@ -356,9 +581,33 @@ public class PhotoBooth extends Application {
         captureHeaderLabel.getStyleClass().add("capture-header");
         captureHeaderLabel.setWrapText(true);
 
+        pipelineStatusLabel = new Label();
+        pipelineStatusLabel.getStyleClass().add("pipeline-status");
+        pipelineStatusLabel.setWrapText(true);
+        pipelineStatusLabel.setMaxWidth(520);
+        pipelineStatusLabel.setVisible(false);
+
+        diagnosticsLabel = new Label();
+        diagnosticsLabel.getStyleClass().add("diagnostics-overlay");
+        diagnosticsLabel.setVisible(false);
+        diagnosticsLabel.setMouseTransparent(true);
+        diagnosticsRefresh = new Timeline(new KeyFrame(javafx.util.Duration.millis(500),
+                e -> diagnosticsLabel.setText(metrics.describe())));
+        diagnosticsRefresh.setCycleCount(Animation.INDEFINITE);
+
+        kioskNextSession = new PauseTransition(KIOSK_NEXT_SESSION_DELAY);
+        kioskNextSession.setOnFinished(e -> {
+            if (primaryStage.getScene() == captureScene && !captureInProgress) {
+                startCaptureSequence();
+            }
+        });
+
         BorderPane overlay = new BorderPane();
         overlay.setPickOnBounds(false);
         overlay.setTop(captureHeaderLabel);
+        overlay.setBottom(pipelineStatusLabel);
+        BorderPane.setAlignment(pipelineStatusLabel, Pos.BOTTOM_LEFT);
+        BorderPane.setMargin(pipelineStatusLabel, new Insets(12, 32, 32, 32));
         BorderPane.setAlignment(captureHeaderLabel, Pos.TOP_LEFT);
         BorderPane.setMargin(captureHeaderLabel, new Insets(24, 32, 12, 32));
         overlay.setRight(thumbnailColumn);
@@ -366,8 +615,10 @@ public class PhotoBooth extends Application {
         BorderPane.setMargin(thumbnailColumn, new Insets(32, 32, 32, 0));
         overlay.setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
 
-        StackPane root = new StackPane(videoStack, overlay);
+        StackPane root = new StackPane(videoStack, overlay, diagnosticsLabel);
         root.getStyleClass().add("capture-root");
+        StackPane.setAlignment(diagnosticsLabel, Pos.CENTER_LEFT);
+        StackPane.setMargin(diagnosticsLabel, new Insets(0, 0, 0, 32));
         StackPane.setAlignment(videoStack, Pos.CENTER);
         StackPane.setAlignment(overlay, Pos.TOP_LEFT);
         overlay.prefWidthProperty().bind(root.widthProperty());
@@ -375,57 +626,120 @@ public class PhotoBooth extends Application {
 
         Scene scene = new Scene(root, 1080, 760);
         applyStyles(scene);
+        scene.addEventFilter(KeyEvent.KEY_PRESSED, event -> {
+            if (DIAGNOSTICS_HOTKEY.match(event)) {
+                toggleDiagnostics();
+                event.consume();
+            } else if (KIOSK_PAUSE_HOTKEY.match(event) && kioskNextSession != null
+                    && kioskNextSession.getStatus() == Animation.Status.RUNNING) {
+                kioskNextSession.stop();
+                showReadyState("Kiosk mode paused. Press \"Begin Session\" to continue.", false);
+                event.consume();
+            }
+        });
         scene.widthProperty().addListener((obs, old, val) -> adjustVideoFit(scene));
         scene.heightProperty().addListener((obs, old, val) -> adjustVideoFit(scene));
         Platform.runLater(() -> adjustVideoFit(scene));
         return scene;
     }
 
-    private void loadAvailableWebcams() {
-        webcamBox.getItems().clear();
-        try {
-            List<Webcam> webcams = Webcam.getWebcams();
-            webcamBox.getItems().addAll(webcams);
-            if (!webcams.isEmpty()) {
-                webcamBox.getSelectionModel().selectFirst();
-            }
-        } catch (Exception ex) {
-            showError("Unable to enumerate available cameras.", ex);
+    /** Shows or hides the live metrics overlay; bound to {@link #DIAGNOSTICS_HOTKEY} on the capture scene. */
+    private void toggleDiagnostics() {
+        boolean show = !diagnosticsLabel.isVisible();
+        diagnosticsLabel.setVisible(show);
+        if (show) {
+            diagnosticsLabel.setText(metrics.describe());
+            diagnosticsRefresh.play();
+        } else {
+            diagnosticsRefresh.stop();
         }
     }
 
-    private void loadAvailablePrinters() {
-        if (printerBox == null) {
+    private void addDiscoveredWebcam(Webcam found) {
+        if (webcamBox.getItems().contains(found)) {
             return;
         }
-        try {
-            List<Printer> printers = new ArrayList<>(Printer.getAllPrinters());
-            printerBox.getItems().setAll(printers);
+        webcamBox.getItems().add(found);
+        extraCamerasList.getItems().add(found);
+        if (webcamBox.getSelectionModel().getSelectedItem() == null) {
+            webcamBox.getSelectionModel().select(found);
+        }
+    }
 
-            Printer preferred = selectedPrinter;
-            if (preferred != null && !printers.contains(preferred)) {
-                preferred = null;
-            }
-            if (preferred == null) {
-                Printer defaultPrinter = Printer.getDefaultPrinter();
-                if (defaultPrinter != null && printers.contains(defaultPrinter)) {
-                    preferred = defaultPrinter;
-                }
+    private void removeDiscoveredWebcam(Webcam gone) {
+        boolean wasSelected = gone.equals(webcamBox.getSelectionModel().getSelectedItem());
+        webcamBox.getItems().remove(gone);
+        extraCamerasList.getItems().remove(gone);
+        if (wasSelected && !webcamBox.getItems().isEmpty()) {
+            webcamBox.getSelectionModel().selectFirst();
+        }
+        updateCameraPrompt();
+    }
+
+    /** Shows "No cameras detected" instead of the searching prompt whenever the list is empty. */
+    private void updateCameraPrompt() {
+        if (webcamBox.getItems().isEmpty()) {
+            webcamBox.setPromptText("No cameras detected");
+        }
+    }
+
+    private void loadAvailablePrinters(List<Printer> printers, Printer defaultPrinter) {
+        if (printerBox == null) {
+            return;
+        }
+        printerBox.setPromptText("Use system default");
+        printerBox.getItems().setAll(printers);
+        List<Printer> extraSelection = new ArrayList<>(extraPrintersList.getSelectionModel().getSelectedItems());
+        extraPrintersList.getItems().setAll(printers);
+        for (Printer extra : extraSelection) {
+            if (printers.contains(extra)) {
+                extraPrintersList.getSelectionModel().select(extra);
             }
+        }
 
-            if (preferred != null) {
-                printerBox.getSelectionModel().select(preferred);
-                selectedPrinter = preferred;
-            } else if (!printers.isEmpty()) {
-                printerBox.getSelectionModel().selectFirst();
-                selectedPrinter = printerBox.getSelectionModel().getSelectedItem();
-            } else {
-                printerBox.getSelectionModel().clearSelection();
-                selectedPrinter = null;
+        Printer preferred = selectedPrinter;
+        if (preferred != null && !printers.contains(preferred)) {
+            preferred = null;
+        }
+        if (preferred == null && defaultPrinter != null && printers.contains(defaultPrinter)) {
+            preferred = defaultPrinter;
+        }
+
+        if (preferred != null) {
+            printerBox.getSelectionModel().select(preferred);
+            selectedPrinter = preferred;
+        } else if (!printers.isEmpty()) {
+            printerBox.getSelectionModel().selectFirst();
+            selectedPrinter = printerBox.getSelectionModel().getSelectedItem();
+        } else {
+            printerBox.getSelectionModel().clearSelection();
+            selectedPrinter = null;
+        }
+        configurePrintSpooler(defaultPrinter);
+    }
+
+    /** Spreads print jobs across the chosen printer plus any extra printers selected in setup. */
+    private void configurePrintSpooler(Printer fallback) {
+        if (printSpooler == null) {
+            return;
+        }
+        if (!syntheticPrinters.isEmpty()) {
+            printSpooler.setPrinters(syntheticPrinters);
+            printersConfigured = true;
+            return;
+        }
+        Map<String, PrinterBackend> backends = new LinkedHashMap<>();
+        Printer primary = selectedPrinter != null ? selectedPrinter : fallback;
+        if (primary != null) {
+            backends.put(primary.getName(), DeviceSources.printerBackend(primary, printerCatalog));
+        }
+        if (extraPrintersList != null) {
+            for (Printer extra : extraPrintersList.getSelectionModel().getSelectedItems()) {
+                backends.putIfAbsent(extra.getName(), DeviceSources.printerBackend(extra, printerCatalog));
             }
-        } catch (Exception ex) {
-            showError("Unable to enumerate printers.", ex);
         }
+        printSpooler.setPrinters(List.copyOf(backends.values()));
+        printersConfigured = !backends.isEmpty();
     }
 
     private void beginSession() {
@@ -447,7 +761,14 @@ public class PhotoBooth extends Application {
         selectedTheme = (FrameTheme) frameToggleGroup.getSelectedToggle().getUserData();
         selectedTextStyle = textStyleBox != null && textStyleBox.getValue() != null ? textStyleBox.getValue()
                 : TextStyle.SCRIPT;
+        selectedCaptureMode = captureModeBox != null && captureModeBox.getValue() != null
+                ? captureModeBox.getValue()
+                : CaptureMode.FULL_RESOLUTION;
+        kioskMode = kioskModeBox != null && kioskModeBox.isSelected();
+        // Setup may have changed the theme, style or event text; drop the old strip layers.
+        templateCompositor.invalidate();
         selectedPrinter = printerBox != null ? printerBox.getSelectionModel().getSelectedItem() : null;
+        configurePrintSpooler(printerCatalog.defaultPrinter());
         try {
             ensureSaveDirectoryExists();
         } catch (RuntimeException ex) {
@@ -461,6 +782,7 @@ public class PhotoBooth extends Application {
             primaryStage.setScene(setupScene);
             return;
         }
+        openAuxiliaryCameras(selectedCamera);
 
         showReadyState("Press \"Begin Session\" when you're ready. Five photos will be taken automatically.", true);
     }
@@ -473,7 +795,6 @@ public class PhotoBooth extends Application {
         captureHeaderLabel.setText(selectedTheme.formatHeadline(eventField.getText()));
 
         if (clearThumbnails) {
-            capturedImages.clear();
             for (int i = 0; i < captureThumbnails.length; i++) {
                 if (captureThumbnails[i] != null) {
                     captureThumbnails[i].setImage(null);
@@ -506,64 +827,210 @@ public class PhotoBooth extends Application {
     private boolean openWebcam(Webcam selected) {
         stopWebcam();
         try {
-            selected.setViewSize(WebcamResolution.VGA.getSize());
-            selected.open(true);
+            cameraLock.lock();
+            try {
+                StillCapture.registerViewSizes(selected);
+                selected.setViewSize(WebcamResolution.VGA.getSize());
+                selected.open(true);
+            } finally {
+                cameraLock.unlock();
+            }
             webcam = selected;
         } catch (Exception ex) {
             showError("Unable to open the selected camera.", ex);
             webcam = null;
             return false;
         }
-
-        Thread streamThread = new Thread(() -> {
-            while (webcam != null && webcam == selected && webcam.isOpen()) {
+        StillCapture still = new StillCapture(selected, WebcamResolution.VGA.getSize(), cameraLock);
+        stillCapture = still;
+
+        PreviewSurface surface = createPreviewSurface(selected);
+        // Full-resolution stills never come from the ring, so don't copy every preview frame into one.
+        Dimension viewSize = selected.getViewSize();
+        FrameRing ring = selectedCaptureMode != CaptureMode.FULL_RESOLUTION
+                ? new FrameRing(FRAME_RING_CAPACITY, viewSize.width, viewSize.height)
+                : null;
+        frameRing = ring;
+        PreviewStream stream = new PreviewStream(selected, ring, surface, previewScheduler::offerSurfaceFrame,
+                previewScheduler::offer);
+        previewScheduler.attach(surface);
+        previewScheduler.start();
+        PreviewPacer pacer = new PreviewPacer(PREVIEW_TARGET_FPS,
+                selected.getDevice() instanceof WebcamDevice.FPSSource source ? source.getFPS() : 0);
+        metrics.attachPreviewPacer(pacer);
+
+        cameraScope = captureRuntime.open("camera");
+        cameraScope.fork("stream", () -> {
+            while (webcam == selected && !Thread.currentThread().isInterrupted()) {
                 try {
-                    BufferedImage frame = webcam.getImage();
-                    if (frame != null) {
-                        Image fxImage = SwingFXUtils.toFXImage(frame, null);
-                        Platform.runLater(() -> {
-                            videoView.setImage(fxImage);
-                            captureInstruction.setVisible(false);
-                            if (captureScene != null) {
-                                adjustVideoFit(captureScene);
-                            }
-                        });
+                    // The camera is closed and reopened when a full-resolution session starts and ends.
+                    if (still.isSwitching()) {
+                        Thread.sleep(10);
+                        continue;
+                    }
+                    pacer.awaitFrame();
+                    cameraLock.lock();
+                    long grabStarted = System.nanoTime();
+                    try {
+                        if (still.isSwitching()) {
+                            continue;
+                        }
+                        if (!selected.isOpen()) {
+                            break;
+                        }
+                        if (still.isAtStillSize()) {
+                            stream.pumpStill(still);
+                        } else {
+                            stream.pumpFrame();
+                        }
+                    } finally {
+                        cameraLock.unlock();
                     }
-                    Thread.sleep(33);
+                    pacer.frameDone(grabStarted, System.nanoTime());
                 } catch (InterruptedException interrupted) {
                     Thread.currentThread().interrupt();
                     break;
                 } catch (Exception ex) {
-                    showError("Lost connection to the camera.", ex);
+                    if (webcam == selected) {
+                        showError("Lost connection to the camera.", ex);
+                    }
                     break;
                 }
             }
         });
-        streamThread.setDaemon(true);
-        streamThread.start();
 
         return true;
     }
 
+    /**
+     * Opens the extra cameras ticked in setup, each on its own capture task that then
+     * streams it to a small preview over the main one. A camera that fails to open
+     * is reported and left out; the session carries on with the rest.
+     */
+    private void openAuxiliaryCameras(Webcam primary) {
+        closeAuxiliaryCameras();
+        for (Webcam extra : extraCamerasList.getSelectionModel().getSelectedItems()) {
+            if (extra.equals(primary) || auxiliaryCameras.size() == MAX_EXTRA_CAMERAS) {
+                continue;
+            }
+            ImageView preview = new ImageView();
+            preview.setPreserveRatio(true);
+            preview.setFitWidth(EXTRA_CAMERA_PREVIEW_WIDTH);
+            preview.getStyleClass().add("video-view");
+            PreviewScheduler scheduler = new PreviewScheduler(preview, () -> { }, () -> { });
+            scheduler.attach(null);
+            auxiliaryCameras.add(new AuxiliaryCamera(extra, captureRuntime, scheduler::offer, ex -> {
+                showError("Unable to open " + extra.getName() + "; continuing without it.", ex);
+                Platform.runLater(() -> {
+                    scheduler.stop();
+                    auxiliaryPreviewSchedulers.remove(scheduler);
+                    extraCameraPreviews.getChildren().remove(preview);
+                });
+            }));
+            scheduler.start();
+            auxiliaryPreviewSchedulers.add(scheduler);
+            extraCameraPreviews.getChildren().add(preview);
+        }
+    }
+
+    private void closeAuxiliaryCameras() {
+        auxiliaryPreviewSchedulers.forEach(PreviewScheduler::stop);
+        auxiliaryPreviewSchedulers.clear();
+        if (extraCameraPreviews != null) {
+            extraCameraPreviews.getChildren().clear();
+        }
+        for (AuxiliaryCamera camera : auxiliaryCameras) {
+            camera.close();
+        }
+        auxiliaryCameras.clear();
+    }
+
+    /**
+     * Returns a pixel-buffer preview surface when the camera driver can hand out
+     * raw frame bytes, or {@code null} to fall back to per-frame image conversion.
+     */
+    private PreviewSurface createPreviewSurface(Webcam camera) {
+        if (!(camera.getDevice() instanceof WebcamDevice.BufferAccess)) {
+            return null;
+        }
+        Dimension size = camera.getViewSize();
+        if (size == null || size.width <= 0 || size.height <= 0) {
+            return null;
+        }
+        try {
+            return new PreviewSurface(size.width, size.height);
+        } catch (RuntimeException ex) {
+            ex.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Cancels the running session and the stream loop, waiting a bounded time for
+     * both to leave the camera, then closes it.
+     */
     private void stopWebcam() {
+        if (kioskNextSession != null) {
+            kioskNextSession.stop();
+        }
+        stopCaptureScope(sessionScope);
+        sessionScope = null;
+        stopCaptureScope(cameraScope);
+        cameraScope = null;
+        if (previewScheduler != null) {
+            previewScheduler.stop();
+        }
+        closeAuxiliaryCameras();
         if (webcam != null) {
+            cameraLock.lock();
             try {
-                webcam.close();
-            } catch (Exception ignored) {
+                if (stillCapture != null) {
+                    stillCapture.release();
+                }
+                try {
+                    webcam.close();
+                } catch (Exception ignored) {
+                } finally {
+                    webcam = null;
+                    stillCapture = null;
+                    frameRing = null;
+                }
             } finally {
-                webcam = null;
+                cameraLock.unlock();
             }
         }
     }
 
+    /** Stops {@code scope}, counting any task that outlives the timeout in the diagnostics overlay. */
+    private void stopCaptureScope(CaptureRuntime.Scope scope) {
+        if (scope != null && !scope.cancelAndJoin(CAPTURE_STOP_TIMEOUT)) {
+            metrics.captureTasksStuck(scope.stragglers().size());
+        }
+    }
+
     private void startCaptureSequence() {
         if (webcam == null || !webcam.isOpen() || captureInProgress) {
             return;
         }
+        File sessionDirectory;
+        try {
+            sessionDirectory = ensureSaveDirectoryExists();
+        } catch (RuntimeException ex) {
+            showError("Unable to access the save folder.", ex);
+            return;
+        }
         captureInProgress = true;
         currentSessionStamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
 
-        capturedImages.clear();
+        String stamp = currentSessionStamp;
+        FrameTheme theme = selectedTheme;
+        TextStyle style = selectedTextStyle;
+        String eventName = templateEventName();
+        String dateText = templateDateText();
+        String baseName = sanitizeForFile(eventField.getText());
+        CaptureMode captureMode = selectedCaptureMode;
+        // A render server prints on its own printers, whatever this booth has set up.
+        boolean print = renderClient != null || printersConfigured;
 
         if (startCycleButton != null) {
             startCycleButton.setDisable(true);
@@ -591,36 +1058,127 @@ public class PhotoBooth extends Application {
             }
         }
 
-        new Thread(() -> {
+        // A finished session's scope has no tasks left; closing it just releases it.
+        stopCaptureScope(sessionScope);
+        CaptureRuntime.Scope scope = captureRuntime.open("session-" + stamp);
+        sessionScope = scope;
+        CaptureRuntime.Scope camera = cameraScope;
+        long sessionStarted = System.nanoTime();
+        List<FrameArena.Frame> frames = new ArrayList<>(CAPTURE_COUNT);
+        sessionFrames.put(stamp, frames);
+        StillCapture still = stillCapture;
+        FutureTask<Boolean> stillSwitch = captureMode == CaptureMode.FULL_RESOLUTION
+                && still != null && still.supportsStills()
+                ? new FutureTask<>(still::switchToStill)
+                : null;
+        scope.fork("sequence", () -> {
             boolean success = true;
             try {
-                for (int i = 0; i < CAPTURE_COUNT; i++) {
+                if (!inFlightSessions.tryAcquire(stamp)) {
+                    showCaptureMessage("Just a moment \u2014 earlier strips are still printing.");
+                    inFlightSessions.acquire(stamp);
+                    showCaptureMessage(null);
+                }
+                if (sessionJournal != null) {
+                    sessionJournal.sessionStarted(stamp, theme, style, eventName, dateText, sessionDirectory,
+                            baseName, print);
+                }
+                // Reopen at full resolution once, during the first countdown, and stay there for the session.
+                if (stillSwitch != null) {
+                    scope.fork("still-switch", stillSwitch);
+                }
+                // Each countdown fills one slot per camera: the main shot first, then the extras.
+                List<AuxiliaryCamera> extras = auxiliaryCameras.stream().filter(AuxiliaryCamera::isOpen).toList();
+                for (int i = 0; i < CAPTURE_COUNT; i += 1 + extras.size()) {
                     highlightThumbnail(i);
-                    runCountdownOverlay(3);
+                    long shutterNanos = runCountdownOverlay(3);
 
-                    if (webcam == null || !webcam.isOpen()) {
+                    if (webcam == null) {
                         throw new IllegalStateException("Camera disconnected.");
                     }
 
-                    BufferedImage raw = webcam.getImage();
+                    // Pick the extras' frames now, before a full-resolution still can take its time.
+                    List<Future<BufferedImage>> extraShots = new ArrayList<>(extras.size());
+                    for (AuxiliaryCamera extra : extras) {
+                        if (i + 1 + extraShots.size() == CAPTURE_COUNT) {
+                            break;
+                        }
+                        extraShots.add(extra.snapshotAt(shutterNanos, captureMode == CaptureMode.ZERO_LAG_SHARPEST,
+                                SHARPEST_FRAME_WINDOW_NANOS));
+                    }
+
+                    BoothEvents.Capture event = new BoothEvents.Capture();
+                    event.begin();
+                    BufferedImage raw;
+                    if (stillSwitch != null) {
+                        raw = grabStill(still, stillSwitch);
+                    } else {
+                        raw = grabBufferedFrame(captureMode, shutterNanos);
+                    }
                     if (raw == null) {
                         throw new IllegalStateException("Failed to capture image.");
                     }
+                    metrics.recordSince(BoothMetrics.Stage.SHUTTER_LAG, shutterNanos);
+                    event.end();
+                    if (event.shouldCommit()) {
+                        event.session = stamp;
+                        event.shot = i + 1;
+                        event.mode = captureMode.name();
+                        event.width = raw.getWidth();
+                        event.height = raw.getHeight();
+                        event.commit();
+                    }
 
-                    capturedImages.add(raw);
-                    updateThumbnail(i, raw);
+                    List<BufferedImage> shots = new ArrayList<>(1 + extraShots.size());
+                    shots.add(raw);
+                    for (Future<BufferedImage> extraShot : extraShots) {
+                        shots.add(extraShot.get());
+                    }
+                    for (int shot = 0; shot < shots.size(); shot++) {
+                        int slot = i + shot;
+                        FrameArena.Frame frame = frameArena.tryLease(shots.get(shot), Duration.ZERO);
+                        if (frame == null) {
+                            showCaptureMessage("Just a moment \u2014 finishing earlier strips.");
+                            frame = frameArena.lease(shots.get(shot));
+                            showCaptureMessage(null);
+                        }
+                        frames.add(frame);
+                        if (sessionJournal != null) {
+                            sessionJournal.frameCaptured(stamp, slot, frame);
+                        }
+                        updateThumbnail(slot, frame);
+                    }
                 }
+                if (sessionJournal != null) {
+                    sessionJournal.sessionCaptured(stamp);
+                }
+                List<BufferedImage> captures = frames.stream().map(FrameArena.Frame::image).toList();
+                submitSession(new SessionPipeline.Session(stamp, captures, theme, style,
+                        eventName, dateText, sessionDirectory, baseName, print, sessionStarted));
             } catch (InterruptedException interrupted) {
                 Thread.currentThread().interrupt();
                 success = false;
             } catch (Exception ex) {
                 success = false;
-                showError("Capture failed.", ex);
+                if (!scope.isCancelled()) {
+                    showError("Capture failed.", ex);
+                }
             } finally {
-                boolean complete = success && capturedImages.size() == CAPTURE_COUNT;
+                if (stillSwitch != null) {
+                    restorePreview(still, camera);
+                }
+                boolean complete = success && frames.size() == CAPTURE_COUNT;
+                if (!complete) {
+                    inFlightSessions.release(stamp);
+                    releaseFrames(stamp);
+                    // A cancelled session is discarded; one cut short by the camera is kept for recovery.
+                    if (scope.isCancelled() && sessionJournal != null) {
+                        sessionJournal.sessionFinished(stamp);
+                    }
+                }
                 Platform.runLater(() -> finishCapture(complete));
             }
-        }).start();
+        });
     }
 
     private void highlightThumbnail(int index) {
@@ -640,7 +1198,62 @@ public class PhotoBooth extends Application {
         });
     }
 
-    private void runCountdownOverlay(int seconds) throws InterruptedException {
+    /**
+     * Takes a full-resolution still once the session's camera switch completes.
+     * Falls back to a preview frame when the camera could not be opened above its
+     * preview size.
+     */
+    private BufferedImage grabStill(StillCapture still, FutureTask<Boolean> stillSwitch)
+            throws InterruptedException, ExecutionException {
+        return stillSwitch.get() ? still.grab() : grabPreviewFrame();
+    }
+
+    /** Hands the camera back to the preview-size stream once a full-resolution session ends. */
+    private void restorePreview(StillCapture still, CaptureRuntime.Scope camera) {
+        camera.fork("preview-switch", () -> {
+            try {
+                still.switchToPreview();
+            } catch (RuntimeException ex) {
+                showError("Unable to restore the camera preview.", ex);
+            }
+        });
+    }
+
+    /**
+     * Picks the still from the recent-frame ring: the frame shown at countdown zero, or
+     * in {@link CaptureMode#ZERO_LAG_SHARPEST} the sharpest frame around it. Falls back
+     * to a fresh preview frame while the ring is still empty.
+     */
+    private BufferedImage grabBufferedFrame(CaptureMode mode, long shutterNanos) {
+        FrameRing ring = frameRing;
+        BufferedImage frame = null;
+        if (ring != null && mode != CaptureMode.FULL_RESOLUTION) {
+            frame = mode == CaptureMode.ZERO_LAG_SHARPEST
+                    ? ring.sharpestAround(shutterNanos, SHARPEST_FRAME_WINDOW_NANOS)
+                    : ring.closestTo(shutterNanos);
+        }
+        return frame != null ? frame : grabPreviewFrame();
+    }
+
+    private BufferedImage grabPreviewFrame() {
+        cameraLock.lock();
+        try {
+            Webcam camera = webcam;
+            if (camera == null || !camera.isOpen()) {
+                throw new IllegalStateException("Camera disconnected.");
+            }
+            return camera.getImage();
+        } finally {
+            cameraLock.unlock();
+        }
+    }
+
+    /**
+     * Shows a {@code seconds}-long countdown.
+     *
+     * @return the {@link System#nanoTime()} at which the countdown reached zero
+     */
+    private long runCountdownOverlay(int seconds) throws InterruptedException {
         for (int i = seconds; i >= 1; i--) {
             int display = i;
             Platform.runLater(() -> {
@@ -649,15 +1262,32 @@ public class PhotoBooth extends Application {
             });
             Thread.sleep(1000);
         }
+        long zero = System.nanoTime();
         Platform.runLater(() -> {
             captureTimerOverlay.setVisible(false);
             captureTimerOverlay.setText("");
         });
         Thread.sleep(150);
+        return zero;
     }
 
-    private void updateThumbnail(int index, BufferedImage annotated) {
-        WritableImage fxImage = SwingFXUtils.toFXImage(annotated, null);
+    /**
+     * Converts a capture for the thumbnail column. The frame is retained until the
+     * worker is done reading it, so a cancelled session cannot hand its slot back
+     * to the arena mid-conversion.
+     */
+    private void updateThumbnail(int index, FrameArena.Frame frame) {
+        frame.retain();
+        thumbnailService.convert(frame.image(), index)
+                .whenComplete((fxImage, ex) -> frame.release())
+                .thenAccept(fxImage -> showThumbnail(index, fxImage))
+                .exceptionally(ex -> {
+                    ex.printStackTrace();
+                    return null;
+                });
+    }
+
+    private void showThumbnail(int index, Image fxImage) {
         Platform.runLater(() -> {
             if (index >= 0 && index < captureThumbnails.length && captureThumbnails[index] != null) {
                 captureThumbnails[index].setImage(fxImage);
@@ -680,15 +1310,127 @@ public class PhotoBooth extends Application {
             return;
         }
 
-        if (capturedImages.size() < CAPTURE_COUNT) {
-            showReadyState("Not enough photos captured. Press \"Begin Session\" to retry.", true);
+        if (kioskMode) {
+            showReadyState("Thank you! Your strip is on its way. The next session starts in a moment.", false);
+            startCycleButton.setVisible(false);
+            startCycleButton.setManaged(false);
+            kioskNextSession.playFromStart();
             return;
         }
+        showReadyState("Thank you! Your strip is on its way. Press \"Begin Session\" for another set.", false);
+    }
 
-        WritableImage template = createTemplate();
-        autoSaveAndPrint(template);
-        capturedImages.clear();
-        showReadyState("Thank you! Press \"Begin Session\" for another set.", false);
+    /** Shows {@code message} over the preview from any thread, or hides it when {@code null}. */
+    private void showCaptureMessage(String message) {
+        Platform.runLater(() -> {
+            captureInstruction.setText(message != null ? message : "");
+            captureInstruction.setVisible(message != null);
+        });
+    }
+
+    /**
+     * Returns a finished session's captures to the frame arena and frees its in-flight
+     * slot unless a print job still holds it, then updates the status line.
+     */
+    private void onPipelineStatus(SessionPipeline.Status status) {
+        if (status.stage() == SessionPipeline.Stage.COMPLETED || status.stage() == SessionPipeline.Stage.FAILED) {
+            releaseFrames(status.stamp());
+            if (status.stage() == SessionPipeline.Stage.COMPLETED && sessionJournal != null) {
+                sessionJournal.sessionFinished(status.stamp());
+            }
+            inFlightSessions.pipelineFinished(status.stamp(), status.stage() == SessionPipeline.Stage.FAILED);
+        }
+        Platform.runLater(() -> updatePipelineStatus(status));
+    }
+
+    /**
+     * Hands a captured session to the local pipeline, or uploads it when this booth
+     * is a client of a render server. Blocks while the chosen queue is full.
+     */
+    private void submitSession(SessionPipeline.Session session) throws IOException, InterruptedException {
+        if (renderClient != null) {
+            renderClient.submit(session);
+        } else {
+            sessionPipeline.submit(session);
+        }
+    }
+
+    /** Name a render server files this booth's strips under: {@value #BOOTH_NAME_PROPERTY}, else the host name. */
+    private static String boothName() {
+        String configured = System.getProperty(BOOTH_NAME_PROPERTY);
+        if (configured != null && !configured.isBlank()) {
+            return configured;
+        }
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (IOException ex) {
+            return "booth";
+        }
+    }
+
+    private void releaseFrames(String stamp) {
+        List<FrameArena.Frame> frames = sessionFrames.remove(stamp);
+        if (frames != null) {
+            frames.forEach(FrameArena.Frame::release);
+        }
+    }
+
+    private void updatePipelineStatus(SessionPipeline.Status status) {
+        StringBuilder text = new StringBuilder();
+        text.append("Strips in progress: ").append(status.pending())
+                .append("  \u2022  Completed: ").append(status.completed());
+        if (status.failed() > 0) {
+            text.append("  \u2022  Failed: ").append(status.failed());
+        }
+        text.append("\nSession ").append(status.stamp()).append(": ").append(status.stage());
+        if (status.message() != null) {
+            text.append(" \u2014 ").append(status.message());
+        }
+        pipelineStatusText = text.toString();
+        showStatusText(status.stage() == SessionPipeline.Stage.FAILED);
+    }
+
+    private void updatePrintQueueStatus(String event, boolean failed) {
+        PrintSpooler spooler = printSpooler;
+        if (spooler == null) {
+            return;
+        }
+        StringBuilder text = new StringBuilder();
+        for (PrintSpooler.PrinterStats stats : spooler.stats()) {
+            if (!text.isEmpty()) {
+                text.append("  \u2022  ");
+            }
+            text.append(stats.name()).append(": ").append(stats.outstanding()).append(" queued, ")
+                    .append(stats.completed()).append(" printed")
+                    .append(String.format(" (%.1f/min)", stats.jobsPerMinute()));
+            if (stats.failed() > 0) {
+                text.append(", ").append(stats.failed()).append(" failed");
+            }
+        }
+        if (event != null) {
+            text.append(text.isEmpty() ? "" : "\n").append(event);
+        }
+        printQueueText = text.toString();
+        showStatusText(failed);
+    }
+
+    private void showStatusText(boolean error) {
+        StringBuilder text = new StringBuilder();
+        if (pipelineStatusText != null) {
+            text.append(pipelineStatusText);
+        }
+        if (printQueueText != null && !printQueueText.isEmpty()) {
+            text.append(text.isEmpty() ? "" : "\n").append(printQueueText);
+        }
+        pipelineStatusLabel.setText(text.toString());
+        pipelineStatusLabel.setVisible(true);
+        if (error) {
+            if (!pipelineStatusLabel.getStyleClass().contains("pipeline-status-error")) {
+                pipelineStatusLabel.getStyleClass().add("pipeline-status-error");
+            }
+        } else {
+            pipelineStatusLabel.getStyleClass().remove("pipeline-status-error");
+        }
     }
 
     private void updateFrameStatementPreview() {
@@ -764,16 +1506,55 @@ public class PhotoBooth extends Application {
             chooser.setInitialDirectory(saveDirectory);
         }
         File selected = chooser.showDialog(primaryStage);
-        if (selected != null) {
-            saveDirectory = selected;
-            try {
-                ensureSaveDirectoryExists();
-            } catch (RuntimeException ex) {
-                showError("Unable to access the save folder.", ex);
-                return;
-            }
-            updateSaveLocationLabel();
+        if (selected == null || selected.getAbsoluteFile().equals(saveDirectory.getAbsoluteFile())) {
+            return;
+        }
+        if (inFlightSessions.inFlight() > 0 || (recoveryScope != null && !recoveryScope.stragglers().isEmpty())) {
+            new Alert(Alert.AlertType.INFORMATION,
+                    "Strips are still being saved or printed. Change the save folder once they have finished.")
+                    .showAndWait();
+            return;
         }
+        File previous = saveDirectory;
+        saveDirectory = selected;
+        try {
+            ensureSaveDirectoryExists();
+        } catch (RuntimeException ex) {
+            saveDirectory = previous;
+            showError("Unable to access the save folder.", ex);
+            return;
+        }
+        reopenSaveFolderState();
+        updateSaveLocationLabel();
+    }
+
+    /**
+     * Moves the booth state kept in the save folder over to a newly chosen folder.
+     * The old folder's files stay where they are and are picked up again if that
+     * folder is chosen later; the new folder's are recovered as they would be at
+     * start-up.
+     */
+    private void reopenSaveFolderState() {
+        stopCaptureScope(recoveryScope);
+        recoveryScope = null;
+        if (sessionJournal != null) {
+            sessionJournal.close();
+            sessionJournal = null;
+        }
+        if (galleryCatalog != null) {
+            galleryCatalog.close();
+            galleryCatalog = null;
+        }
+        if (printSpooler != null) {
+            printSpooler.close();
+            printSpooler = null;
+        }
+        printQueueText = null;
+        discardPartialJpegs();
+        startPrintSpooler();
+        configurePrintSpooler(printerCatalog != null ? printerCatalog.defaultPrinter() : null);
+        openGalleryCatalog();
+        openSessionJournal();
     }
 
     private void updateSaveLocationLabel() {
@@ -792,102 +1573,66 @@ public class PhotoBooth extends Application {
         return saveDirectory;
     }
 
-    private WritableImage createTemplate() {
-        final int W = 1800;
-        final int H = 1200;
+    /** Booth state that belongs with the photos, such as the print queue, resolved inside the save folder. */
+    private Path underSaveFolder(String name) {
+        return saveDirectory.getAbsoluteFile().toPath().resolve(name);
+    }
 
-        // Layout constants
-        final double padding = 48; // outer padding
-        final double topBarHeight = 90; // space for the top-left/right labels
-        final double betweenSections = 28; // spacing between major sections
-        double thumbRowHeight = 200; // height target for thumbnail row
-        double thumbSpacing = 18; // gap between thumbnails
+    private WritableImage createTemplate(List<BufferedImage> captures, FrameTheme theme, TextStyle style,
+            String eventName, String dateText) throws InterruptedException, ExecutionException {
+        TemplateLayout layout = TemplateLayout.strip();
+        final int W = layout.width();
+        final int H = layout.height();
 
-        if (capturedImages.size() < CAPTURE_COUNT) {
+        if (captures.size() < CAPTURE_COUNT) {
             throw new IllegalStateException("Not enough images captured to build template");
         }
 
         // ---- Canvas root ----
         Pane canvas = new Pane();
         canvas.setPrefSize(W, H);
-        canvas.getStyleClass().addAll("template-canvas", selectedTheme.canvasCss(), "template-bordered");
+        canvas.getStyleClass().addAll("template-canvas", theme.canvasCss(), "template-bordered");
 
-        // ---- Prepare FX images ----
+        // ---- Prepare FX images (already converted for the thumbnail column) ----
         Image[] fxImgs = new Image[CAPTURE_COUNT];
         for (int i = 0; i < CAPTURE_COUNT; i++) {
-            fxImgs[i] = SwingFXUtils.toFXImage(capturedImages.get(i), null);
-        }
-
-        // ---- Derive event name (with style rules) ----
-        String eventName = eventField.getText();
-        if (eventName == null || eventName.isBlank()) {
-            eventName = "Your Event";
-        } else {
-            eventName = eventName.trim();
-        }
-        if (selectedTextStyle == TextStyle.MODERN) {
-            eventName = eventName.toUpperCase();
+            fxImgs[i] = thumbnailService.fxImage(captures.get(i), i);
         }
 
         // ---- Top labels (event left, date right) ----
         // Event name top-left, uses your cursive/modern/classic styles from CSS
         Label eventNameLabel = new Label(eventName);
-        eventNameLabel.getStyleClass().addAll("template-event-label", selectedTextStyle.cssClass());
-        eventNameLabel.setLayoutX(padding + 10);
-        eventNameLabel.setLayoutY(padding - 8); // slightly tuck upward
+        eventNameLabel.getStyleClass().addAll("template-event-label", style.cssClass());
+        eventNameLabel.setLayoutX(layout.eventX());
+        eventNameLabel.setLayoutY(layout.eventY());
 
         // Date (or you can replace with any right-top text)
-        String dateText = new SimpleDateFormat("MMM dd, yyyy").format(new Date());
         Label dateLabel = new Label(dateText);
         dateLabel.getStyleClass().add("template-event-label");
         dateLabel.setTextAlignment(TextAlignment.RIGHT);
         dateLabel.setAlignment(Pos.CENTER_RIGHT);
         // give it a max width and position it on the right
-        double rightLabelWidth = 320;
-        dateLabel.setMaxWidth(rightLabelWidth);
-        dateLabel.setPrefWidth(rightLabelWidth);
-        dateLabel.setLayoutX(W - padding - rightLabelWidth - 10);
-        dateLabel.setLayoutY(padding - 8);
+        dateLabel.setMaxWidth(layout.dateWidth());
+        dateLabel.setPrefWidth(layout.dateWidth());
+        dateLabel.setLayoutX(layout.dateX());
+        dateLabel.setLayoutY(layout.dateY());
 
         canvas.getChildren().addAll(eventNameLabel, dateLabel);
 
-        // ---- Compute main photo area ----
-        double mainWidth = W - padding * 2;
-        // Height available after top bar + spacing + thumb row + spacing + bottom
-        // padding
-        double availableForMain = H - padding - topBarHeight - betweenSections - thumbRowHeight - betweenSections
-                - padding;
-
-        // Ensure a reasonable minimum height; if tight, shrink thumb row a bit
-        if (availableForMain < 360) {
-            thumbRowHeight = Math.max(170, thumbRowHeight - 30);
-            availableForMain = H - padding - topBarHeight - betweenSections - thumbRowHeight - betweenSections
-                    - padding;
-        }
-
-        double mainHeight = availableForMain;
-        double mainTop = padding + topBarHeight + betweenSections;
-
         // ---- Large main photo (slightly smaller to avoid crowding) ----
         ImageView mainView = new ImageView(fxImgs[0]);
         mainView.setPreserveRatio(true);
         mainView.setSmooth(true);
         mainView.getStyleClass().add("template-photo");
-
-        // scale with a little breathing room
-        mainView.setFitWidth(mainWidth * 0.95);
-        mainView.setFitHeight(mainHeight * 0.95);
-        mainView.setLayoutX(padding + (mainWidth - mainView.getFitWidth()) / 2.0);
-        mainView.setLayoutY(mainTop + (mainHeight - mainView.getFitHeight()) / 2.0);
+        mainView.setFitWidth(layout.mainFitWidth());
+        mainView.setFitHeight(layout.mainFitHeight());
+        mainView.setLayoutX(layout.mainX());
+        mainView.setLayoutY(layout.mainY());
 
         canvas.getChildren().add(mainView);
 
         // ---- Thumbnails row (1..4) under the main photo, no overlap ----
-        double thumbRowTop = mainTop + mainHeight + betweenSections;
-        double usableThumbWidth = mainWidth - (thumbSpacing * 3); // 4 thumbs → 3 gaps
-        double thumbWidth = usableThumbWidth / 4.0;
-
-        // Safety: if preserveRatio results in taller than thumbRowHeight, we still pin
+        // Safety: if preserveRatio results in taller than the row height, we still pin
         // Y by thumbRowTop
         for (int i = 1; i < CAPTURE_COUNT; i++) {
             ImageView thumb = new ImageView(fxImgs[i]);
@@ -896,12 +1641,10 @@ public class PhotoBooth extends Application {
             thumb.getStyleClass().add("template-photo");
 
             // fit target box
-            thumb.setFitWidth(thumbWidth);
-            thumb.setFitHeight(thumbRowHeight);
-
-            double x = padding + (thumbWidth + thumbSpacing) * (i - 1) + 10; // tiny nudge
-            thumb.setLayoutX(x);
-            thumb.setLayoutY(thumbRowTop);
+            thumb.setFitWidth(layout.thumbWidth());
+            thumb.setFitHeight(layout.thumbHeight());
+            thumb.setLayoutX(layout.thumbX(i - 1));
+            thumb.setLayoutY(layout.thumbRowTop());
 
             canvas.getChildren().add(thumb);
         }
@@ -912,70 +1655,256 @@ public class PhotoBooth extends Application {
         return snapshot;
     }
 
-    private void autoSaveAndPrint(WritableImage templateImage) {
+    /** Event name as printed on the strip, with the selected text style's casing rules. */
+    private String templateEventName() {
+        String eventName = eventField.getText();
+        if (eventName == null || eventName.isBlank()) {
+            eventName = "Your Event";
+        } else {
+            eventName = eventName.trim();
+        }
+        if (selectedTextStyle == TextStyle.MODERN) {
+            eventName = eventName.toUpperCase();
+        }
+        return eventName;
+    }
+
+    private String templateDateText() {
+        return new SimpleDateFormat("MMM dd, yyyy").format(new Date());
+    }
+
+    private BufferedImage renderStrip(SessionPipeline.Session session) throws InterruptedException {
+        return templateCompositor.render(session.captures(), session.theme(), session.style(),
+                session.eventName(), session.dateText());
+    }
+
+    /** Scene-graph fallback for {@link #renderStrip}; snapshots must happen on the FX thread. */
+    private BufferedImage renderStripOnFxThread(SessionPipeline.Session session) throws Exception {
+        FutureTask<BufferedImage> task = new FutureTask<>(() -> SwingFXUtils.fromFXImage(
+                createTemplate(session.captures(), session.theme(), session.style(),
+                        session.eventName(), session.dateText()),
+                null));
+        Platform.runLater(task);
+        return task.get();
+    }
+
+    /** Deletes JPEG temporary files a crash left in the save folder, before anything new is written there. */
+    private void discardPartialJpegs() {
         try {
-            File dir = ensureSaveDirectoryExists();
-            String baseName = sanitizeForFile(eventField.getText());
-            String stamp = currentSessionStamp != null ? currentSessionStamp
-                    : new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
-            File outFile = new File(dir, String.format("%s_strip_%s.jpg", baseName, stamp));
-            BufferedImage bImage = SwingFXUtils.fromFXImage(templateImage, null);
-            ImageIO.write(bImage, "JPEG", outFile);
-
-            Printer printer = selectedPrinter != null ? selectedPrinter : Printer.getDefaultPrinter();
-            StringBuilder message = new StringBuilder("Saved strip to: ").append(outFile.getAbsolutePath());
-            if (printer != null) {
-                PrinterJob job = PrinterJob.createPrinterJob(printer);
-                if (job != null) {
-                    Paper photoPaper = resolvePhotoPaper(printer);
-                    PageLayout layout = printer.createPageLayout(photoPaper, PageOrientation.LANDSCAPE,
-                            Printer.MarginType.HARDWARE_MINIMUM);
-                    job.getJobSettings().setPageLayout(layout);
-
-                    ImageView iv = new ImageView(templateImage);
-                    double printableWidth = layout.getPrintableWidth();
-                    double printableHeight = layout.getPrintableHeight();
-                    double scale = Math.min(printableWidth / templateImage.getWidth(),
-                            printableHeight / templateImage.getHeight());
-                    if (scale > 1.0) {
-                        scale = 1.0;
-                    }
-                    iv.setFitWidth(templateImage.getWidth() * scale);
-                    iv.setFitHeight(templateImage.getHeight() * scale);
-                    iv.setPreserveRatio(true);
+            JpegEncoder.discardPartialFiles(saveDirectory.getAbsoluteFile().toPath());
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+    }
 
-                    if (job.printPage(layout, iv)) {
-                        job.endJob();
-                        message.append("\nPrint sent to ").append(printer.getName());
-                    } else {
-                        message.append("\nPrint could not be completed.");
-                    }
-                } else {
-                    message.append("\nUnable to create printer job for ").append(printer.getName());
+    private void startPrintSpooler() {
+        try {
+            printSpooler = new PrintSpooler(underSaveFolder(PRINT_SPOOL_DIRECTORY), PRINT_MAX_ATTEMPTS,
+                    new PrintSpooler.Listener() {
+                @Override
+                public void jobPrinted(PrintSpooler.SpoolJob job, String printerName) {
+                    inFlightSessions.printFinished(job.stripFile());
+                    Platform.runLater(() -> updatePrintQueueStatus(
+                            "Printed " + job.stripFile().getFileName() + " on " + printerName, false));
                 }
-            } else {
-                message.append("\nNo printer selected or detected.");
+
+                @Override
+                public void jobFailed(PrintSpooler.SpoolJob job, String reason) {
+                    inFlightSessions.printFinished(job.stripFile());
+                    Platform.runLater(() -> updatePrintQueueStatus(
+                            "Could not print " + job.stripFile().getFileName() + " \u2014 " + reason, true));
+                }
+            });
+            int recovered = printSpooler.recover();
+            if (recovered > 0) {
+                printQueueText = recovered + " print job(s) from the last run are waiting for a printer.";
             }
-            Alert info = new Alert(Alert.AlertType.INFORMATION, message.toString());
-            info.setTitle("PhotoBooth");
-            info.setHeaderText("Photo strip generated");
-            info.showAndWait();
-        } catch (Exception ex) {
-            showError("Print/save error.", ex);
+        } catch (IOException ex) {
+            showError("Unable to open the print queue.", ex);
+        }
+    }
+
+    private void openGalleryCatalog() {
+        try {
+            galleryCatalog = new GalleryCatalog(underSaveFolder(GALLERY_DIRECTORY).resolve(GALLERY_CATALOG_FILE),
+                    GALLERY_CACHED_THUMBNAILS);
+        } catch (IOException ex) {
+            showError("Unable to open the gallery.", ex);
+            return;
+        }
+        if (galleryCatalog.droppedBytes() > 0) {
+            pipelineStatusText = "The gallery's last entry was damaged by a crash and has been removed.";
+            showStatusText(true);
         }
     }
 
-    private Paper resolvePhotoPaper(Printer printer) {
-        // Try to find a common photo paper size
-        for (Paper paper : Printer.getDefaultPrinter().getPrinterAttributes().getSupportedPapers()) {
-            String name = paper.getName().toLowerCase();
-            if (name.contains("4x6") || name.contains("4 x 6") || name.contains("4 by 6")) {
-                return paper;
+    /** Records a strip the pipeline has saved in whichever gallery is open for the current save folder. */
+    private void stripSaved(SessionPipeline.Session session, Path stripFile, BufferedImage strip) throws IOException {
+        GalleryCatalog catalog = galleryCatalog;
+        if (catalog != null) {
+            catalog.stripSaved(session, stripFile, strip);
+        }
+    }
+
+    /**
+     * Shows every saved strip, newest first. Only the rows on screen ask for their
+     * thumbnails, which the catalog decodes in the background.
+     */
+    private void showGallery() {
+        if (galleryCatalog == null) {
+            new Alert(Alert.AlertType.INFORMATION, "The gallery is unavailable.").showAndWait();
+            return;
+        }
+        List<GalleryCatalog.Entry> entries = new ArrayList<>(galleryCatalog.entries());
+        Collections.reverse(entries);
+        Label status = new Label(entries.size() + " strip(s)");
+        status.getStyleClass().add("save-location-label");
+
+        ListView<GalleryCatalog.Entry> strips = new ListView<>();
+        strips.getStyleClass().add("gallery-list");
+        strips.setFixedCellSize(GalleryCatalog.THUMBNAIL_HEIGHT / 2.0 + 16);
+        strips.setPlaceholder(new Label("No strips saved yet."));
+        strips.setCellFactory(list -> new ListCell<>() {
+            private final ImageView thumbnail = new ImageView();
+
+            {
+                thumbnail.setFitWidth(GalleryCatalog.THUMBNAIL_WIDTH / 2.0);
+                thumbnail.setFitHeight(GalleryCatalog.THUMBNAIL_HEIGHT / 2.0);
+                thumbnail.setPreserveRatio(true);
+                thumbnail.setSmooth(true);
+            }
+
+            @Override
+            protected void updateItem(GalleryCatalog.Entry item, boolean empty) {
+                super.updateItem(item, empty);
+                thumbnail.setImage(null);
+                if (empty || item == null) {
+                    setText(null);
+                    setGraphic(null);
+                    return;
+                }
+                String eventName = item.eventName().isBlank() ? "Untitled event" : item.eventName();
+                setText(eventName + "\n" + GALLERY_DATE_FORMAT.format(item.savedAt()) + "\n"
+                        + item.stripFile().getFileName());
+                setGraphic(thumbnail);
+                galleryCatalog.thumbnail(item).whenComplete((image, ex) -> Platform.runLater(() -> {
+                    if (ex != null) {
+                        status.setText("Could not load the thumbnail for " + item.stripFile().getFileName());
+                    } else if (item.equals(getItem())) {
+                        thumbnail.setImage(SwingFXUtils.toFXImage(image, null));
+                    }
+                }));
             }
+        });
+        strips.getItems().setAll(entries);
+
+        Button reprint = new Button("Reprint");
+        reprint.getStyleClass().add("primary-button");
+        reprint.disableProperty().bind(strips.getSelectionModel().selectedItemProperty().isNull());
+        reprint.setOnAction(e -> status.setText(reprintStrip(strips.getSelectionModel().getSelectedItem())));
+
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+        HBox actions = new HBox(14, status, spacer, reprint);
+        actions.getStyleClass().add("action-bar");
+        actions.setAlignment(Pos.CENTER_RIGHT);
+
+        BorderPane root = new BorderPane(strips);
+        root.getStyleClass().add("app-root");
+        root.setBottom(actions);
+        BorderPane.setMargin(actions, new Insets(12, 0, 0, 0));
+        root.setPadding(new Insets(18));
+
+        Stage gallery = new Stage();
+        gallery.initOwner(primaryStage);
+        gallery.initModality(Modality.WINDOW_MODAL);
+        gallery.setTitle("Gallery");
+        Scene scene = new Scene(root, 640, 720);
+        applyStyles(scene);
+        gallery.setScene(scene);
+        gallery.show();
+    }
+
+    /**
+     * Queues a saved strip again on the printers chosen in setup. The spooler reads
+     * the file itself, so nothing is decoded here.
+     *
+     * @return a short outcome for the gallery's status line
+     */
+    private String reprintStrip(GalleryCatalog.Entry entry) {
+        if (printSpooler == null) {
+            return "Print queue unavailable.";
+        }
+        if (!Files.isRegularFile(entry.stripFile())) {
+            return "Strip file is missing: " + entry.stripFile().getFileName();
+        }
+        selectedPrinter = printerBox != null ? printerBox.getSelectionModel().getSelectedItem() : null;
+        configurePrintSpooler(printerCatalog.defaultPrinter());
+        if (!printersConfigured) {
+            return "No printer selected or detected.";
+        }
+        try {
+            printSpooler.submit(entry.stripFile(), null);
+        } catch (IOException ex) {
+            showError("Unable to queue the strip for printing.", ex);
+            return "Could not queue " + entry.stripFile().getFileName();
         }
+        return "Queued " + entry.stripFile().getFileName() + " for printing";
+    }
 
-        // Fallback to standard LETTER if no 4x6 found
-        return Paper.NA_LETTER;
+    /**
+     * Opens the session journal under the save folder and recovers what a previous
+     * run left unfinished on the capture runtime, one session at a time. Each
+     * recovered session waits for an in-flight slot like a live one, so a long
+     * backlog never sits in memory all at once.
+     */
+    private void openSessionJournal() {
+        try {
+            sessionJournal = new SessionJournal(underSaveFolder(SESSION_JOURNAL_DIRECTORY), jpegEncoder);
+        } catch (IOException ex) {
+            showError("Unable to open the session journal.", ex);
+            return;
+        }
+        if (sessionJournal.unfinishedSessions() == 0 && sessionJournal.skippedRecords() == 0) {
+            return;
+        }
+        SessionJournal journal = sessionJournal;
+        recoveryScope = captureRuntime.open("session-recovery");
+        recoveryScope.fork("recover", () -> {
+            SessionJournal.Recovered recovered = journal.recover(session -> {
+                inFlightSessions.acquire(session.stamp());
+                try {
+                    submitSession(session);
+                } catch (IOException | RuntimeException ex) {
+                    inFlightSessions.release(session.stamp());
+                    throw ex;
+                }
+            });
+            int skipped = journal.skippedRecords();
+            Platform.runLater(() -> {
+                pipelineStatusText = "Recovered " + recovered.strips() + " unfinished strip(s) and saved "
+                        + recovered.photos() + " loose photo(s) from the last run."
+                        + (skipped > 0 ? " Skipped " + skipped + " damaged journal record(s)." : "");
+                if (pipelineStatusLabel != null) {
+                    pipelineStatusLabel.setText(pipelineStatusText);
+                }
+            });
+            return null;
+        });
+    }
+
+    /**
+     * Queues a finished strip with the print spooler. Called from the session
+     * pipeline's print stage once the strip has been saved.
+     */
+    private String printStrip(SessionPipeline.Session session, Path stripFile, BufferedImage strip) throws IOException {
+        if (printSpooler == null) {
+            return "Print queue unavailable.";
+        }
+        inFlightSessions.printing(session.stamp(), stripFile);
+        printSpooler.submit(stripFile, strip);
+        Platform.runLater(() -> updatePrintQueueStatus(null, false));
+        return "Queued for printing";
     }
 
     private void adjustVideoFit(Scene scene) {
@@ -1046,7 +1975,7 @@ public class PhotoBooth extends Application {
         });
     }
 
-    private enum TextStyle {
+    enum TextStyle {
         SCRIPT("Elegant Script", "template-event-script"),
         MODERN("Modern Sans", "template-event-modern"),
         CLASSIC("Classic Serif", "template-event-classic");
@@ -1069,7 +1998,24 @@ public class PhotoBooth extends Application {
         }
     }
 
-    private enum FrameTheme {
+    enum CaptureMode {
+        FULL_RESOLUTION("Full-Resolution Stills"),
+        ZERO_LAG("Zero Shutter Lag"),
+        ZERO_LAG_SHARPEST("Zero Lag, Sharpest Frame");
+
+        private final String displayName;
+
+        CaptureMode(String displayName) {
+            this.displayName = displayName;
+        }
+
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+
+    enum FrameTheme {
         BIRTHDAY_CELEBRATION(
                 "Birthday Celebration",
                 "Sparkling confetti bursts with bold neon type for parties of all ages.",
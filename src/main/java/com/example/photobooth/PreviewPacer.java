@@ -0,0 +1,137 @@
+package com.example.photobooth;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deadline-based pacing for the camera stream loop. Frames are due at a fixed
+ * interval, measured from deadline to deadline rather than after each frame. The
+ * time spent reading and converting a frame therefore comes out of the interval
+ * instead of being added to it. A loop that falls a whole interval behind starts
+ * again from now, so it never bursts to catch up.
+ *
+ * <p>The pacer also keeps a smoothed cost per frame. When frames take more than
+ * {@value #SLOW_DOWN_LOAD} of the interval, it lowers the rate in steps, down to
+ * {@value #MIN_FPS} fps. It raises the rate again, up to the target, once frames
+ * take less than {@value #SPEED_UP_LOAD} of the interval. The target is capped at
+ * the camera's own frame rate when the driver reports one. Used only from the
+ * stream thread; the rates may be read from any thread.</p>
+ */
+final class PreviewPacer {
+
+    static final double MIN_FPS = 10;
+    static final double DEFAULT_FPS = 30;
+    private static final double SLOW_DOWN_LOAD = 0.8;
+    private static final double SPEED_UP_LOAD = 0.4;
+    private static final double STEP = 1.25;
+    /** Frames between rate changes, so one slow frame does not move the rate. */
+    private static final int ADAPT_AFTER_FRAMES = 15;
+    private static final double SMOOTHING = 0.1;
+
+    private final double maxFps;
+    private volatile double fps;
+    private volatile double effectiveFps;
+    private long intervalNanos;
+    private long nextDeadline;
+    private long lastFrameStart;
+    private double averageCostNanos;
+    private double averageIntervalNanos;
+    private int framesSinceChange;
+
+    /**
+     * @param targetFps the rate to aim for
+     * @param cameraFps the camera's reported frame rate, or zero or less if unknown
+     */
+    PreviewPacer(double targetFps, double cameraFps) {
+        double max = cameraFps > 0 ? Math.min(targetFps, cameraFps) : targetFps;
+        this.maxFps = Math.max(MIN_FPS, max);
+        setFps(maxFps);
+    }
+
+    /**
+     * Parses a configured target rate, falling back to {@value #DEFAULT_FPS} when
+     * it is missing, malformed, or not a positive finite number.
+     */
+    static double configuredFps(String value) {
+        if (value == null) {
+            return DEFAULT_FPS;
+        }
+        try {
+            double fps = Double.parseDouble(value.trim());
+            return Double.isFinite(fps) && fps > 0 ? fps : DEFAULT_FPS;
+        } catch (NumberFormatException ex) {
+            return DEFAULT_FPS;
+        }
+    }
+
+    /** Sleeps until the next frame is due and returns when it started. */
+    long awaitFrame() throws InterruptedException {
+        long delay = delayNanos(System.nanoTime());
+        if (delay > 0) {
+            TimeUnit.NANOSECONDS.sleep(delay);
+        }
+        long started = System.nanoTime();
+        frameStarted(started);
+        return started;
+    }
+
+    /** How long to wait at {@code now} for the next deadline, which is then moved one interval on. */
+    long delayNanos(long now) {
+        if (nextDeadline == 0 || now - nextDeadline > intervalNanos) {
+            nextDeadline = now;
+        }
+        long delay = Math.max(0, nextDeadline - now);
+        nextDeadline += intervalNanos;
+        return delay;
+    }
+
+    void frameStarted(long startNanos) {
+        if (lastFrameStart != 0) {
+            averageIntervalNanos = smooth(averageIntervalNanos, startNanos - lastFrameStart);
+            effectiveFps = 1e9 / averageIntervalNanos;
+        }
+        lastFrameStart = startNanos;
+    }
+
+    /**
+     * Records that reading and handing on a frame ran from {@code startNanos} to
+     * {@code endNanos}. Callers start the clock once they hold the camera, so time
+     * spent waiting behind a still capture does not count as frame cost.
+     */
+    void frameDone(long startNanos, long endNanos) {
+        averageCostNanos = smooth(averageCostNanos, endNanos - startNanos);
+        if (++framesSinceChange < ADAPT_AFTER_FRAMES) {
+            return;
+        }
+        double load = averageCostNanos / intervalNanos;
+        if (load > SLOW_DOWN_LOAD && fps > MIN_FPS) {
+            setFps(Math.max(MIN_FPS, fps / STEP));
+        } else if (load < SPEED_UP_LOAD && fps < maxFps) {
+            setFps(Math.min(maxFps, fps * STEP));
+        }
+    }
+
+    /** Rate the pacer is currently aiming for. */
+    double targetFps() {
+        return fps;
+    }
+
+    /** Rate frames have actually been started at, smoothed over the last second or so. */
+    double effectiveFps() {
+        return effectiveFps;
+    }
+
+    /** Smoothed time to read and hand on one frame, in milliseconds. */
+    double frameCostMillis() {
+        return averageCostNanos / 1e6;
+    }
+
+    private void setFps(double value) {
+        fps = value;
+        intervalNanos = Math.round(1e9 / value);
+        framesSinceChange = 0;
+    }
+
+    private static double smooth(double average, long sample) {
+        return average == 0 ? sample : average + SMOOTHING * (sample - average);
+    }
+}
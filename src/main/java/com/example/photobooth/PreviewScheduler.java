@@ -0,0 +1,106 @@
+package com.example.photobooth;
+
+import javafx.animation.AnimationTimer;
+import javafx.embed.swing.SwingFXUtils;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+
+import java.awt.image.BufferedImage;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Latest-frame-wins hand-off between the camera stream thread and the FX pulse.
+ * The stream thread only ever fills a single slot; the slot is drained once per
+ * pulse, so a stalled FX thread drops stale frames instead of queueing them.
+ */
+final class PreviewScheduler extends AnimationTimer {
+
+    private final ImageView view;
+    private final Runnable onFirstFrame;
+    private final Runnable onFrameSizeChanged;
+
+    private final AtomicReference<Image> pendingImage = new AtomicReference<>();
+    private final AtomicBoolean surfacePending = new AtomicBoolean();
+    private final BoothMetrics metrics = BoothMetrics.shared();
+
+    private volatile PreviewSurface surface;
+    private boolean firstFrameShown;
+    private double lastWidth;
+    private double lastHeight;
+
+    PreviewScheduler(ImageView view, Runnable onFirstFrame, Runnable onFrameSizeChanged) {
+        this.view = view;
+        this.onFirstFrame = onFirstFrame;
+        this.onFrameSizeChanged = onFrameSizeChanged;
+    }
+
+    /**
+     * Binds a pixel-buffer surface (or {@code null} for image hand-off) and
+     * resets the per-stream state. Call on the FX thread before starting.
+     */
+    void attach(PreviewSurface previewSurface) {
+        surface = previewSurface;
+        pendingImage.set(null);
+        surfacePending.set(false);
+        firstFrameShown = false;
+        lastWidth = 0;
+        lastHeight = 0;
+    }
+
+    /** Stream thread: a new frame has been staged into the attached surface. */
+    void offerSurfaceFrame() {
+        if (surfacePending.getAndSet(true)) {
+            metrics.frameDropped();
+        }
+    }
+
+    /**
+     * Stream thread: converts and publishes a frame. While the previous frame is
+     * still waiting for a pulse this one is dropped unconverted, so a stalled FX
+     * thread costs no conversions.
+     */
+    void offer(BufferedImage frame) {
+        if (pendingImage.get() != null) {
+            metrics.frameDropped();
+            return;
+        }
+        pendingImage.set(SwingFXUtils.toFXImage(frame, null));
+    }
+
+    @Override
+    public void handle(long now) {
+        PreviewSurface current = surface;
+        boolean drew = false;
+        if (current != null && surfacePending.getAndSet(false)) {
+            if (view.getImage() != current.image()) {
+                view.setImage(current.image());
+            }
+            current.present();
+            drew = true;
+        } else {
+            Image image = pendingImage.getAndSet(null);
+            if (image != null) {
+                view.setImage(image);
+                drew = true;
+            }
+        }
+        if (!drew) {
+            return;
+        }
+        metrics.framePresented();
+
+        if (!firstFrameShown) {
+            firstFrameShown = true;
+            onFirstFrame.run();
+        }
+
+        Image shown = view.getImage();
+        if (shown != null && (shown.getWidth() != lastWidth || shown.getHeight() != lastHeight)) {
+            lastWidth = shown.getWidth();
+            lastHeight = shown.getHeight();
+            onFrameSizeChanged.run();
+        }
+    }
+}
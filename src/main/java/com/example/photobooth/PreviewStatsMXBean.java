@@ -0,0 +1,21 @@
+package com.example.photobooth;
+
+/** JMX view of the live preview, registered by {@link BoothMetrics#registerMBeans()}. */
+public interface PreviewStatsMXBean {
+
+    /** Frames presented per second over the last few seconds. */
+    double getFramesPerSecond();
+
+    /** Rate the adaptive preview pacer is currently aiming for. */
+    double getTargetFramesPerSecond();
+
+    /** Rate the camera stream has actually started frames at, smoothed over about a second. */
+    double getEffectiveFramesPerSecond();
+
+    /** Smoothed time to read and convert one camera frame. */
+    double getFrameCostMillis();
+
+    long getFramesPresented();
+
+    long getFramesDropped();
+}
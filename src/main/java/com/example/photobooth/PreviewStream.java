@@ -0,0 +1,128 @@
+package com.example.photobooth;
+
+import com.github.sarxos.webcam.Webcam;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+
+/**
+ * The body of the camera stream loop: reads one frame, keeps it in the frame ring
+ * and hands it to the preview. With a {@link FrameSink} the frame is read as raw
+ * bytes into a reused direct buffer and a steady-state frame allocates nothing;
+ * without one it falls back to {@code Webcam#getImage()}.
+ *
+ * <p>Each frame is timed into {@link BoothMetrics.Stage#CAMERA_FRAME} and, while a
+ * flight recording is running, emitted as a {@link BoothEvents.FrameDelivered}.</p>
+ */
+final class PreviewStream {
+
+    /** Receives frames on the stream thread. */
+    interface FrameSink {
+        /** A packed 24-bit RGB frame as read from the camera. */
+        void writeRgb(ByteBuffer rgb);
+
+        /** A frame already decoded at the stream's size, such as a scaled still-size frame. */
+        void writeImage(BufferedImage frame);
+    }
+
+    private final Webcam camera;
+    private final String cameraName;
+    private final FrameRing ring;
+    private final FrameSink sink;
+    private final Runnable frameReady;
+    private final Consumer<BufferedImage> fallback;
+    private final ByteBuffer frameBytes;
+    private final BoothMetrics metrics = BoothMetrics.shared();
+    private final int width;
+    private final int height;
+
+    /**
+     * @param ring       recent-frame ring the shutter picks from, or {@code null}
+     * @param sink       raw-byte preview target, or {@code null} to use {@code fallback}
+     * @param frameReady run after each frame reaches {@code sink}
+     * @param fallback   receives each frame as an image when there is no sink
+     */
+    PreviewStream(Webcam camera, FrameRing ring, FrameSink sink, Runnable frameReady,
+            Consumer<BufferedImage> fallback) {
+        Dimension size = camera.getViewSize();
+        this.camera = camera;
+        this.cameraName = camera.getName();
+        this.ring = ring;
+        this.sink = sink;
+        this.frameReady = frameReady;
+        this.fallback = fallback;
+        this.width = size.width;
+        this.height = size.height;
+        this.frameBytes = sink != null ? ByteBuffer.allocateDirect(width * height * 3) : null;
+    }
+
+    /**
+     * Reads and delivers one frame. The caller holds the camera lock and has
+     * checked that the camera is open.
+     *
+     * @return {@code false} if the camera returned no frame
+     */
+    boolean pumpFrame() {
+        BoothEvents.FrameDelivered event = new BoothEvents.FrameDelivered();
+        event.begin();
+        long readStarted = System.nanoTime();
+        if (sink != null) {
+            frameBytes.clear();
+            camera.getImageBytes(frameBytes);
+            metrics.recordSince(BoothMetrics.Stage.CAMERA_FRAME, readStarted);
+            if (ring != null) {
+                ring.writeRgb(frameBytes, System.nanoTime());
+            }
+            sink.writeRgb(frameBytes);
+            if (frameReady != null) {
+                frameReady.run();
+            }
+        } else {
+            BufferedImage frame = camera.getImage();
+            metrics.recordSince(BoothMetrics.Stage.CAMERA_FRAME, readStarted);
+            if (frame == null) {
+                return false;
+            }
+            if (ring != null) {
+                ring.write(frame, System.nanoTime());
+            }
+            fallback.accept(frame);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.camera = cameraName;
+            event.width = width;
+            event.height = height;
+            event.commit();
+        }
+        return true;
+    }
+
+    /**
+     * Reads and delivers one frame while the camera is open at the still size.
+     * The frame is scaled down by {@code still} and goes through the same sink as
+     * {@link #pumpFrame()}; it is not kept in the ring. The caller holds the
+     * camera lock.
+     *
+     * @return {@code false} if the camera returned no frame or has left the still size
+     */
+    boolean pumpStill(StillCapture still) {
+        long readStarted = System.nanoTime();
+        BufferedImage frame = still.grabPreview();
+        metrics.recordSince(BoothMetrics.Stage.CAMERA_FRAME, readStarted);
+        if (frame == null) {
+            return false;
+        }
+        if (sink != null) {
+            sink.writeImage(frame);
+            if (frameReady != null) {
+                frameReady.run();
+            }
+        } else {
+            fallback.accept(frame);
+        }
+        return true;
+    }
+}
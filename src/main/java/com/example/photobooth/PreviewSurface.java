@@ -0,0 +1,102 @@
+package com.example.photobooth;
+
+import javafx.geometry.Rectangle2D;
+import javafx.scene.image.PixelBuffer;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.util.Callback;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * Long-lived preview target backed by a JavaFX {@link PixelBuffer}. Camera bytes
+ * are copied into preallocated buffers in place, so a steady-state frame does
+ * no heap allocation and no intermediate {@code WritableImage} is created.
+ */
+final class PreviewSurface implements PreviewStream.FrameSink {
+
+    private final int width;
+    private final int height;
+    private final int[] staging;
+    private final IntBuffer pixels;
+    private final PixelBuffer<IntBuffer> pixelBuffer;
+    private final WritableImage image;
+    private final Callback<PixelBuffer<IntBuffer>, Rectangle2D> flush = this::flush;
+
+    private boolean dirty;
+
+    PreviewSurface(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.staging = new int[width * height];
+        this.pixels = ByteBuffer.allocateDirect(width * height * 4)
+                .order(ByteOrder.nativeOrder())
+                .asIntBuffer();
+        this.pixelBuffer = new PixelBuffer<>(width, height, pixels, PixelFormat.getIntArgbPreInstance());
+        this.image = new WritableImage(pixelBuffer);
+    }
+
+    WritableImage image() {
+        return image;
+    }
+
+    /**
+     * Stages a packed 24-bit RGB frame, as written by {@code Webcam#getImageBytes(ByteBuffer)}.
+     * Called from the stream thread.
+     */
+    @Override
+    public synchronized void writeRgb(ByteBuffer rgb) {
+        int count = Math.min(staging.length, rgb.limit() / 3);
+        for (int i = 0, p = 0; i < count; i++, p += 3) {
+            staging[i] = 0xFF000000
+                    | (rgb.get(p) & 0xFF) << 16
+                    | (rgb.get(p + 1) & 0xFF) << 8
+                    | (rgb.get(p + 2) & 0xFF);
+        }
+        dirty = true;
+    }
+
+    /**
+     * Stages a frame of this surface's size, as scaled by {@link StillCapture#grabPreview()}.
+     * Frames of another size are ignored. Called from the stream thread.
+     */
+    @Override
+    public synchronized void writeImage(BufferedImage frame) {
+        if (frame.getWidth() != width || frame.getHeight() != height) {
+            return;
+        }
+        if (frame.getType() == BufferedImage.TYPE_INT_RGB
+                && frame.getRaster().getDataBuffer() instanceof DataBufferInt buffer
+                && buffer.getNumBanks() == 1 && buffer.getOffset() == 0) {
+            int[] rgb = buffer.getData();
+            for (int i = 0; i < staging.length; i++) {
+                staging[i] = 0xFF000000 | rgb[i];
+            }
+        } else {
+            frame.getRGB(0, 0, width, height, staging, 0, width);
+        }
+        dirty = true;
+    }
+
+    /**
+     * Publishes the most recently staged frame to the pixel buffer. Must be
+     * called on the FX application thread.
+     */
+    void present() {
+        pixelBuffer.updateBuffer(flush);
+    }
+
+    private synchronized Rectangle2D flush(PixelBuffer<IntBuffer> buffer) {
+        if (!dirty) {
+            return Rectangle2D.EMPTY;
+        }
+        pixels.clear();
+        pixels.put(staging);
+        dirty = false;
+        return null;
+    }
+}
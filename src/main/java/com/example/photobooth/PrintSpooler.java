@@ -0,0 +1,398 @@
+package com.example.photobooth;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Persistent print queue that spreads finished strips across several printers.
+ * Every job is recorded as a small file in the spool directory until it prints,
+ * so queued strips survive a restart. New jobs go to the printer with the fewest
+ * outstanding jobs; a failed job is retried on a printer it has not tried yet
+ * (or the same one if it is the only printer) until it runs out of attempts.
+ */
+final class PrintSpooler implements AutoCloseable {
+
+    private static final String JOB_SUFFIX = ".job";
+    private static final String FAILED_DIRECTORY = "failed";
+    private static final long LANE_POLL_MILLIS = 250;
+
+    /** A strip waiting to be printed. */
+    static final class SpoolJob {
+        private final String id;
+        private final Path stripFile;
+        private final long submittedAt;
+        private final long queuedNanos = System.nanoTime();
+        private final Set<String> triedPrinters = new HashSet<>();
+        private volatile BufferedImage image;
+        private int attempts;
+
+        private SpoolJob(String id, Path stripFile, long submittedAt, BufferedImage image) {
+            this.id = id;
+            this.stripFile = stripFile;
+            this.submittedAt = submittedAt;
+            this.image = image;
+        }
+
+        String id() {
+            return id;
+        }
+
+        /** The saved strip; always present, and the only source after a restart. */
+        Path stripFile() {
+            return stripFile;
+        }
+
+        /** The strip still held in memory from the session, or {@code null}. */
+        BufferedImage image() {
+            return image;
+        }
+
+        /** The strip to print: the one in memory if there is one, otherwise read back from {@link #stripFile()}. */
+        BufferedImage loadImage() throws IOException {
+            BufferedImage strip = image;
+            if (strip != null) {
+                return strip;
+            }
+            strip = ImageIO.read(stripFile.toFile());
+            if (strip == null) {
+                throw new IOException("Unable to read " + stripFile);
+            }
+            return strip;
+        }
+
+        int attempts() {
+            return attempts;
+        }
+    }
+
+    /** Per-printer counters. */
+    record PrinterStats(String name, int outstanding, long completed, long failed, double jobsPerMinute,
+            double averagePrintSeconds) {
+    }
+
+    interface Listener {
+        void jobPrinted(SpoolJob job, String printerName);
+
+        void jobFailed(SpoolJob job, String reason);
+    }
+
+    private final Path spoolDirectory;
+    private final int maxAttempts;
+    private final Listener listener;
+    private final ExecutorService workers = Executors.newCachedThreadPool(new DaemonThreadFactory("print-spooler"));
+    private final AtomicLong sequence = new AtomicLong();
+    private final BoothMetrics metrics = BoothMetrics.shared();
+
+    private final Map<String, Lane> lanes = new LinkedHashMap<>();
+    private final List<SpoolJob> waiting = new ArrayList<>();
+
+    PrintSpooler(Path spoolDirectory, int maxAttempts, Listener listener) throws IOException {
+        this.spoolDirectory = spoolDirectory;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.listener = listener;
+        Files.createDirectories(spoolDirectory);
+    }
+
+    /**
+     * Replaces the set of printers jobs are spread across. Printers that are no
+     * longer listed finish their current job; their queued jobs are redistributed.
+     */
+    synchronized void setPrinters(List<PrinterBackend> printers) {
+        Set<String> names = new HashSet<>();
+        for (PrinterBackend backend : printers) {
+            names.add(backend.name());
+            Lane lane = lanes.get(backend.name());
+            if (lane == null || lane.retired) {
+                lane = new Lane(backend);
+                lanes.put(backend.name(), lane);
+                Lane started = lane;
+                workers.execute(() -> runLane(started));
+            }
+        }
+
+        List<SpoolJob> orphaned = new ArrayList<>(waiting);
+        waiting.clear();
+        for (Lane lane : new ArrayList<>(lanes.values())) {
+            if (!names.contains(lane.backend.name())) {
+                lane.retired = true;
+                lanes.remove(lane.backend.name());
+                List<SpoolJob> drained = new ArrayList<>();
+                lane.queue.drainTo(drained);
+                lane.outstanding.addAndGet(-drained.size());
+                orphaned.addAll(drained);
+            }
+        }
+        orphaned.forEach(this::dispatch);
+    }
+
+    /**
+     * Records a job for {@code stripFile} in the spool directory and queues it.
+     *
+     * @param image the strip if it is still in memory, to spare the printer a decode
+     */
+    SpoolJob submit(Path stripFile, BufferedImage image) throws IOException {
+        String id = String.format("%013d-%04d", System.currentTimeMillis(), sequence.incrementAndGet() % 10_000);
+        SpoolJob job = new SpoolJob(id, stripFile.toAbsolutePath(), System.currentTimeMillis(), image);
+        writeJobFile(job);
+        synchronized (this) {
+            dispatch(job);
+        }
+        return job;
+    }
+
+    /** Re-queues jobs left in the spool directory by a previous run. Returns how many were found. */
+    int recover() throws IOException {
+        List<SpoolJob> recovered = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(spoolDirectory, "*" + JOB_SUFFIX)) {
+            for (Path file : files) {
+                SpoolJob job = readJobFile(file);
+                if (job != null) {
+                    recovered.add(job);
+                }
+            }
+        }
+        recovered.sort(Comparator.comparing(SpoolJob::id));
+        synchronized (this) {
+            recovered.forEach(this::dispatch);
+        }
+        return recovered.size();
+    }
+
+    synchronized List<PrinterStats> stats() {
+        List<PrinterStats> stats = new ArrayList<>(lanes.size());
+        for (Lane lane : lanes.values()) {
+            stats.add(lane.stats());
+        }
+        return stats;
+    }
+
+    /** Jobs accepted but not yet printed or given up on, across all printers. */
+    synchronized int outstanding() {
+        int total = waiting.size();
+        for (Lane lane : lanes.values()) {
+            total += lane.outstanding.get();
+        }
+        return total;
+    }
+
+    @Override
+    public void close() {
+        workers.shutdownNow();
+        try {
+            workers.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Hands the job to the least-loaded printer, preferring printers it has not failed on. Holds the monitor. */
+    private void dispatch(SpoolJob job) {
+        Lane best = null;
+        boolean bestUntried = false;
+        for (Lane lane : lanes.values()) {
+            boolean untried = !job.triedPrinters.contains(lane.backend.name());
+            if (best == null
+                    || (untried && !bestUntried)
+                    || (untried == bestUntried && lane.outstanding.get() < best.outstanding.get())) {
+                best = lane;
+                bestUntried = untried;
+            }
+        }
+        if (best == null) {
+            waiting.add(job);
+            return;
+        }
+        best.outstanding.incrementAndGet();
+        best.queue.add(job);
+    }
+
+    private void runLane(Lane lane) {
+        while (!Thread.currentThread().isInterrupted()) {
+            SpoolJob job;
+            try {
+                job = lane.queue.poll(LANE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException interrupted) {
+                return;
+            }
+            if (job == null) {
+                if (lane.retired) {
+                    return;
+                }
+                continue;
+            }
+
+            BoothEvents.Print event = new BoothEvents.Print();
+            event.begin();
+            long started = System.nanoTime();
+            lane.markStarted();
+            try {
+                lane.backend.print(job);
+                emit(event, lane, job, true);
+                lane.busyNanos.addAndGet(System.nanoTime() - started);
+                lane.completed.incrementAndGet();
+                metrics.recordSince(BoothMetrics.Stage.PRINT_SPOOL, job.queuedNanos);
+                job.image = null;
+                deleteJobFile(job);
+                lane.outstanding.decrementAndGet();
+                if (listener != null) {
+                    listener.jobPrinted(job, lane.backend.name());
+                }
+            } catch (InterruptedException interrupted) {
+                lane.outstanding.decrementAndGet();
+                return;
+            } catch (Exception ex) {
+                emit(event, lane, job, false);
+                lane.failed.incrementAndGet();
+                lane.outstanding.decrementAndGet();
+                handleFailure(job, lane.backend.name(), ex);
+            }
+        }
+    }
+
+    private static void emit(BoothEvents.Print event, Lane lane, SpoolJob job, boolean succeeded) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.printer = lane.backend.name();
+            event.job = job.id();
+            event.attempt = job.attempts + 1;
+            event.succeeded = succeeded;
+            event.commit();
+        }
+    }
+
+    private void handleFailure(SpoolJob job, String printerName, Exception ex) {
+        job.attempts++;
+        job.triedPrinters.add(printerName);
+        String reason = printerName + ": " + (ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName());
+        if (job.attempts >= maxAttempts) {
+            job.image = null;
+            moveToFailed(job);
+            if (listener != null) {
+                listener.jobFailed(job, reason);
+            }
+            return;
+        }
+        try {
+            writeJobFile(job);
+        } catch (IOException io) {
+            io.printStackTrace();
+        }
+        synchronized (this) {
+            dispatch(job);
+        }
+    }
+
+    private Path jobFile(SpoolJob job) {
+        return spoolDirectory.resolve(job.id + JOB_SUFFIX);
+    }
+
+    private void writeJobFile(SpoolJob job) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("strip", job.stripFile.toString());
+        properties.setProperty("submitted", Long.toString(job.submittedAt));
+        properties.setProperty("attempts", Integer.toString(job.attempts));
+        properties.setProperty("tried", String.join("\n", job.triedPrinters));
+
+        Path target = jobFile(job);
+        Path temp = Files.createTempFile(spoolDirectory, "." + job.id, ".part");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            properties.store(writer, null);
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException unsupported) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private SpoolJob readJobFile(Path file) {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+            String name = file.getFileName().toString();
+            String id = name.substring(0, name.length() - JOB_SUFFIX.length());
+            SpoolJob job = new SpoolJob(id, Paths.get(properties.getProperty("strip")),
+                    Long.parseLong(properties.getProperty("submitted", "0")), null);
+            job.attempts = Integer.parseInt(properties.getProperty("attempts", "0"));
+            String tried = properties.getProperty("tried", "");
+            if (!tried.isEmpty()) {
+                job.triedPrinters.addAll(List.of(tried.split("\n")));
+            }
+            return job;
+        } catch (IOException | RuntimeException ex) {
+            ex.printStackTrace();
+            return null;
+        }
+    }
+
+    private void deleteJobFile(SpoolJob job) {
+        try {
+            Files.deleteIfExists(jobFile(job));
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    private void moveToFailed(SpoolJob job) {
+        try {
+            Path failedDirectory = Files.createDirectories(spoolDirectory.resolve(FAILED_DIRECTORY));
+            Files.move(jobFile(job), failedDirectory.resolve(job.id + JOB_SUFFIX), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    private static final class Lane {
+        private final PrinterBackend backend;
+        private final BlockingQueue<SpoolJob> queue = new LinkedBlockingQueue<>();
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong busyNanos = new AtomicLong();
+        private volatile long firstStartNanos;
+        private volatile boolean retired;
+
+        private Lane(PrinterBackend backend) {
+            this.backend = backend;
+        }
+
+        private void markStarted() {
+            if (firstStartNanos == 0) {
+                firstStartNanos = System.nanoTime();
+            }
+        }
+
+        private PrinterStats stats() {
+            long done = completed.get();
+            double minutes = firstStartNanos == 0 ? 0 : (System.nanoTime() - firstStartNanos) / 60e9;
+            double perMinute = minutes > 0 ? done / minutes : 0;
+            double averageSeconds = done > 0 ? busyNanos.get() / 1e9 / done : 0;
+            return new PrinterStats(backend.name(), outstanding.get(), done, failed.get(), perMinute, averageSeconds);
+        }
+    }
+}
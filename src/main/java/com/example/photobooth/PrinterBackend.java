@@ -0,0 +1,14 @@
+package com.example.photobooth;
+
+/**
+ * One physical (or simulated) printer that the {@link PrintSpooler} can hand
+ * finished strips to. Implementations block until the job has been accepted by
+ * the printer and throw if it could not be printed.
+ */
+interface PrinterBackend {
+
+    /** Stable name used to identify this printer in statistics and job files. */
+    String name();
+
+    void print(PrintSpooler.SpoolJob job) throws Exception;
+}
@@ -0,0 +1,113 @@
+package com.example.photobooth;
+
+import javafx.print.PageLayout;
+import javafx.print.PageOrientation;
+import javafx.print.Paper;
+import javafx.print.Printer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Background-filled cache of printer capabilities. For every printer it keeps the
+ * supported papers, the resolved 4x6 photo paper and the landscape page layout
+ * used for strips, so a print job never has to query the print subsystem.
+ */
+final class PrinterCatalog implements AutoCloseable {
+
+    /** What a print job needs to know about one printer. */
+    record Capabilities(Printer printer, List<Paper> supportedPapers, Paper photoPaper, PageLayout pageLayout) {
+    }
+
+    interface Listener {
+        /** Called on the catalog thread after each completed refresh. */
+        void printersLoaded(List<Printer> printers, Printer defaultPrinter);
+
+        void loadFailed(Exception ex);
+    }
+
+    private final Listener listener;
+    private final Map<String, Capabilities> capabilities = new ConcurrentHashMap<>();
+    private volatile Printer defaultPrinter;
+    private final ExecutorService executor =
+            Executors.newSingleThreadExecutor(new DaemonThreadFactory("printer-catalog"));
+
+    PrinterCatalog(Listener listener) {
+        this.listener = listener;
+    }
+
+    /** Re-reads the printer list and every printer's capabilities in the background. */
+    void refresh() {
+        executor.execute(() -> {
+            try {
+                List<Printer> printers = new ArrayList<>();
+                Printer systemDefault = Printer.getDefaultPrinter();
+                Map<String, Capabilities> loaded = new ConcurrentHashMap<>();
+                for (Printer printer : Printer.getAllPrinters()) {
+                    // One printer with a broken driver must not hide all the others.
+                    try {
+                        loaded.put(printer.getName(), load(printer));
+                        printers.add(printer);
+                    } catch (RuntimeException ex) {
+                        ex.printStackTrace();
+                    }
+                }
+                if (systemDefault != null && !loaded.containsKey(systemDefault.getName())) {
+                    systemDefault = null;
+                }
+                capabilities.keySet().retainAll(loaded.keySet());
+                capabilities.putAll(loaded);
+                defaultPrinter = systemDefault;
+                listener.printersLoaded(printers, systemDefault);
+            } catch (Exception ex) {
+                listener.loadFailed(ex);
+            }
+        });
+    }
+
+    /** System default printer as of the last refresh, or {@code null}. */
+    Printer defaultPrinter() {
+        return defaultPrinter;
+    }
+
+    /**
+     * Cached capabilities for {@code printer}. A printer that appeared since the last
+     * refresh is loaded once on the calling thread and then cached.
+     */
+    Capabilities capabilities(Printer printer) {
+        return capabilities.computeIfAbsent(printer.getName(), name -> load(printer));
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private static Capabilities load(Printer printer) {
+        // Keep the order the printer reports, so the same 4x6 paper wins every time.
+        List<Paper> papers = List.copyOf(printer.getPrinterAttributes().getSupportedPapers());
+        Paper photoPaper = resolvePhotoPaper(papers);
+        PageLayout layout = printer.createPageLayout(photoPaper, PageOrientation.LANDSCAPE,
+                Printer.MarginType.HARDWARE_MINIMUM);
+        return new Capabilities(printer, papers, photoPaper, layout);
+    }
+
+    /** Finds the first 4x6 photo paper among {@code papers}, falling back to US Letter. */
+    static Paper resolvePhotoPaper(Collection<Paper> papers) {
+        // Try to find a common photo paper size
+        for (Paper paper : papers) {
+            String name = paper.getName().toLowerCase();
+            if (name.contains("4x6") || name.contains("4 x 6") || name.contains("4 by 6")) {
+                return paper;
+            }
+        }
+
+        // Fallback to standard LETTER if no 4x6 found
+        return Paper.NA_LETTER;
+    }
+}
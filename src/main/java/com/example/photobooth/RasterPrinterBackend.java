@@ -0,0 +1,161 @@
+package com.example.photobooth;
+
+import javafx.print.PageLayout;
+import javafx.print.PageOrientation;
+import javafx.print.Printer;
+
+import javax.print.PrintService;
+import javax.print.PrintServiceLookup;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.print.PageFormat;
+import java.awt.print.Paper;
+import java.awt.print.Printable;
+import java.awt.print.PrinterException;
+import java.awt.print.PrinterJob;
+import java.io.IOException;
+
+/**
+ * Prints spooled strips through {@code java.awt.print}, drawn once to fill the
+ * printable area. {@link FxPrinterBackend} lets JavaFX rasterise and resample a
+ * scene for every page. Here the saved strip goes straight to the device: the
+ * page transform maps its pixels onto the paper in a single interpolated draw,
+ * whatever resolution the printer works at, so no intermediate raster is made
+ * and no resampling pass adds blur without adding detail.
+ *
+ * <p>The page uses the paper and margins that the {@link PrinterCatalog} chose
+ * for the JavaFX printer of the same name. If the AWT print service cannot be
+ * found, the job goes to the fallback backend.</p>
+ */
+final class RasterPrinterBackend implements PrinterBackend {
+
+    private final Printer printer;
+    private final PrinterCatalog catalog;
+    private final PrinterBackend fallback;
+
+    RasterPrinterBackend(Printer printer, PrinterCatalog catalog, PrinterBackend fallback) {
+        this.printer = printer;
+        this.catalog = catalog;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public String name() {
+        return printer.getName();
+    }
+
+    @Override
+    public void print(PrintSpooler.SpoolJob job) throws Exception {
+        PrintService service = findService(printer.getName());
+        if (service == null) {
+            fallback.print(job);
+            return;
+        }
+        printOn(service, pageFormat(catalog.capabilities(printer).pageLayout()), job);
+    }
+
+    /**
+     * Backend for an AWT print service with a fixed page, for hosts without a
+     * JavaFX toolkit such as the {@link RenderServer}.
+     */
+    static PrinterBackend forService(PrintService service, PageFormat page) {
+        return new PrinterBackend() {
+            @Override
+            public String name() {
+                return service.getName();
+            }
+
+            @Override
+            public void print(PrintSpooler.SpoolJob job) throws IOException {
+                printOn(service, page, job);
+            }
+        };
+    }
+
+    private static void printOn(PrintService service, PageFormat page, PrintSpooler.SpoolJob job)
+            throws IOException {
+        BufferedImage strip = job.loadImage();
+
+        PrinterJob printerJob = PrinterJob.getPrinterJob();
+        try {
+            printerJob.setPrintService(service);
+            printerJob.setJobName(job.stripFile().getFileName().toString());
+            printerJob.setPrintable(new StripPrintable(strip), page);
+            printerJob.print();
+        } catch (PrinterException ex) {
+            throw new IOException("Print could not be completed.", ex);
+        }
+    }
+
+    static PrintService findService(String name) {
+        for (PrintService service : PrintServiceLookup.lookupPrintServices(null, null)) {
+            if (service.getName().equals(name)) {
+                return service;
+            }
+        }
+        return null;
+    }
+
+    /** The AWT page for a JavaFX layout: same paper, orientation and margins, all in points. */
+    static PageFormat pageFormat(PageLayout layout) {
+        return pageFormat(layout.getPaper().getWidth(), layout.getPaper().getHeight(),
+                layout.getPageOrientation() == PageOrientation.LANDSCAPE,
+                layout.getLeftMargin(), layout.getRightMargin(), layout.getTopMargin(), layout.getBottomMargin());
+    }
+
+    /**
+     * Builds a page whose imageable area, as seen in the given orientation, has
+     * the given margins. AWT stores the area in portrait paper coordinates, so a
+     * landscape page's margins are rotated onto the paper first.
+     */
+    static PageFormat pageFormat(double paperWidth, double paperHeight, boolean landscape,
+            double left, double right, double top, double bottom) {
+        Paper paper = new Paper();
+        paper.setSize(paperWidth, paperHeight);
+        PageFormat format = new PageFormat();
+        if (landscape) {
+            double width = paperHeight - left - right;
+            double height = paperWidth - top - bottom;
+            paper.setImageableArea(top, paperHeight - left - width, height, width);
+            format.setOrientation(PageFormat.LANDSCAPE);
+        } else {
+            paper.setImageableArea(left, top, paperWidth - left - right, paperHeight - top - bottom);
+            format.setOrientation(PageFormat.PORTRAIT);
+        }
+        format.setPaper(paper);
+        return format;
+    }
+
+    /**
+     * Draws one strip, centred and scaled to fill the imageable area, in a single
+     * draw through the device transform. Drivers may call {@link #print} several
+     * times for the same page; each call draws the same strip again.
+     */
+    static final class StripPrintable implements Printable {
+        private final BufferedImage strip;
+
+        StripPrintable(BufferedImage strip) {
+            this.strip = strip;
+        }
+
+        @Override
+        public int print(Graphics graphics, PageFormat format, int pageIndex) {
+            if (pageIndex > 0) {
+                return NO_SUCH_PAGE;
+            }
+            Graphics2D g = (Graphics2D) graphics;
+            double fill = Math.min(format.getImageableWidth() / strip.getWidth(),
+                    format.getImageableHeight() / strip.getHeight());
+            double width = strip.getWidth() * fill;
+            double height = strip.getHeight() * fill;
+            g.translate(format.getImageableX() + (format.getImageableWidth() - width) / 2,
+                    format.getImageableY() + (format.getImageableHeight() - height) / 2);
+            g.scale(fill, fill);
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(strip, 0, 0, null);
+            return PAGE_EXISTS;
+        }
+    }
+}
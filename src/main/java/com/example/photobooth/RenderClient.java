@@ -0,0 +1,144 @@
+package com.example.photobooth;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Client mode for a booth that shares a {@link RenderServer}: sessions are
+ * uploaded instead of rendered here. The server's stage changes for each session
+ * are reported to the listener as {@link SessionPipeline.Status} updates under the
+ * booth's own stamp, just as the local pipeline reports them.
+ *
+ * <p>Uploads are streamed: a writer task encodes the captures into a small pipe
+ * while the HTTP client sends from the other end, so a session is never held in
+ * memory a second time as one request body.</p>
+ */
+final class RenderClient implements AutoCloseable {
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(5);
+    private static final int PIPE_BYTES = 256 * 1024;
+
+    private final URI sessionsUri;
+    private final String token;
+    private final String booth;
+    private final SessionPipeline.Listener listener;
+    private final ExecutorService followers = Executors.newCachedThreadPool(new DaemonThreadFactory("render-client"));
+    private final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(CONNECT_TIMEOUT)
+            .executor(followers)
+            .build();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicInteger completed = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+
+    /**
+     * @param server   base URI of the render server, such as {@code http://render-host:8765}
+     * @param token    the shared token the server was started with
+     * @param booth    name the server files this booth's strips under
+     * @param listener notified on a client thread whenever a session changes stage
+     */
+    RenderClient(URI server, String token, String booth, SessionPipeline.Listener listener) {
+        this.sessionsUri = server.resolve(RenderServer.SESSIONS_PATH);
+        this.token = token != null ? token : "";
+        this.booth = booth;
+        this.listener = listener;
+    }
+
+    /**
+     * Uploads {@code session} and returns once the server has accepted it. Blocks
+     * while the server's queue is full. Call from a background thread, never the
+     * FX thread.
+     */
+    void submit(SessionPipeline.Session session) throws IOException, InterruptedException {
+        InputStream body = stream(session);
+        HttpResponse<String> response;
+        try {
+            response = http.send(HttpRequest.newBuilder(sessionsUri)
+                            .header("Content-Type", "application/octet-stream")
+                            .header(RenderServer.TOKEN_HEADER, token)
+                            .POST(HttpRequest.BodyPublishers.ofInputStream(() -> body))
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+        } finally {
+            // Unblocks the writer if the request ended before reading everything.
+            body.close();
+        }
+        if (response.statusCode() != 202) {
+            throw new IOException("Render server refused the session: " + response.statusCode() + " "
+                    + response.body());
+        }
+        URI events = sessionsUri.resolve(response.headers().firstValue("Location")
+                .orElseThrow(() -> new IOException("Render server did not say where to follow the session")));
+        pending.incrementAndGet();
+        followers.execute(() -> follow(session.stamp(), events));
+    }
+
+    /** Encodes {@code session} on a writer task into a pipe, returning the end to read the upload from. */
+    private InputStream stream(SessionPipeline.Session session) throws IOException {
+        PipedInputStream body = new PipedInputStream(PIPE_BYTES);
+        PipedOutputStream sink = new PipedOutputStream(body);
+        followers.execute(() -> {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(sink, PIPE_BYTES))) {
+                RenderServer.writeSession(out, booth, session);
+            } catch (IOException ex) {
+                // The request was abandoned; submit reports why.
+            }
+        });
+        return body;
+    }
+
+    private void follow(String stamp, URI events) {
+        boolean finished = false;
+        try {
+            HttpResponse<Stream<String>> response = http.send(
+                    HttpRequest.newBuilder(events).header(RenderServer.TOKEN_HEADER, token).GET().build(),
+                    HttpResponse.BodyHandlers.ofLines());
+            if (response.statusCode() != 200) {
+                response.body().close();
+                throw new IOException("Render server refused the events stream: " + response.statusCode());
+            }
+            try (Stream<String> lines = response.body()) {
+                for (Iterator<String> it = lines.iterator(); it.hasNext() && !finished; ) {
+                    String line = it.next();
+                    SessionPipeline.Stage stage = RenderServer.eventStage(line);
+                    if (stage == SessionPipeline.Stage.COMPLETED || stage == SessionPipeline.Stage.FAILED) {
+                        pending.decrementAndGet();
+                        (stage == SessionPipeline.Stage.COMPLETED ? completed : failed).incrementAndGet();
+                        finished = true;
+                    }
+                    listener.statusChanged(new SessionPipeline.Status(pending.get(), completed.get(), failed.get(),
+                            stamp, stage, RenderServer.eventMessage(line)));
+                }
+            }
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException ex) {
+            ex.printStackTrace();
+        }
+        if (!finished) {
+            pending.decrementAndGet();
+            failed.incrementAndGet();
+            listener.statusChanged(new SessionPipeline.Status(pending.get(), completed.get(), failed.get(),
+                    stamp, SessionPipeline.Stage.FAILED, "Lost contact with the render server."));
+        }
+    }
+
+    @Override
+    public void close() {
+        followers.shutdownNow();
+    }
+}
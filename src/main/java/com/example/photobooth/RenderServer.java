@@ -0,0 +1,552 @@
+package com.example.photobooth;
+
+import com.example.photobooth.PhotoBooth.FrameTheme;
+import com.example.photobooth.PhotoBooth.TextStyle;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import javax.print.PrintService;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.print.PageFormat;
+import java.awt.print.PrinterJob;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Render and print node shared by several capture stations, built on the JDK's
+ * HTTP server. Booths in client mode ({@link RenderClient}) upload each finished
+ * session's raw captures and settings. The server feeds them through its own
+ * {@link SessionPipeline}, which renders, encodes, saves and prints them. Each
+ * session's stage changes stream back to its booth.
+ *
+ * <pre>
+ * POST /sessions              upload a session; 202 with the session id and its events URL
+ * GET  /sessions/{id}/events  one line per stage change, held open until the session ends
+ * </pre>
+ *
+ * Every request must carry the shared token in {@value #TOKEN_HEADER}. An upload
+ * is refused once it runs past {@value #MAX_UPLOAD_PIXELS} pixels or the bytes they
+ * take. Event streams run on their own threads, so booths following their sessions
+ * never hold up the uploads.
+ *
+ * <p>Strips are saved under a folder per booth in the output directory. The server
+ * listens on loopback unless given an address to bind. Run it with</p>
+ *
+ * <pre>
+ * java -cp photobooth-1.0-SNAPSHOT-shaded.jar com.example.photobooth.RenderServer \
+ *     --bind 0.0.0.0 --port 8765 --token SECRET --output strips --print-service "DNP DS620"
+ * </pre>
+ */
+final class RenderServer implements AutoCloseable {
+
+    static final int DEFAULT_PORT = 8765;
+    static final String SESSIONS_PATH = "/sessions";
+    static final String TOKEN_HEADER = "X-Photobooth-Token";
+    /** System property holding the shared token, for booths and for a server started without {@code --token}. */
+    static final String TOKEN_PROPERTY = "photobooth.renderToken";
+    private static final String EVENTS_SUFFIX = "/events";
+    private static final int UPLOAD_MAGIC = 0x50425331;
+    private static final int MAX_CAPTURES = 16;
+    private static final long MAX_CAPTURE_PIXELS = 50_000_000L;
+    /** Pixels one upload may carry across all its captures; enough for five 16 MP stills. */
+    private static final long MAX_UPLOAD_PIXELS = 80_000_000L;
+    /** Bytes one upload may take: its pixels as packed RGB plus room for the settings. */
+    private static final long MAX_UPLOAD_BYTES = 3 * MAX_UPLOAD_PIXELS + 64 * 1024;
+    /** Finished sessions whose events can still be replayed to a booth that reconnects. */
+    private static final int RECENT_SESSIONS = 256;
+    /** A session still unfinished this long after upload is given up on and forgotten. */
+    private static final long ABANDONED_AFTER_NANOS = TimeUnit.MINUTES.toNanos(30);
+    private static final int HTTP_THREADS = 16;
+    private static final long KEEP_ALIVE_MILLIS = 15_000;
+
+    /** A session as uploaded by a booth. */
+    record Upload(String booth, String stamp, FrameTheme theme, TextStyle style, String eventName, String dateText,
+            String baseName, boolean print, List<BufferedImage> captures) {
+    }
+
+    private final HttpServer server;
+    private final ExecutorService httpThreads =
+            Executors.newFixedThreadPool(HTTP_THREADS, new DaemonThreadFactory("render-server"));
+    private final ExecutorService eventThreads = Executors.newCachedThreadPool(new DaemonThreadFactory("render-events"));
+    private final byte[] token;
+    private final Path outputDirectory;
+    private final SessionPipeline pipeline;
+    private final Map<String, Tracked> sessions = new LinkedHashMap<>();
+
+    /**
+     * Starts listening on {@code address}; port 0 picks a free port.
+     *
+     * @param token         shared secret every request must present
+     * @param queueCapacity uploaded sessions that may wait for rendering before uploads block
+     */
+    RenderServer(InetSocketAddress address, String token, Path outputDirectory, SessionPipeline.Renderer renderer,
+            JpegEncoder encoder, SessionPipeline.StripPrinter printer, int queueCapacity) throws IOException {
+        if (token == null || token.isBlank()) {
+            throw new IllegalArgumentException("A shared token is required");
+        }
+        this.token = token.getBytes(StandardCharsets.UTF_8);
+        this.outputDirectory = outputDirectory;
+        Files.createDirectories(outputDirectory);
+        this.pipeline = new SessionPipeline(renderer, null, encoder, false, printer, null, this::statusChanged,
+                queueCapacity);
+        this.server = HttpServer.create(address, 0);
+        server.setExecutor(httpThreads);
+        server.createContext(SESSIONS_PATH, this::handle);
+        server.start();
+    }
+
+    int port() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) {
+        boolean handedOff = false;
+        try {
+            String path = exchange.getRequestURI().getPath();
+            if (!authorized(exchange)) {
+                respond(exchange, 401, "Missing or wrong " + TOKEN_HEADER);
+            } else if (path.equals(SESSIONS_PATH) && exchange.getRequestMethod().equals("POST")) {
+                handleUpload(exchange);
+            } else if (path.startsWith(SESSIONS_PATH + "/") && path.endsWith(EVENTS_SUFFIX)
+                    && exchange.getRequestMethod().equals("GET")) {
+                String id = path.substring(SESSIONS_PATH.length() + 1, path.length() - EVENTS_SUFFIX.length());
+                // Held open for minutes, so kept off the upload threads.
+                eventThreads.execute(() -> {
+                    try {
+                        handleEvents(exchange, id);
+                    } catch (IOException | RuntimeException ex) {
+                        ex.printStackTrace();
+                    } finally {
+                        exchange.close();
+                    }
+                });
+                handedOff = true;
+            } else {
+                respond(exchange, 404, "Not found");
+            }
+        } catch (IOException | RuntimeException ex) {
+            ex.printStackTrace();
+        } finally {
+            if (!handedOff) {
+                exchange.close();
+            }
+        }
+    }
+
+    private boolean authorized(HttpExchange exchange) {
+        String presented = exchange.getRequestHeaders().getFirst(TOKEN_HEADER);
+        return presented != null && MessageDigest.isEqual(token, presented.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void handleUpload(HttpExchange exchange) throws IOException {
+        String length = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (length != null && parseLength(length) > MAX_UPLOAD_BYTES) {
+            respond(exchange, 413, "Uploads are limited to " + MAX_UPLOAD_BYTES + " bytes");
+            return;
+        }
+        Upload upload;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new BoundedInputStream(exchange.getRequestBody(), MAX_UPLOAD_BYTES)))) {
+            upload = readSession(in, MAX_UPLOAD_PIXELS);
+        } catch (UploadTooLargeException ex) {
+            respond(exchange, 413, ex.getMessage());
+            return;
+        } catch (IOException | IllegalArgumentException ex) {
+            respond(exchange, 400, "Bad session upload: " + ex.getMessage());
+            return;
+        }
+        String id = safeName(upload.booth()) + "-" + safeName(upload.stamp());
+        Tracked tracked = new Tracked();
+        synchronized (sessions) {
+            if (sessions.putIfAbsent(id, tracked) != null) {
+                respond(exchange, 409, "Session " + id + " was already uploaded");
+                return;
+            }
+            forgetOldSessions();
+        }
+        File directory = outputDirectory.resolve(safeName(upload.booth())).toFile();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            forget(id);
+            respond(exchange, 500, "Unable to create " + directory);
+            return;
+        }
+        try {
+            pipeline.submit(new SessionPipeline.Session(id, upload.captures(), upload.theme(), upload.style(),
+                    upload.eventName(), upload.dateText(), directory, safeName(upload.baseName()), upload.print(),
+                    System.nanoTime()));
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            forget(id);
+            respond(exchange, 503, "Render server is shutting down");
+            return;
+        }
+        exchange.getResponseHeaders().set("Location", SESSIONS_PATH + "/" + id + EVENTS_SUFFIX);
+        respond(exchange, 202, id);
+    }
+
+    private void handleEvents(HttpExchange exchange, String id) throws IOException {
+        Tracked tracked;
+        synchronized (sessions) {
+            tracked = sessions.get(id);
+        }
+        if (tracked == null) {
+            respond(exchange, 404, "Unknown session " + id);
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+        int seen = 0;
+        try {
+            while (!tracked.isFinished(seen)) {
+                List<String> events = tracked.awaitFrom(seen, KEEP_ALIVE_MILLIS);
+                for (String event : events) {
+                    out.write((event + "\n").getBytes(StandardCharsets.UTF_8));
+                }
+                seen += events.size();
+                out.flush();
+            }
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        out.close();
+    }
+
+    private void forget(String id) {
+        synchronized (sessions) {
+            sessions.remove(id);
+        }
+    }
+
+    /**
+     * Drops the oldest finished sessions beyond {@value #RECENT_SESSIONS}, and any
+     * session a booth uploaded so long ago that it will never finish. Called with
+     * the sessions lock held.
+     */
+    private void forgetOldSessions() {
+        long now = System.nanoTime();
+        int excess = sessions.size() - RECENT_SESSIONS;
+        for (Iterator<Tracked> it = sessions.values().iterator(); it.hasNext(); ) {
+            Tracked tracked = it.next();
+            if (excess > 0 && tracked.isFinished()) {
+                it.remove();
+                excess--;
+            } else if (now - tracked.uploadedNanos > ABANDONED_AFTER_NANOS) {
+                tracked.publish(event(SessionPipeline.Stage.FAILED, "Abandoned by the render server."), true);
+                it.remove();
+                excess--;
+            }
+        }
+    }
+
+    private static long parseLength(String value) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    private void statusChanged(SessionPipeline.Status status) {
+        Tracked tracked;
+        synchronized (sessions) {
+            tracked = sessions.get(status.stamp());
+        }
+        if (tracked != null) {
+            boolean last = status.stage() == SessionPipeline.Stage.COMPLETED
+                    || status.stage() == SessionPipeline.Stage.FAILED;
+            tracked.publish(event(status.stage(), status.message()), last);
+        }
+    }
+
+    /** One {@code STAGE<tab>message} line of an events stream. */
+    private static String event(SessionPipeline.Stage stage, String message) {
+        return stage.name() + "\t" + URLEncoder.encode(message != null ? message : "", StandardCharsets.UTF_8);
+    }
+
+    private static void respond(HttpExchange exchange, int code, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(code, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String safeName(String value) {
+        String safe = value.replaceAll("[^A-Za-z0-9._-]", "_");
+        return safe.isEmpty() ? "booth" : safe;
+    }
+
+    /** Parses one {@code STAGE<tab>message} line of an events stream. */
+    static SessionPipeline.Stage eventStage(String line) {
+        int tab = line.indexOf('\t');
+        return SessionPipeline.Stage.valueOf(tab < 0 ? line : line.substring(0, tab));
+    }
+
+    /** The message of one events line, or {@code null} if it has none. */
+    static String eventMessage(String line) {
+        int tab = line.indexOf('\t');
+        String message = tab < 0 ? "" : URLDecoder.decode(line.substring(tab + 1), StandardCharsets.UTF_8);
+        return message.isEmpty() ? null : message;
+    }
+
+    /** Writes {@code session} in the upload format: its settings, then each capture as packed 24-bit RGB. */
+    static void writeSession(DataOutputStream out, String booth, SessionPipeline.Session session) throws IOException {
+        out.writeInt(UPLOAD_MAGIC);
+        out.writeUTF(booth);
+        out.writeUTF(session.stamp());
+        out.writeUTF(session.theme().name());
+        out.writeUTF(session.style().name());
+        out.writeUTF(session.eventName() != null ? session.eventName() : "");
+        out.writeUTF(session.dateText() != null ? session.dateText() : "");
+        out.writeUTF(session.baseName());
+        out.writeBoolean(session.print());
+        out.writeInt(session.captures().size());
+        for (BufferedImage capture : session.captures()) {
+            int width = capture.getWidth();
+            int height = capture.getHeight();
+            out.writeInt(width);
+            out.writeInt(height);
+            int[] row = new int[width];
+            byte[] rgb = new byte[width * 3];
+            for (int y = 0; y < height; y++) {
+                capture.getRGB(0, y, width, 1, row, 0, width);
+                for (int x = 0, p = 0; x < width; x++, p += 3) {
+                    rgb[p] = (byte) (row[x] >> 16);
+                    rgb[p + 1] = (byte) (row[x] >> 8);
+                    rgb[p + 2] = (byte) row[x];
+                }
+                out.write(rgb);
+            }
+        }
+    }
+
+    /** Reads one upload, failing with {@link UploadTooLargeException} once its captures pass {@code pixelBudget}. */
+    static Upload readSession(DataInputStream in, long pixelBudget) throws IOException {
+        if (in.readInt() != UPLOAD_MAGIC) {
+            throw new IOException("Not a session upload");
+        }
+        String booth = in.readUTF();
+        String stamp = in.readUTF();
+        FrameTheme theme = FrameTheme.valueOf(in.readUTF());
+        TextStyle style = TextStyle.valueOf(in.readUTF());
+        String eventName = in.readUTF();
+        String dateText = in.readUTF();
+        String baseName = in.readUTF();
+        boolean print = in.readBoolean();
+        int count = in.readInt();
+        if (count < 1 || count > MAX_CAPTURES) {
+            throw new IOException("Unexpected capture count " + count);
+        }
+        List<BufferedImage> captures = new ArrayList<>(count);
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            int width = in.readInt();
+            int height = in.readInt();
+            if (width <= 0 || height <= 0 || (long) width * height > MAX_CAPTURE_PIXELS) {
+                throw new IOException("Unexpected capture size " + width + "x" + height);
+            }
+            total += (long) width * height;
+            if (total > pixelBudget) {
+                throw new UploadTooLargeException("Upload has more than " + pixelBudget + " pixels");
+            }
+            BufferedImage capture = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            int[] pixels = ((DataBufferInt) capture.getRaster().getDataBuffer()).getData();
+            byte[] rgb = new byte[width * 3];
+            for (int y = 0, offset = 0; y < height; y++) {
+                in.readFully(rgb);
+                for (int p = 0; p < rgb.length; p += 3) {
+                    pixels[offset++] = (rgb[p] & 0xFF) << 16 | (rgb[p + 1] & 0xFF) << 8 | (rgb[p + 2] & 0xFF);
+                }
+            }
+            captures.add(capture);
+        }
+        return new Upload(booth, stamp, theme, style, eventName, dateText, baseName, print, captures);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        pipeline.close();
+        httpThreads.shutdownNow();
+        eventThreads.shutdownNow();
+    }
+
+    /** An upload that ran past its byte or pixel budget. */
+    static final class UploadTooLargeException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        UploadTooLargeException(String message) {
+            super(message);
+        }
+    }
+
+    /** Request body that fails once more than {@code limit} bytes have been read from it. */
+    private static final class BoundedInputStream extends FilterInputStream {
+        private long remaining;
+
+        BoundedInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count(read);
+            }
+            return read;
+        }
+
+        private void count(int bytes) throws UploadTooLargeException {
+            remaining -= bytes;
+            if (remaining < 0) {
+                throw new UploadTooLargeException("Uploads are limited to " + MAX_UPLOAD_BYTES + " bytes");
+            }
+        }
+    }
+
+    /** Stage changes of one uploaded session, kept so a late or reconnecting booth sees all of them. */
+    private static final class Tracked {
+        private final long uploadedNanos = System.nanoTime();
+        private final List<String> events = new ArrayList<>();
+        private boolean finished;
+
+        synchronized void publish(String event, boolean last) {
+            events.add(event);
+            finished |= last;
+            notifyAll();
+        }
+
+        /** Events after the first {@code seen}, waiting up to {@code timeoutMillis} if there are none yet. */
+        synchronized List<String> awaitFrom(int seen, long timeoutMillis) throws InterruptedException {
+            if (events.size() <= seen && !finished) {
+                wait(timeoutMillis);
+            }
+            return List.copyOf(events.subList(Math.min(seen, events.size()), events.size()));
+        }
+
+        synchronized boolean isFinished() {
+            return finished;
+        }
+
+        synchronized boolean isFinished(int seen) {
+            return finished && seen >= events.size();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        InetAddress bind = InetAddress.getLoopbackAddress();
+        int port = DEFAULT_PORT;
+        String token = System.getProperty(TOKEN_PROPERTY);
+        Path output = Path.of("photos");
+        String syntheticPrinters = null;
+        String printServiceName = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--bind" -> bind = InetAddress.getByName(args[++i]);
+                case "--port" -> port = Integer.parseInt(args[++i]);
+                case "--token" -> token = args[++i];
+                case "--output" -> output = Path.of(args[++i]);
+                case "--printer" -> syntheticPrinters = args[++i];
+                case "--print-service" -> printServiceName = args[++i];
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]
+                        + ". Options: --bind ADDRESS --port N --token SECRET --output DIR --print-service NAME"
+                        + " --printer count=N,ms=N,fail=F");
+            }
+        }
+        if (token == null || token.isBlank()) {
+            throw new IllegalArgumentException("A shared token is required: pass --token SECRET or -D"
+                    + TOKEN_PROPERTY + "=SECRET, and give the booths the same one.");
+        }
+
+        List<PrinterBackend> printers = new ArrayList<>();
+        if (syntheticPrinters != null) {
+            printers.addAll(DeviceSources.parsePrinters(syntheticPrinters).backends());
+        }
+        if (printServiceName != null) {
+            PrintService service = RasterPrinterBackend.findService(printServiceName);
+            if (service == null) {
+                throw new IllegalArgumentException("No print service named " + printServiceName);
+            }
+            PrinterJob job = PrinterJob.getPrinterJob();
+            job.setPrintService(service);
+            PageFormat page = job.defaultPage();
+            page.setOrientation(PageFormat.LANDSCAPE);
+            printers.add(RasterPrinterBackend.forService(service, job.validatePage(page)));
+        }
+
+        JpegEncoder.discardPartialFiles(output);
+        PrintSpooler spooler = new PrintSpooler(output.resolve(".print-spool"), 3, new PrintSpooler.Listener() {
+            @Override
+            public void jobPrinted(PrintSpooler.SpoolJob job, String printerName) {
+                System.out.println("Printed " + job.stripFile().getFileName() + " on " + printerName);
+            }
+
+            @Override
+            public void jobFailed(PrintSpooler.SpoolJob job, String reason) {
+                System.err.println("Could not print " + job.stripFile().getFileName() + ": " + reason);
+            }
+        });
+        spooler.setPrinters(printers);
+        spooler.recover();
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        ExecutorService regionPool = Executors.newFixedThreadPool(Math.max(1, Math.min(3, cores - 1)),
+                new DaemonThreadFactory("template-region"));
+        TemplateCompositor compositor = new TemplateCompositor(regionPool);
+        JpegEncoder encoder = new JpegEncoder(0.92f, JpegEncoder.ChromaSubsampling.YUV444, Math.max(1, cores));
+        SessionPipeline.StripPrinter stripPrinter = (session, stripFile, strip) -> {
+            if (printers.isEmpty()) {
+                return "No printer on the render server.";
+            }
+            spooler.submit(stripFile, strip);
+            return "Queued for printing on the render server";
+        };
+        RenderServer server = new RenderServer(new InetSocketAddress(bind, port), token, output,
+                session -> compositor.render(session.captures(), session.theme(), session.style(),
+                        session.eventName(), session.dateText()),
+                encoder, stripPrinter, 8);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            spooler.close();
+            encoder.close();
+        }));
+        System.out.println("Render server listening on " + bind.getHostAddress() + ":" + server.port()
+                + ", saving to " + output.toAbsolutePath());
+    }
+}
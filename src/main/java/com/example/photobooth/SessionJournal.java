@@ -0,0 +1,424 @@
+package com.example.photobooth;
+
+import com.example.photobooth.PhotoBooth.FrameTheme;
+import com.example.photobooth.PhotoBooth.TextStyle;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Append-only journal of capture sessions, so photos survive a crash or a camera
+ * dropping out between the shutter and the saved strip.
+ *
+ * <p>Each capture is written raw, straight from its {@link FrameArena} slot, to a
+ * file next to the journal. A background thread does the writing, so the countdown
+ * never waits on the disk. The thread appends records in batches and forces the
+ * journal once per batch. A frame's record is appended only after its file is on
+ * disk, so every recorded frame can be read back.</p>
+ *
+ * <p>Opening the journal replays it and rewrites it to hold only the sessions a
+ * previous run left unfinished. {@link #recover} then works through those one at a
+ * time. Sessions that were fully captured are read back and handed on to be
+ * rendered again. Each session gets one retry. Sessions cut short mid-capture, and
+ * any that fail again, have their photos saved as JPEGs in their folder instead,
+ * through the same {@link JpegEncoder} as live sessions.</p>
+ */
+final class SessionJournal implements AutoCloseable {
+
+    private static final String JOURNAL_FILE = "sessions.journal";
+    private static final String FRAME_SUFFIX = ".rgb";
+    private static final int MAX_BATCH = 64;
+    private static final long CLOSE_TIMEOUT_MILLIS = 5_000;
+
+    private static final String BEGIN = "BEGIN";
+    private static final String FRAME = "FRAME";
+    private static final String CAPTURED = "CAPTURED";
+    private static final String RECOVERED = "RECOVERED";
+    private static final String DONE = "DONE";
+
+    private final Path directory;
+    private final JpegEncoder encoder;
+    private final Path journalFile;
+    private final FileChannel journal;
+    private final BlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Thread writer;
+    private final List<Journaled> unfinished = new ArrayList<>();
+    private int skippedRecords;
+    private volatile boolean closed;
+
+    /** Receives a recovered session to render; may block until there is room for it. */
+    @FunctionalInterface
+    interface Recovery {
+        void render(SessionPipeline.Session session) throws Exception;
+    }
+
+    /** What {@link #recover} did: strips handed on for rendering and loose photos saved as JPEGs. */
+    record Recovered(int strips, int photos) {
+    }
+
+    /**
+     * Opens the journal in {@code directory}, replaying and compacting what a previous
+     * run left behind. Photos recovered without a strip are written with {@code encoder}.
+     */
+    SessionJournal(Path directory, JpegEncoder encoder) throws IOException {
+        this.directory = directory;
+        this.encoder = encoder;
+        this.journalFile = directory.resolve(JOURNAL_FILE);
+        Files.createDirectories(directory);
+        compact();
+        this.journal = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        this.writer = new DaemonThreadFactory("session-journal").newThread(this::runWriter);
+        writer.start();
+    }
+
+    /** Sessions a previous run left unfinished, waiting for {@link #recover}. */
+    int unfinishedSessions() {
+        return unfinished.size();
+    }
+
+    /** Journal records that could not be replayed, such as a line torn by the crash. */
+    int skippedRecords() {
+        return skippedRecords;
+    }
+
+    /**
+     * Works through the sessions a previous run left unfinished, reading back one
+     * session's photos at a time. Fully captured sessions go to {@code recovery};
+     * the rest, and any whose rendering fails to start, keep their photos as JPEGs.
+     * Blocks on the disk and on {@code recovery}, so call it off the FX thread.
+     */
+    Recovered recover(Recovery recovery) throws InterruptedException {
+        int strips = 0;
+        int photos = 0;
+        while (!unfinished.isEmpty()) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedException();
+            }
+            Journaled session = unfinished.remove(0);
+            if (session.captured && !session.recovered && session.frames.size() == PhotoBooth.CAPTURE_COUNT) {
+                List<BufferedImage> captures = readFrames(session);
+                if (captures.size() == PhotoBooth.CAPTURE_COUNT) {
+                    append(new Entry(session.stamp, line(RECOVERED, session.stamp), null, 0, false));
+                    try {
+                        recovery.render(new SessionPipeline.Session(session.stamp, captures, session.theme,
+                                session.style, session.eventName, session.dateText, session.sessionDirectory,
+                                session.baseName, session.print, System.nanoTime()));
+                        strips++;
+                        continue;
+                    } catch (InterruptedException interrupted) {
+                        // Left as recovered; the next start keeps its photos.
+                        throw interrupted;
+                    } catch (Exception ex) {
+                        ex.printStackTrace();
+                    }
+                }
+            }
+            photos += savePhotos(session);
+            sessionFinished(session.stamp);
+        }
+        return new Recovered(strips, photos);
+    }
+
+    /** Records and writes not yet on disk. */
+    int pendingWrites() {
+        return pending.get();
+    }
+
+    void sessionStarted(String stamp, FrameTheme theme, TextStyle style, String eventName, String dateText,
+            File sessionDirectory, String baseName, boolean print) {
+        append(new Entry(stamp, line(BEGIN, stamp, theme.name(), style.name(), Boolean.toString(print),
+                encode(sessionDirectory.getAbsolutePath()), encode(baseName), encode(eventName), encode(dateText)),
+                null, 0, false));
+    }
+
+    /** Queues {@code frame} to be written behind the capture; the journal holds its own reference until then. */
+    void frameCaptured(String stamp, int index, FrameArena.Frame frame) {
+        BufferedImage image = frame.image();
+        append(new Entry(stamp, line(FRAME, stamp, Integer.toString(index), Integer.toString(image.getWidth()),
+                Integer.toString(image.getHeight()), frame.bytes().order().toString()), frame.retain(), index, false));
+    }
+
+    /** All of the session's frames are in; from here it can be rendered from the journal alone. */
+    void sessionCaptured(String stamp) {
+        append(new Entry(stamp, line(CAPTURED, stamp), null, 0, false));
+    }
+
+    /** The strip is saved; the session's raw frames are no longer needed. */
+    void sessionFinished(String stamp) {
+        append(new Entry(stamp, line(DONE, stamp), null, 0, true));
+    }
+
+    private void append(Entry entry) {
+        if (closed) {
+            if (entry.frame() != null) {
+                entry.frame().release();
+            }
+            return;
+        }
+        pending.incrementAndGet();
+        queue.add(entry);
+    }
+
+    /** Writes everything queued so far, then stops the writer. */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        queue.add(Entry.CLOSE);
+        try {
+            writer.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            journal.close();
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    private void runWriter() {
+        List<Entry> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException interrupted) {
+                return;
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+            boolean stop = writeBatch(batch);
+            pending.addAndGet(-(int) batch.stream().filter(entry -> entry != Entry.CLOSE).count());
+            batch.clear();
+            if (stop) {
+                return;
+            }
+        }
+    }
+
+    private boolean writeBatch(List<Entry> batch) {
+        StringBuilder lines = new StringBuilder();
+        List<String> finished = new ArrayList<>();
+        boolean stop = false;
+        for (Entry entry : batch) {
+            if (entry == Entry.CLOSE) {
+                stop = true;
+                continue;
+            }
+            try {
+                if (entry.frame() != null) {
+                    writeFrame(entry.stamp(), entry.index(), entry.frame());
+                }
+                lines.append(entry.line()).append('\n');
+                if (entry.finished()) {
+                    finished.add(entry.stamp());
+                }
+            } catch (IOException ex) {
+                ex.printStackTrace();
+            } finally {
+                if (entry.frame() != null) {
+                    entry.frame().release();
+                }
+            }
+        }
+        try {
+            ByteBuffer bytes = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            while (bytes.hasRemaining()) {
+                journal.write(bytes);
+            }
+            journal.force(false);
+        } catch (IOException ex) {
+            ex.printStackTrace();
+            return stop;
+        }
+        finished.forEach(this::deleteFrames);
+        return stop;
+    }
+
+    private void writeFrame(String stamp, int index, FrameArena.Frame frame) throws IOException {
+        try (FileChannel channel = FileChannel.open(frameFile(stamp, index), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer bytes = frame.bytes();
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(false);
+        }
+    }
+
+    private Path frameFile(String stamp, int index) {
+        return directory.resolve(stamp + "-" + index + FRAME_SUFFIX);
+    }
+
+    private void deleteFrames(String stamp) {
+        for (int i = 0; i < PhotoBooth.CAPTURE_COUNT; i++) {
+            try {
+                Files.deleteIfExists(frameFile(stamp, i));
+            } catch (IOException ex) {
+                ex.printStackTrace();
+            }
+        }
+    }
+
+    /** Replays the journal, keeps the unfinished sessions, and rewrites it to hold only those. */
+    private void compact() throws IOException {
+        StringBuilder compacted = new StringBuilder();
+        for (Journaled session : replay().values()) {
+            if (session.done) {
+                deleteFrames(session.stamp);
+                continue;
+            }
+            unfinished.add(session);
+            session.lines.forEach(line -> compacted.append(line).append('\n'));
+        }
+        Path temp = Files.createTempFile(directory, "." + JOURNAL_FILE, ".part");
+        try (Writer out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            out.write(compacted.toString());
+        }
+        try {
+            Files.move(temp, journalFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException unsupported) {
+            Files.move(temp, journalFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private Map<String, Journaled> replay() throws IOException {
+        Map<String, Journaled> sessions = new LinkedHashMap<>();
+        if (!Files.exists(journalFile)) {
+            return sessions;
+        }
+        for (String line : Files.readAllLines(journalFile, StandardCharsets.UTF_8)) {
+            String[] fields = line.split("\t", -1);
+            try {
+                switch (fields[0]) {
+                    case BEGIN -> sessions.put(fields[1], new Journaled(fields));
+                    case FRAME -> sessions.get(fields[1]).frames.put(Integer.parseInt(fields[2]), fields);
+                    case CAPTURED -> sessions.get(fields[1]).captured = true;
+                    case RECOVERED -> sessions.get(fields[1]).recovered = true;
+                    case DONE -> sessions.get(fields[1]).done = true;
+                    default -> throw new IllegalArgumentException("Unknown record " + fields[0]);
+                }
+                sessions.get(fields[1]).lines.add(line);
+            } catch (RuntimeException ex) {
+                // A torn last line or a record for a session whose BEGIN was lost.
+                skippedRecords++;
+            }
+        }
+        return sessions;
+    }
+
+    private List<BufferedImage> readFrames(Journaled session) {
+        List<BufferedImage> captures = new ArrayList<>();
+        for (String[] frame : session.frames.values()) {
+            try {
+                captures.add(readFrame(session.stamp, frame));
+            } catch (IOException | RuntimeException ex) {
+                ex.printStackTrace();
+            }
+        }
+        return captures;
+    }
+
+    private BufferedImage readFrame(String stamp, String[] record) throws IOException {
+        int index = Integer.parseInt(record[2]);
+        int width = Integer.parseInt(record[3]);
+        int height = Integer.parseInt(record[4]);
+        ByteOrder order = ByteOrder.BIG_ENDIAN.toString().equals(record[5]) ? ByteOrder.BIG_ENDIAN
+                : ByteOrder.LITTLE_ENDIAN;
+        byte[] bytes = Files.readAllBytes(frameFile(stamp, index));
+        if (bytes.length != width * height * Integer.BYTES) {
+            throw new IOException("Frame " + index + " of session " + stamp + " is incomplete");
+        }
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        ByteBuffer.wrap(bytes).order(order).asIntBuffer()
+                .get(((DataBufferInt) image.getRaster().getDataBuffer()).getData());
+        return image;
+    }
+
+    /** Writes each photo atomically, so a crash during recovery cannot leave a truncated JPEG. */
+    private int savePhotos(Journaled session) throws InterruptedException {
+        int saved = 0;
+        for (Map.Entry<Integer, String[]> frame : session.frames.entrySet()) {
+            try {
+                BufferedImage image = readFrame(session.stamp, frame.getValue());
+                Files.createDirectories(session.sessionDirectory.toPath());
+                Path target = session.sessionDirectory.toPath().resolve(String.format("%s_photo_%s_%d.jpg",
+                        session.baseName, session.stamp, frame.getKey() + 1));
+                encoder.write(image, target);
+                saved++;
+            } catch (IOException | RuntimeException ex) {
+                ex.printStackTrace();
+            }
+        }
+        return saved;
+    }
+
+    private static String line(String... fields) {
+        return String.join("\t", fields);
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value != null ? value : "", StandardCharsets.UTF_8);
+    }
+
+    private static String decode(String value) {
+        return URLDecoder.decode(value, StandardCharsets.UTF_8);
+    }
+
+    private record Entry(String stamp, String line, FrameArena.Frame frame, int index, boolean finished) {
+        private static final Entry CLOSE = new Entry(null, null, null, 0, false);
+    }
+
+    /** One session as replayed from the journal. */
+    private static final class Journaled {
+        private final String stamp;
+        private final FrameTheme theme;
+        private final TextStyle style;
+        private final boolean print;
+        private final File sessionDirectory;
+        private final String baseName;
+        private final String eventName;
+        private final String dateText;
+        private final Map<Integer, String[]> frames = new TreeMap<>();
+        private final List<String> lines = new ArrayList<>();
+        private boolean captured;
+        private boolean recovered;
+        private boolean done;
+
+        private Journaled(String[] begin) {
+            stamp = begin[1];
+            theme = FrameTheme.valueOf(begin[2]);
+            style = TextStyle.valueOf(begin[3]);
+            print = Boolean.parseBoolean(begin[4]);
+            sessionDirectory = new File(decode(begin[5]));
+            baseName = decode(begin[6]);
+            eventName = decode(begin[7]);
+            dateText = decode(begin[8]);
+        }
+    }
+}
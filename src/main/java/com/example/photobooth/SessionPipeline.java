@@ -0,0 +1,315 @@
+package com.example.photobooth;
+
+import com.example.photobooth.PhotoBooth.FrameTheme;
+import com.example.photobooth.PhotoBooth.TextStyle;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background render &rarr; encode &rarr; persist &rarr; print pipeline for finished
+ * sessions. Each stage runs on its own thread and hands work to the next one
+ * through a small bounded queue, so a slow printer back-pressures the earlier
+ * stages instead of letting finished strips pile up in memory.
+ */
+final class SessionPipeline implements AutoCloseable {
+
+    private static final int STAGE_QUEUE_CAPACITY = 2;
+
+    enum Stage {
+        QUEUED("Queued"),
+        RENDERING("Rendering"),
+        ENCODING("Encoding"),
+        SAVING("Saving"),
+        PRINTING("Printing"),
+        COMPLETED("Completed"),
+        FAILED("Failed");
+
+        private final String displayName;
+
+        Stage(String displayName) {
+            this.displayName = displayName;
+        }
+
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+
+    /** Everything needed to turn a set of captures into a saved and printed strip. */
+    record Session(
+            String stamp,
+            List<BufferedImage> captures,
+            FrameTheme theme,
+            TextStyle style,
+            String eventName,
+            String dateText,
+            File directory,
+            String baseName,
+            boolean print,
+            long startedNanos) {
+    }
+
+    /** Snapshot of the pipeline counters plus the most recent job transition. */
+    record Status(int pending, int completed, int failed, String stamp, Stage stage, String message) {
+    }
+
+    @FunctionalInterface
+    interface Renderer {
+        BufferedImage render(Session session) throws Exception;
+    }
+
+    @FunctionalInterface
+    interface StripPrinter {
+        /**
+         * Hands the saved strip to a printer and returns a short human-readable outcome.
+         *
+         * @param stripFile where the strip was saved
+         * @param strip     the same strip, still in memory
+         */
+        String print(Session session, Path stripFile, BufferedImage strip) throws Exception;
+    }
+
+    @FunctionalInterface
+    interface SavedStrips {
+        /** Called on the pipeline's save stage once the strip is on disk, before it is printed. */
+        void stripSaved(Session session, Path stripFile, BufferedImage strip) throws IOException;
+    }
+
+    @FunctionalInterface
+    interface Listener {
+        void statusChanged(Status status);
+    }
+
+    private final Renderer renderer;
+    private final Renderer fallbackRenderer;
+    private final JpegEncoder encoder;
+    private final boolean saveRawCaptures;
+    private final StripPrinter stripPrinter;
+    private final SavedStrips savedStrips;
+    private final Listener listener;
+
+    private final BlockingQueue<Job> renderQueue;
+    private final BlockingQueue<Job> encodeQueue = new ArrayBlockingQueue<>(STAGE_QUEUE_CAPACITY);
+    private final BlockingQueue<Job> persistQueue = new ArrayBlockingQueue<>(STAGE_QUEUE_CAPACITY);
+    private final BlockingQueue<Job> printQueue = new ArrayBlockingQueue<>(STAGE_QUEUE_CAPACITY);
+    private final ExecutorService workers = Executors.newFixedThreadPool(4, new DaemonThreadFactory("session-pipeline"));
+
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicInteger completed = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final BoothMetrics metrics = BoothMetrics.shared();
+
+    /**
+     * @param renderer         primary strip renderer
+     * @param fallbackRenderer used when the primary renderer throws, or {@code null}
+     * @param encoder          encodes the strip (and raw captures) and writes them atomically
+     * @param saveRawCaptures  whether the individual captures are saved next to the strip
+     * @param stripPrinter     sends a finished strip to a printer (or a print queue)
+     * @param savedStrips      told about every saved strip, or {@code null}
+     * @param listener         notified on a pipeline thread whenever a job changes stage
+     * @param queueCapacity    number of finished sessions that may wait for rendering
+     */
+    SessionPipeline(Renderer renderer, Renderer fallbackRenderer, JpegEncoder encoder, boolean saveRawCaptures,
+            StripPrinter stripPrinter, SavedStrips savedStrips, Listener listener, int queueCapacity) {
+        this.renderer = renderer;
+        this.fallbackRenderer = fallbackRenderer;
+        this.encoder = encoder;
+        this.saveRawCaptures = saveRawCaptures;
+        this.stripPrinter = stripPrinter;
+        this.savedStrips = savedStrips;
+        this.listener = listener;
+        this.renderQueue = new ArrayBlockingQueue<>(queueCapacity);
+
+        workers.execute(() -> runStage(renderQueue, encodeQueue, Stage.RENDERING, this::render));
+        workers.execute(() -> runStage(encodeQueue, persistQueue, Stage.ENCODING, this::encode));
+        workers.execute(() -> runStage(persistQueue, printQueue, Stage.SAVING, this::persist));
+        workers.execute(() -> runStage(printQueue, null, Stage.PRINTING, this::print));
+    }
+
+    /**
+     * Queues a finished session, blocking while the render queue is full. Call
+     * from a background thread, never the FX thread.
+     */
+    void submit(Session session) throws InterruptedException {
+        Job job = new Job(session);
+        pending.incrementAndGet();
+        publish(job, Stage.QUEUED, "Waiting to render");
+        try {
+            renderQueue.put(job);
+        } catch (InterruptedException interrupted) {
+            pending.decrementAndGet();
+            throw interrupted;
+        }
+    }
+
+    int pendingCount() {
+        return pending.get();
+    }
+
+    @Override
+    public void close() {
+        workers.shutdownNow();
+        try {
+            workers.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void render(Job job) throws Exception {
+        BoothEvents.TemplateRender event = new BoothEvents.TemplateRender();
+        event.begin();
+        long started = System.nanoTime();
+        boolean fallback = false;
+        try {
+            job.strip = renderer.render(job.session);
+        } catch (InterruptedException interrupted) {
+            throw interrupted;
+        } catch (Exception ex) {
+            if (fallbackRenderer == null) {
+                throw ex;
+            }
+            ex.printStackTrace();
+            fallback = true;
+            job.strip = fallbackRenderer.render(job.session);
+        }
+        metrics.recordSince(BoothMetrics.Stage.TEMPLATE_RENDER, started);
+        event.end();
+        if (event.shouldCommit()) {
+            event.session = job.session.stamp();
+            event.fallback = fallback;
+            event.commit();
+        }
+    }
+
+    private void encode(Job job) throws IOException, InterruptedException {
+        Session session = job.session;
+        Path directory = session.directory().toPath();
+        List<JpegEncoder.Output> outputs = new ArrayList<>();
+        outputs.add(new JpegEncoder.Output(job.strip,
+                directory.resolve(String.format("%s_strip_%s.jpg", session.baseName(), session.stamp()))));
+        if (saveRawCaptures) {
+            List<BufferedImage> captures = session.captures();
+            for (int i = 0; i < captures.size(); i++) {
+                outputs.add(new JpegEncoder.Output(captures.get(i), directory.resolve(
+                        String.format("%s_photo_%s_%d.jpg", session.baseName(), session.stamp(), i + 1))));
+            }
+        }
+        BoothEvents.Encode event = new BoothEvents.Encode();
+        event.begin();
+        long started = System.nanoTime();
+        job.pendingFiles = encoder.encodeAll(outputs);
+        metrics.recordSince(BoothMetrics.Stage.ENCODE, started);
+        event.end();
+        if (event.shouldCommit()) {
+            event.session = session.stamp();
+            event.files = outputs.size();
+            for (JpegEncoder.PendingFile file : job.pendingFiles) {
+                event.bytes += file.size();
+            }
+            event.commit();
+        }
+    }
+
+    private void persist(Job job) throws IOException {
+        List<JpegEncoder.PendingFile> files = job.pendingFiles;
+        job.pendingFiles = null;
+        Path stripPath = null;
+        try {
+            for (int i = 0; i < files.size(); i++) {
+                Path committed = files.get(i).commit();
+                if (i == 0) {
+                    stripPath = committed;
+                }
+            }
+        } catch (IOException ex) {
+            files.forEach(JpegEncoder.PendingFile::discard);
+            throw ex;
+        }
+        job.stripPath = stripPath;
+        job.message = "Saved strip to: " + stripPath.toAbsolutePath();
+        if (savedStrips != null) {
+            try {
+                savedStrips.stripSaved(job.session, stripPath, job.strip);
+            } catch (IOException ex) {
+                // The strip itself is safe; only its gallery entry is missing.
+                ex.printStackTrace();
+            }
+        }
+    }
+
+    private void print(Job job) throws Exception {
+        String outcome = job.session.print()
+                ? stripPrinter.print(job.session, job.stripPath, job.strip)
+                : "No printer selected or detected.";
+        job.strip = null;
+        job.message = job.message + "\n" + outcome;
+    }
+
+    private void runStage(BlockingQueue<Job> in, BlockingQueue<Job> out, Stage stage, StageAction action) {
+        while (!Thread.currentThread().isInterrupted()) {
+            Job job;
+            try {
+                job = in.take();
+            } catch (InterruptedException interrupted) {
+                return;
+            }
+            try {
+                publish(job, stage, null);
+                action.run(job);
+                if (out != null) {
+                    out.put(job);
+                } else {
+                    pending.decrementAndGet();
+                    completed.incrementAndGet();
+                    metrics.recordSince(BoothMetrics.Stage.SESSION, job.session.startedNanos());
+                    publish(job, Stage.COMPLETED, job.message);
+                }
+            } catch (InterruptedException interrupted) {
+                return;
+            } catch (Exception ex) {
+                ex.printStackTrace();
+                pending.decrementAndGet();
+                failed.incrementAndGet();
+                String details = ex.getMessage() != null && !ex.getMessage().isBlank() ? ": " + ex.getMessage() : "";
+                publish(job, Stage.FAILED, stage + " failed" + details);
+            }
+        }
+    }
+
+    private void publish(Job job, Stage stage, String message) {
+        if (listener != null) {
+            listener.statusChanged(new Status(pending.get(), completed.get(), failed.get(),
+                    job.session.stamp(), stage, message));
+        }
+    }
+
+    @FunctionalInterface
+    private interface StageAction {
+        void run(Job job) throws Exception;
+    }
+
+    private static final class Job {
+        private final Session session;
+        private BufferedImage strip;
+        private List<JpegEncoder.PendingFile> pendingFiles;
+        private Path stripPath;
+        private String message;
+
+        private Job(Session session) {
+            this.session = session;
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package com.example.photobooth;
+
+import com.example.photobooth.PhotoBooth.FrameTheme;
+import com.example.photobooth.PhotoBooth.TextStyle;
+import com.github.sarxos.webcam.Webcam;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Headless soak test: drives back-to-back sessions through the same capture,
+ * render, save and print code the booth uses, against the synthetic camera and
+ * printers, and reports throughput, heap growth and live threads as it goes.
+ *
+ * <pre>
+ * java -cp photobooth-1.0-SNAPSHOT-shaded.jar com.example.photobooth.SoakRunner \
+ *     --sessions 5000 --camera size=1920x1080,fps=30 --printer count=3,ms=800 --report-every 250
+ * </pre>
+ *
+ * Strips are deleted once printed unless {@code --keep-files} is given, so long
+ * runs do not fill the disk.
+ */
+final class SoakRunner {
+
+    /** How a soak run is configured. */
+    record Options(int sessions, DeviceSources.CameraSpec camera, DeviceSources.PrinterSpec printers,
+            Path outputDirectory, int reportEvery, boolean keepFiles) {
+    }
+
+    /** Outcome of a soak run. Heap figures are bytes used after a full GC. */
+    record Report(int sessions, int completed, int failed, int printed, int printFailures, Duration elapsed,
+            double sessionsPerMinute, long heapBaseline, long heapAfter, int threadsBefore, int threadsAfter,
+            int peakThreads, int activeCaptureTasks, int leasedFrames) {
+
+        long heapGrowth() {
+            return heapAfter - heapBaseline;
+        }
+    }
+
+    private static final Duration DRAIN_TIMEOUT = Duration.ofMinutes(5);
+    private static final long FRAME_ARENA_BYTES = 256L << 20;
+
+    private final Options options;
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final AtomicInteger completed = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicInteger printed = new AtomicInteger();
+    private final AtomicInteger printFailures = new AtomicInteger();
+    private final FrameArena arena = new FrameArena(FRAME_ARENA_BYTES);
+    private final Map<String, List<FrameArena.Frame>> sessionFrames = new ConcurrentHashMap<>();
+
+    SoakRunner(Options options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Report report = new SoakRunner(parseArgs(args)).run();
+        System.exit(report.failed() == 0 && report.printFailures() == 0 ? 0 : 1);
+    }
+
+    Report run() throws IOException, InterruptedException {
+        Files.createDirectories(options.outputDirectory());
+        BoothMetrics.shared().registerMBeans();
+        Webcam.setDriver(options.camera().driver());
+        Webcam camera = Webcam.getWebcams().get(0);
+        Dimension size = options.camera().size();
+        camera.setCustomViewSizes(new Dimension[]{size});
+        camera.setViewSize(size);
+        camera.open();
+
+        ExecutorService regionPool = Executors.newFixedThreadPool(
+                Math.max(1, Math.min(3, Runtime.getRuntime().availableProcessors() - 1)),
+                new DaemonThreadFactory("soak-region"));
+        TemplateCompositor compositor = new TemplateCompositor(regionPool);
+        CaptureRuntime runtime = new CaptureRuntime("soak-capture");
+        PrintSpooler spooler = new PrintSpooler(options.outputDirectory().resolve(".print-spool"), 3,
+                new PrintSpooler.Listener() {
+                    @Override
+                    public void jobPrinted(PrintSpooler.SpoolJob job, String printerName) {
+                        printed.incrementAndGet();
+                        if (!options.keepFiles()) {
+                            deleteQuietly(job.stripFile());
+                        }
+                    }
+
+                    @Override
+                    public void jobFailed(PrintSpooler.SpoolJob job, String reason) {
+                        printFailures.incrementAndGet();
+                        System.err.println("Print failed: " + reason);
+                    }
+                });
+        spooler.setPrinters(options.printers().backends());
+        JpegEncoder encoder = new JpegEncoder(0.92f, JpegEncoder.ChromaSubsampling.YUV444,
+                Math.max(1, Runtime.getRuntime().availableProcessors()));
+        SessionPipeline pipeline = new SessionPipeline(
+                session -> compositor.render(session.captures(), session.theme(), session.style(),
+                        session.eventName(), session.dateText()),
+                null, encoder, false,
+                (session, stripFile, strip) -> {
+                    spooler.submit(stripFile, strip);
+                    return "Queued for printing";
+                },
+                null, this::onStatus, 3);
+
+        FrameRing ring = new FrameRing(PhotoBooth.CAPTURE_COUNT, size.width, size.height);
+        ByteBuffer frameBytes = ByteBuffer.allocateDirect(size.width * size.height * 3);
+        long heapBaseline = usedHeapAfterGc();
+        int threadsBefore = threads.getThreadCount();
+        threads.resetPeakThreadCount();
+        long started = System.nanoTime();
+
+        try {
+            for (int i = 1; i <= options.sessions(); i++) {
+                CaptureRuntime.Scope scope = runtime.open("session-" + i);
+                long sessionStarted = System.nanoTime();
+                String stamp = String.format("soak%06d", i);
+                List<FrameArena.Frame> frames = new ArrayList<>(PhotoBooth.CAPTURE_COUNT);
+                sessionFrames.put(stamp, frames);
+                Future<List<BufferedImage>> capture = scope.fork("sequence", () -> {
+                    for (int shot = 0; shot < PhotoBooth.CAPTURE_COUNT; shot++) {
+                        frameBytes.clear();
+                        long shutter = System.nanoTime();
+                        camera.getImageBytes(frameBytes);
+                        BoothMetrics.shared().recordSince(BoothMetrics.Stage.CAMERA_FRAME, shutter);
+                        ring.writeRgb(frameBytes, shutter);
+                        frames.add(arena.lease(ring.closestTo(shutter)));
+                    }
+                    return frames.stream().map(FrameArena.Frame::image).toList();
+                });
+                List<BufferedImage> captures;
+                try {
+                    captures = capture.get();
+                } catch (ExecutionException ex) {
+                    releaseFrames(stamp);
+                    throw new IllegalStateException("Capture failed in session " + i, ex.getCause());
+                } finally {
+                    scope.close();
+                }
+
+                FrameTheme theme = FrameTheme.values()[i % FrameTheme.values().length];
+                TextStyle style = TextStyle.values()[i % TextStyle.values().length];
+                pipeline.submit(new SessionPipeline.Session(stamp, captures, theme, style, "Soak Test",
+                        "Session " + i, options.outputDirectory().toFile(), "soak", true, sessionStarted));
+
+                if (i % options.reportEvery() == 0) {
+                    printProgress(i, started, heapBaseline, runtime);
+                }
+            }
+            awaitDrained(pipeline, spooler);
+        } finally {
+            pipeline.close();
+            spooler.close();
+            encoder.close();
+            runtime.close();
+            regionPool.shutdownNow();
+            camera.close();
+        }
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+        Report report = new Report(options.sessions(), completed.get(), failed.get(), printed.get(),
+                printFailures.get(), elapsed, perMinute(completed.get(), elapsed), heapBaseline, usedHeapAfterGc(),
+                threadsBefore, threads.getThreadCount(), threads.getPeakThreadCount(), runtime.activeTasks(),
+                arena.leased());
+        printReport(report);
+        return report;
+    }
+
+    private void onStatus(SessionPipeline.Status status) {
+        if (status.stage() == SessionPipeline.Stage.COMPLETED) {
+            releaseFrames(status.stamp());
+            completed.incrementAndGet();
+        } else if (status.stage() == SessionPipeline.Stage.FAILED) {
+            releaseFrames(status.stamp());
+            failed.incrementAndGet();
+            System.err.println("Session " + status.stamp() + " failed: " + status.message());
+        }
+    }
+
+    private void releaseFrames(String stamp) {
+        List<FrameArena.Frame> frames = sessionFrames.remove(stamp);
+        if (frames != null) {
+            frames.forEach(FrameArena.Frame::release);
+        }
+    }
+
+    private void awaitDrained(SessionPipeline pipeline, PrintSpooler spooler) throws InterruptedException {
+        long deadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        while ((pipeline.pendingCount() > 0 || spooler.outstanding() > 0) && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(50);
+        }
+    }
+
+    private void printProgress(int submitted, long started, long heapBaseline, CaptureRuntime runtime) {
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+        long heap = memory.getHeapMemoryUsage().getUsed();
+        System.out.printf(Locale.ROOT,
+                "[%s] submitted %d, completed %d, printed %d, %.1f sessions/min, heap %s (%+d MB vs start), "
+                        + "threads %d, capture tasks %d%n",
+                formatElapsed(elapsed), submitted, completed.get(), printed.get(),
+                perMinute(completed.get(), elapsed), megabytes(heap), (heap - heapBaseline) >> 20,
+                threads.getThreadCount(), runtime.activeTasks());
+    }
+
+    private static void printReport(Report report) {
+        System.out.printf(Locale.ROOT, "%nSoak finished in %s%n", formatElapsed(report.elapsed()));
+        System.out.printf(Locale.ROOT, "  sessions        %d completed, %d failed of %d%n",
+                report.completed(), report.failed(), report.sessions());
+        System.out.printf(Locale.ROOT, "  prints          %d printed, %d failed%n",
+                report.printed(), report.printFailures());
+        System.out.printf(Locale.ROOT, "  throughput      %.1f sessions/min%n", report.sessionsPerMinute());
+        System.out.printf(Locale.ROOT, "  heap after GC   %s -> %s (%+.1f MB)%n", megabytes(report.heapBaseline()),
+                megabytes(report.heapAfter()), report.heapGrowth() / 1048576.0);
+        System.out.printf(Locale.ROOT, "  live threads    %d -> %d (peak %d), capture tasks left %d%n",
+                report.threadsBefore(), report.threadsAfter(), report.peakThreads(), report.activeCaptureTasks());
+        System.out.printf(Locale.ROOT, "  frame arena     %d frames still leased%n", report.leasedFrames());
+        System.out.printf(Locale.ROOT, "%n%s%n", BoothMetrics.shared().describe());
+    }
+
+    private long usedHeapAfterGc() {
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static double perMinute(int count, Duration elapsed) {
+        double minutes = elapsed.toNanos() / 60e9;
+        return minutes > 0 ? count / minutes : 0;
+    }
+
+    private static String megabytes(long bytes) {
+        return String.format(Locale.ROOT, "%.1f MB", bytes / 1048576.0);
+    }
+
+    private static String formatElapsed(Duration elapsed) {
+        return String.format(Locale.ROOT, "%d:%02d:%02d", elapsed.toHours(), elapsed.toMinutesPart(),
+                elapsed.toSecondsPart());
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    static Options parseArgs(String[] args) throws IOException {
+        int sessions = 1000;
+        String camera = "";
+        String printer = "count=2,ms=500";
+        Path output = null;
+        int reportEvery = 100;
+        boolean keepFiles = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--sessions" -> sessions = Integer.parseInt(args[++i]);
+                case "--camera" -> camera = args[++i];
+                case "--printer" -> printer = args[++i];
+                case "--output" -> output = Path.of(args[++i]);
+                case "--report-every" -> reportEvery = Integer.parseInt(args[++i]);
+                case "--keep-files" -> keepFiles = true;
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]
+                        + ". Options: --sessions N --camera size=WxH,fps=N --printer count=N,ms=N,fail=F"
+                        + " --output DIR --report-every N --keep-files");
+            }
+        }
+        if (output == null) {
+            output = Files.createTempDirectory("photobooth-soak");
+        }
+        return new Options(sessions, DeviceSources.parseCamera(camera), DeviceSources.parsePrinters(printer),
+                output, Math.max(1, reportEvery), keepFiles);
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.photobooth;
+
+import com.github.sarxos.webcam.Webcam;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Switches an open camera between its low-cost preview size and the largest still
+ * size it will actually open at. Most drivers only advertise a few small view
+ * sizes, so common sensor sizes are registered as custom view sizes and probed
+ * from the largest down. A size only counts once a frame of exactly that size has
+ * been read back; it is then remembered per camera so later sessions switch
+ * straight to it.
+ *
+ * <p>The camera switches once when a full-resolution session starts and stays at
+ * the still size until the session ends. Meanwhile the preview is fed from
+ * {@link #grabPreview()}, which scales each full-size frame into one reused
+ * preview-size image, letterboxed, so it can go through the same pixel-buffer
+ * surface as the live stream.</p>
+ *
+ * <p>All open/close/grab calls hold {@code cameraLock}, which the preview stream
+ * also holds while it reads a frame, so the stream never touches the device
+ * mid-switch. It is a {@link ReentrantLock} rather than a monitor because these
+ * calls block in the driver on virtual threads, which a monitor would pin to
+ * their carrier.</p>
+ */
+final class StillCapture {
+
+    private static final Dimension[] STILL_CANDIDATES = {
+            new Dimension(3840, 2160),
+            new Dimension(2592, 1944),
+            new Dimension(1920, 1080),
+            new Dimension(1600, 1200),
+            new Dimension(1280, 960),
+            new Dimension(1280, 720)};
+
+    /** Frames discarded after reopening so auto-exposure can settle before the first shot. */
+    private static final int WARM_UP_FRAMES = 2;
+
+    private static final Map<String, Dimension> RESOLVED_STILL_SIZES = new ConcurrentHashMap<>();
+
+    private final Webcam webcam;
+    private final Dimension previewSize;
+    private final ReentrantLock cameraLock;
+
+    private volatile boolean switching;
+    private volatile boolean atStillSize;
+    private boolean released;
+    private BufferedImage previewFrame;
+
+    StillCapture(Webcam webcam, Dimension previewSize, ReentrantLock cameraLock) {
+        this.webcam = webcam;
+        this.previewSize = previewSize;
+        this.cameraLock = cameraLock;
+    }
+
+    /** Makes the still candidates selectable through {@link Webcam#setViewSize}. Camera must be closed. */
+    static void registerViewSizes(Webcam webcam) {
+        List<Dimension> custom = new ArrayList<>(Arrays.asList(STILL_CANDIDATES));
+        Dimension[] advertised = webcam.getViewSizes();
+        if (advertised != null) {
+            custom.removeAll(Arrays.asList(advertised));
+        }
+        webcam.setCustomViewSizes(custom.toArray(new Dimension[0]));
+    }
+
+    /** True while the camera is being closed and reopened; the preview should pause. */
+    boolean isSwitching() {
+        return switching;
+    }
+
+    /** True while the camera is open at the still size; preview frames come from {@link #grabPreview()}. */
+    boolean isAtStillSize() {
+        return atStillSize;
+    }
+
+    /** False once probing has shown the camera cannot open above its preview size. */
+    boolean supportsStills() {
+        Dimension known = RESOLVED_STILL_SIZES.get(webcam.getName());
+        return known == null || isLarger(known, previewSize);
+    }
+
+    /**
+     * Reopens the camera at the largest working still size and discards a couple
+     * of warm-up frames; does nothing if it is already there. Returns
+     * {@code false}, with the preview restored, when no size above the preview
+     * can be opened.
+     */
+    boolean switchToStill() {
+        cameraLock.lock();
+        try {
+            if (released) {
+                return false;
+            }
+            if (atStillSize) {
+                return true;
+            }
+            switching = true;
+            try {
+                for (Dimension candidate : candidates()) {
+                    if (reopenForStills(candidate)) {
+                        RESOLVED_STILL_SIZES.put(webcam.getName(), candidate);
+                        atStillSize = true;
+                        return true;
+                    }
+                }
+                RESOLVED_STILL_SIZES.put(webcam.getName(), previewSize);
+                if (!reopen(previewSize, true)) {
+                    throw new IllegalStateException("Unable to reopen the camera at " + describe(previewSize));
+                }
+                return false;
+            } finally {
+                switching = false;
+            }
+        } finally {
+            cameraLock.unlock();
+        }
+    }
+
+    /** A full-size frame, or a preview-size one if the camera is not at the still size. */
+    BufferedImage grab() {
+        cameraLock.lock();
+        try {
+            return webcam.getImage();
+        } finally {
+            cameraLock.unlock();
+        }
+    }
+
+    /**
+     * A frame for the live preview while the camera is at the still size, scaled
+     * to fit the preview size with black bars where the aspect ratios differ. The
+     * image is an {@code TYPE_INT_RGB} reused by the next call, so callers must
+     * copy or convert it before then. Returns {@code null} once the camera has
+     * left the still size.
+     */
+    BufferedImage grabPreview() {
+        cameraLock.lock();
+        try {
+            if (!atStillSize || released) {
+                return null;
+            }
+            BufferedImage frame = webcam.getImage();
+            return frame != null ? scaledForPreview(frame) : null;
+        } finally {
+            cameraLock.unlock();
+        }
+    }
+
+    /** Reopens the camera at the preview size in asynchronous mode for streaming. */
+    void switchToPreview() {
+        cameraLock.lock();
+        try {
+            if (released || !atStillSize) {
+                return;
+            }
+            switching = true;
+            try {
+                atStillSize = false;
+                if (!reopen(previewSize, true)) {
+                    throw new IllegalStateException("Unable to reopen the camera at " + describe(previewSize));
+                }
+            } finally {
+                switching = false;
+            }
+        } finally {
+            cameraLock.unlock();
+        }
+    }
+
+    /**
+     * Stops any further switching once the camera has been closed for good, so a
+     * queued preview restore cannot reopen it. Call while holding {@code cameraLock}.
+     */
+    void release() {
+        released = true;
+        switching = false;
+        atStillSize = false;
+    }
+
+    private List<Dimension> candidates() {
+        Dimension known = RESOLVED_STILL_SIZES.get(webcam.getName());
+        if (known != null) {
+            return isLarger(known, previewSize) ? List.of(known) : List.of();
+        }
+        List<Dimension> larger = new ArrayList<>();
+        for (Dimension candidate : STILL_CANDIDATES) {
+            if (isLarger(candidate, previewSize)) {
+                larger.add(candidate);
+            }
+        }
+        return larger;
+    }
+
+    /**
+     * Opens at {@code size} and reads frames until exposure settles. Drivers that
+     * quietly fall back to another size still report the requested one from
+     * {@code getViewSize()}, so only the frames themselves are trusted.
+     */
+    private boolean reopenForStills(Dimension size) {
+        if (!reopen(size, false)) {
+            return false;
+        }
+        for (int i = 0; i < WARM_UP_FRAMES; i++) {
+            BufferedImage frame = webcam.getImage();
+            if (frame == null || frame.getWidth() != size.width || frame.getHeight() != size.height) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean reopen(Dimension size, boolean async) {
+        try {
+            webcam.close();
+            webcam.setViewSize(size);
+            return webcam.open(async);
+        } catch (RuntimeException ex) {
+            return false;
+        }
+    }
+
+    private BufferedImage scaledForPreview(BufferedImage frame) {
+        if (previewFrame == null) {
+            previewFrame = new BufferedImage(previewSize.width, previewSize.height, BufferedImage.TYPE_INT_RGB);
+        }
+        double scale = Math.min((double) previewSize.width / frame.getWidth(),
+                (double) previewSize.height / frame.getHeight());
+        int width = Math.max(1, (int) Math.round(frame.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(frame.getHeight() * scale));
+        int x = (previewSize.width - width) / 2;
+        int y = (previewSize.height - height) / 2;
+        Graphics2D g = previewFrame.createGraphics();
+        try {
+            if (width != previewSize.width || height != previewSize.height) {
+                g.setColor(Color.BLACK);
+                g.fillRect(0, 0, previewSize.width, previewSize.height);
+            }
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(frame, x, y, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return previewFrame;
+    }
+
+    private static boolean isLarger(Dimension a, Dimension b) {
+        return (long) a.width * a.height > (long) b.width * b.height;
+    }
+
+    private static String describe(Dimension size) {
+        return size.width + "x" + size.height;
+    }
+}
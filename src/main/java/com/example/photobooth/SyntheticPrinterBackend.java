@@ -0,0 +1,53 @@
+package com.example.photobooth;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Printer that takes a fixed time per job and prints nothing. Lets the print
+ * spooler be load- and soak-tested without hardware; an optional failure rate
+ * exercises the retry path.
+ */
+final class SyntheticPrinterBackend implements PrinterBackend {
+
+    private final String name;
+    private final Duration timePerJob;
+    private final double failureRate;
+    private final Random random;
+    private final AtomicLong jobsPrinted = new AtomicLong();
+
+    /**
+     * @param timePerJob  how long each job blocks, like a dye-sub printer feeding a sheet
+     * @param failureRate fraction of jobs that fail after taking their full time, 0 to 1
+     */
+    SyntheticPrinterBackend(String name, Duration timePerJob, double failureRate) {
+        this.name = name;
+        this.timePerJob = timePerJob;
+        this.failureRate = failureRate;
+        this.random = new Random(name.hashCode());
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public void print(PrintSpooler.SpoolJob job) throws IOException, InterruptedException {
+        Thread.sleep(timePerJob.toMillis());
+        boolean fail;
+        synchronized (random) {
+            fail = random.nextDouble() < failureRate;
+        }
+        if (fail) {
+            throw new IOException("Simulated paper jam");
+        }
+        jobsPrinted.incrementAndGet();
+    }
+
+    long jobsPrinted() {
+        return jobsPrinted.get();
+    }
+}
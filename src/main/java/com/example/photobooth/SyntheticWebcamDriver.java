@@ -0,0 +1,250 @@
+package com.example.photobooth;
+
+import com.github.sarxos.webcam.WebcamDevice;
+import com.github.sarxos.webcam.WebcamDriver;
+import com.github.sarxos.webcam.WebcamException;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Webcam driver that serves generated frames instead of talking to hardware.
+ * Installed with {@code Webcam.setDriver(...)}, it lets the booth, the soak runner
+ * and benchmarks exercise the real camera code paths with no device attached.
+ *
+ * <p>Each device behaves like a sensor of {@code maxSize}: it opens at any size up
+ * to that, refuses larger ones (so still-size probing works as on real cameras),
+ * and paces {@code getImage} to the configured frame rate. Frames are a colour
+ * gradient with a moving band and a little noise, so they compress and focus-score
+ * like real scenes rather than flat colour.</p>
+ */
+final class SyntheticWebcamDriver implements WebcamDriver {
+
+    private static final Dimension[] STANDARD_SIZES = {
+            new Dimension(640, 480),
+            new Dimension(1280, 720),
+            new Dimension(1920, 1080),
+            new Dimension(2592, 1944),
+            new Dimension(3840, 2160)};
+
+    private final List<WebcamDevice> devices;
+
+    /**
+     * @param cameras number of devices to report
+     * @param maxSize largest frame size each device can produce
+     * @param fps     frame rate {@code getImage} is paced to
+     */
+    SyntheticWebcamDriver(int cameras, Dimension maxSize, double fps) {
+        List<WebcamDevice> created = new ArrayList<>(cameras);
+        for (int i = 0; i < cameras; i++) {
+            created.add(new Device("Synthetic Camera " + (i + 1), maxSize, fps, i));
+        }
+        this.devices = List.copyOf(created);
+    }
+
+    @Override
+    public List<WebcamDevice> getDevices() {
+        return devices;
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "Synthetic webcam driver";
+    }
+
+    private static final class Device implements WebcamDevice, WebcamDevice.BufferAccess, WebcamDevice.FPSSource {
+
+        private final String name;
+        private final Dimension maxSize;
+        private final Dimension[] resolutions;
+        private final double fps;
+        private final long frameIntervalNanos;
+        private final int seed;
+
+        private Dimension resolution = new Dimension(640, 480);
+        private volatile boolean open;
+        private int[] base;
+        private int[] scratch;
+        private long frameNumber;
+        private long nextFrameNanos;
+
+        private Device(String name, Dimension maxSize, double fps, int seed) {
+            this.name = name;
+            this.maxSize = maxSize;
+            this.fps = fps;
+            this.frameIntervalNanos = fps > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / fps) : 0;
+            this.seed = seed;
+            List<Dimension> sizes = new ArrayList<>();
+            for (Dimension size : STANDARD_SIZES) {
+                if (fits(size)) {
+                    sizes.add(size);
+                }
+            }
+            if (!sizes.contains(maxSize)) {
+                sizes.add(maxSize);
+            }
+            this.resolutions = sizes.toArray(new Dimension[0]);
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Dimension[] getResolutions() {
+            return resolutions.clone();
+        }
+
+        @Override
+        public synchronized Dimension getResolution() {
+            return resolution;
+        }
+
+        @Override
+        public synchronized void setResolution(Dimension size) {
+            if (open) {
+                throw new IllegalStateException("Cannot change resolution while the camera is open.");
+            }
+            resolution = new Dimension(size);
+        }
+
+        @Override
+        public synchronized void open() {
+            if (!fits(resolution)) {
+                throw new WebcamException(name + " cannot open at " + resolution.width + "x" + resolution.height);
+            }
+            base = gradient(resolution.width, resolution.height, seed);
+            scratch = new int[base.length];
+            frameNumber = 0;
+            nextFrameNanos = System.nanoTime();
+            open = true;
+        }
+
+        @Override
+        public synchronized void close() {
+            open = false;
+            base = null;
+            scratch = null;
+        }
+
+        @Override
+        public void dispose() {
+            close();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public double getFPS() {
+            return fps;
+        }
+
+        @Override
+        public BufferedImage getImage() {
+            synchronized (this) {
+                if (!open) {
+                    return null;
+                }
+                BufferedImage image = new BufferedImage(resolution.width, resolution.height,
+                        BufferedImage.TYPE_INT_RGB);
+                int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+                renderFrame(pixels);
+                return image;
+            }
+        }
+
+        @Override
+        public ByteBuffer getImageBytes() {
+            Dimension size = getResolution();
+            ByteBuffer buffer = ByteBuffer.allocate(size.width * size.height * 3);
+            getImageBytes(buffer);
+            buffer.flip();
+            return buffer;
+        }
+
+        @Override
+        public void getImageBytes(ByteBuffer target) {
+            synchronized (this) {
+                if (!open) {
+                    return;
+                }
+                int[] pixels = scratch;
+                renderFrame(pixels);
+                int count = Math.min(pixels.length, target.remaining() / 3);
+                for (int i = 0; i < count; i++) {
+                    int rgb = pixels[i];
+                    target.put((byte) (rgb >> 16)).put((byte) (rgb >> 8)).put((byte) rgb);
+                }
+            }
+        }
+
+        /** Waits for the next frame slot, then paints the gradient plus a band that moves each frame. */
+        private void renderFrame(int[] pixels) {
+            pace();
+            int width = resolution.width;
+            int height = resolution.height;
+            System.arraycopy(base, 0, pixels, 0, pixels.length);
+            int bandWidth = Math.max(8, width / 16);
+            int bandStart = (int) (frameNumber * Math.max(1, width / 90) % width);
+            for (int y = 0; y < height; y++) {
+                int row = y * width;
+                for (int x = bandStart; x < Math.min(width, bandStart + bandWidth); x++) {
+                    pixels[row + x] = ~pixels[row + x] & 0xFFFFFF;
+                }
+            }
+            frameNumber++;
+        }
+
+        private void pace() {
+            if (frameIntervalNanos <= 0) {
+                return;
+            }
+            long wait = nextFrameNanos - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            nextFrameNanos = Math.max(nextFrameNanos + frameIntervalNanos, System.nanoTime());
+        }
+
+        private boolean fits(Dimension size) {
+            return size.width <= maxSize.width && size.height <= maxSize.height;
+        }
+
+        private static int[] gradient(int width, int height, int seed) {
+            int[] pixels = new int[width * height];
+            long noise = 0x9E3779B97F4A7C15L * (seed + 1);
+            for (int y = 0, i = 0; y < height; y++) {
+                for (int x = 0; x < width; x++, i++) {
+                    noise ^= noise << 13;
+                    noise ^= noise >>> 7;
+                    noise ^= noise << 17;
+                    int jitter = (int) (noise & 0x1F) - 16;
+                    int r = clamp(x * 255 / width + jitter);
+                    int g = clamp(y * 255 / height + jitter);
+                    int b = clamp((x + y) * 255 / (width + height) - jitter + seed * 40);
+                    pixels[i] = r << 16 | g << 8 | b;
+                }
+            }
+            return pixels;
+        }
+
+        private static int clamp(int value) {
+            return Math.max(0, Math.min(255, value));
+        }
+    }
+}
@@ -0,0 +1,474 @@
+package com.example.photobooth;
+
+import com.example.photobooth.PhotoBooth.FrameTheme;
+import com.example.photobooth.PhotoBooth.TextStyle;
+
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.LinearGradientPaint;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.font.FontRenderContext;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.geom.RoundRectangle2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Headless renderer for the photo strip. Paints the same {@link FrameTheme} /
+ * {@link TextStyle} layout as the scene-graph template straight into a
+ * {@link BufferedImage} using Java2D, so it can run on any worker thread.
+ *
+ * <p>The canvas background, the main photo and the thumbnail row are independent
+ * regions; when a region pool is supplied they are rendered concurrently and
+ * composited in scene order at the end.</p>
+ *
+ * <p>Everything that does not depend on the photos themselves is rendered once and
+ * cached: the gradient canvas, the border, the event and date labels, and the blurred
+ * drop shadow under each photo box. A session then only scales its five captures and
+ * draws them over a copy of those layers. The cache keeps the most recent
+ * {@value #CACHED_LAYER_SETS} settings; {@link #invalidate()} drops it when the
+ * operator changes the setup.</p>
+ */
+final class TemplateCompositor {
+
+    private static final Color SNAPSHOT_FILL = Color.WHITE;
+    private static final Color LABEL_FILL = new Color(248, 250, 252, 242);
+    private static final Color LABEL_SHADOW = new Color(15, 23, 42, 166);
+    private static final Color PHOTO_SHADOW = new Color(15, 23, 42, 115);
+    private static final float LABEL_FONT_SIZE = 46f;
+    private static final int SHADOW_MARGIN = 26 + 12;
+    private static final int CACHED_LAYER_SETS = 2;
+    /** One scaler per region worker, so its row buffers and weights are reused from photo to photo. */
+    private static final ThreadLocal<AreaAverageScaler> SCALERS = ThreadLocal.withInitial(AreaAverageScaler::new);
+
+    private static final Set<String> INSTALLED_FONTS = new HashSet<>(Arrays.asList(
+            GraphicsEnvironment.getLocalGraphicsEnvironment().getAvailableFontFamilyNames(Locale.ROOT)));
+
+    private final ExecutorService regionPool;
+    private final Map<StaticKey, StaticLayers> staticLayers = new LinkedHashMap<>(4, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<StaticKey, StaticLayers> eldest) {
+            return size() > CACHED_LAYER_SETS;
+        }
+    };
+
+    /**
+     * @param regionPool executor used to render regions in parallel, or {@code null}
+     *                   to render everything on the calling thread
+     */
+    TemplateCompositor(ExecutorService regionPool) {
+        this.regionPool = regionPool;
+    }
+
+    BufferedImage render(List<BufferedImage> captures, FrameTheme theme, TextStyle style,
+            String eventName, String dateText) throws InterruptedException {
+        if (captures.size() < PhotoBooth.CAPTURE_COUNT) {
+            throw new IllegalStateException("Not enough images captured to build template");
+        }
+        TemplateLayout layout = TemplateLayout.strip();
+        List<Slot> slots = slots(layout);
+        Dimension captureSize = new Dimension(captures.get(0).getWidth(), captures.get(0).getHeight());
+        StaticKey key = new StaticKey(layout, theme, style, eventName, dateText, captureSize);
+        StaticLayers statics = cachedLayers(key);
+
+        List<Callable<Layer>> regions = new ArrayList<>();
+        if (statics == null) {
+            regions.add(() -> new Layer(renderBackground(layout, theme, style, eventName, dateText), 0, 0));
+            for (Slot slot : slots) {
+                regions.add(() -> renderShadow(slot, captureSize.width, captureSize.height));
+            }
+        }
+        for (int i = 0; i < slots.size(); i++) {
+            BufferedImage capture = captures.get(i);
+            Slot slot = slots.get(i);
+            // A capture of another size needs its own shadow, so it is drawn into the photo tile.
+            boolean ownShadow = !matches(capture, captureSize);
+            regions.add(() -> renderPhoto(capture, slot, ownShadow));
+        }
+
+        List<Layer> photos = renderRegions(regions);
+        if (statics == null) {
+            statics = new StaticLayers(photos.get(0).image(), List.copyOf(photos.subList(1, 1 + slots.size())));
+            cacheLayers(key, statics);
+            photos = photos.subList(1 + slots.size(), photos.size());
+        }
+
+        BufferedImage canvas = copyOf(statics.background());
+        Graphics2D g = canvas.createGraphics();
+        try {
+            for (int i = 0; i < photos.size(); i++) {
+                if (matches(captures.get(i), captureSize)) {
+                    Layer shadow = statics.shadows().get(i);
+                    g.drawImage(shadow.image(), shadow.x(), shadow.y(), null);
+                }
+                Layer photo = photos.get(i);
+                g.drawImage(photo.image(), photo.x(), photo.y(), null);
+            }
+        } finally {
+            g.dispose();
+        }
+        return canvas;
+    }
+
+    /** Drops every cached static layer; call when the theme, text style or event text changes. */
+    void invalidate() {
+        synchronized (staticLayers) {
+            staticLayers.clear();
+        }
+    }
+
+    int cachedLayerSets() {
+        synchronized (staticLayers) {
+            return staticLayers.size();
+        }
+    }
+
+    private StaticLayers cachedLayers(StaticKey key) {
+        synchronized (staticLayers) {
+            return staticLayers.get(key);
+        }
+    }
+
+    private void cacheLayers(StaticKey key, StaticLayers layers) {
+        synchronized (staticLayers) {
+            staticLayers.put(key, layers);
+        }
+    }
+
+    /** The main photo box followed by the thumbnail boxes, in scene order. */
+    private static List<Slot> slots(TemplateLayout layout) {
+        List<Slot> slots = new ArrayList<>(PhotoBooth.CAPTURE_COUNT);
+        slots.add(new Slot(layout.mainX(), layout.mainY(), layout.mainFitWidth(), layout.mainFitHeight()));
+        for (int i = 1; i < PhotoBooth.CAPTURE_COUNT; i++) {
+            slots.add(new Slot(layout.thumbX(i - 1), layout.thumbRowTop(), layout.thumbWidth(), layout.thumbHeight()));
+        }
+        return slots;
+    }
+
+    private static boolean matches(BufferedImage image, Dimension size) {
+        return image.getWidth() == size.width && image.getHeight() == size.height;
+    }
+
+    private static BufferedImage copyOf(BufferedImage source) {
+        BufferedImage copy = new BufferedImage(source.getWidth(), source.getHeight(), source.getType());
+        int[] from = ((DataBufferInt) source.getRaster().getDataBuffer()).getData();
+        int[] to = ((DataBufferInt) copy.getRaster().getDataBuffer()).getData();
+        System.arraycopy(from, 0, to, 0, from.length);
+        return copy;
+    }
+
+    private List<Layer> renderRegions(List<Callable<Layer>> regions) throws InterruptedException {
+        List<Layer> layers = new ArrayList<>(regions.size());
+        if (regionPool == null) {
+            for (Callable<Layer> region : regions) {
+                try {
+                    layers.add(region.call());
+                } catch (RuntimeException | InterruptedException ex) {
+                    throw ex;
+                } catch (Exception ex) {
+                    throw new IllegalStateException("Template region failed to render.", ex);
+                }
+            }
+            return layers;
+        }
+
+        List<Future<Layer>> futures = regionPool.invokeAll(regions);
+        for (Future<Layer> future : futures) {
+            try {
+                layers.add(future.get());
+            } catch (ExecutionException ex) {
+                Throwable cause = ex.getCause();
+                if (cause instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                throw new IllegalStateException("Template region failed to render.", cause);
+            }
+        }
+        return layers;
+    }
+
+    private BufferedImage renderBackground(TemplateLayout layout, FrameTheme theme, TextStyle style,
+            String eventName, String dateText) {
+        int w = layout.width();
+        int h = layout.height();
+        BufferedImage canvas = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = canvas.createGraphics();
+        try {
+            applyQualityHints(g);
+            g.setColor(SNAPSHOT_FILL);
+            g.fillRect(0, 0, w, h);
+
+            // .template-canvas + theme gradient (to bottom right), background radius 32
+            Color[] stops = canvasStops(theme);
+            g.setPaint(new LinearGradientPaint(new Point2D.Double(0, 0), new Point2D.Double(w, h),
+                    new float[] {0f, 0.5f, 1f}, stops));
+            g.fill(new RoundRectangle2D.Double(0, 0, w, h, 64, 64));
+
+            // .template-bordered: 12px gradient border, inset 6, outer radius 36
+            g.setPaint(new LinearGradientPaint(new Point2D.Double(6, 0), new Point2D.Double(w - 6, 0),
+                    new float[] {0f, 0.5f, 1f},
+                    new Color[] {new Color(0xff4d4f), new Color(0xffeb3b), new Color(0x4ade80)}));
+            g.setStroke(new BasicStroke(12f));
+            g.draw(new RoundRectangle2D.Double(12, 12, w - 24, h - 24, 60, 60));
+
+            Font eventFont = eventFont(style);
+            drawLabel(g, eventName, eventFont, layout.eventX(), layout.eventY(), -1);
+
+            Font dateFont = resolveFont(Font.BOLD, "Segoe UI", "SansSerif");
+            drawLabel(g, dateText, dateFont, layout.dateX(), layout.dateY(), layout.dateWidth());
+        } finally {
+            g.dispose();
+        }
+        return canvas;
+    }
+
+    /**
+     * Draws a {@code .template-event-label}. When {@code rightAlignWidth} is positive
+     * the text is right-aligned inside a box of that width starting at {@code x}.
+     */
+    private void drawLabel(Graphics2D g, String text, Font font, double x, double top, double rightAlignWidth) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        FontRenderContext frc = g.getFontRenderContext();
+        Rectangle2D bounds = font.getStringBounds(text, frc);
+        float ascent = font.getLineMetrics(text, frc).getAscent();
+        double drawX = rightAlignWidth > 0 ? x + rightAlignWidth - bounds.getWidth() : x;
+        Shape glyphs = font.createGlyphVector(frc, text).getOutline((float) drawX, (float) (top + ascent));
+
+        // dropshadow(gaussian, rgba(15, 23, 42, 0.65), 24, 0.6, 0, 6)
+        paintShadow(g, glyphs, LABEL_SHADOW, 24, 0.6, 0, 6);
+        g.setColor(LABEL_FILL);
+        g.fill(glyphs);
+    }
+
+    /**
+     * Renders one {@code .template-photo}: the capture scaled to fit its box (anchored
+     * top-left, like an {@code ImageView} with preserveRatio), optionally over its
+     * drop shadow.
+     */
+    private Layer renderPhoto(BufferedImage source, Slot slot, boolean withShadow) {
+        double scale = Math.min(slot.fitWidth() / source.getWidth(), slot.fitHeight() / source.getHeight());
+        double drawWidth = source.getWidth() * scale;
+        double drawHeight = source.getHeight() * scale;
+        return renderTile(slot, drawWidth, drawHeight, withShadow ? SHADOW_MARGIN : 0, g -> {
+            if (withShadow) {
+                paintPhotoShadow(g, drawWidth, drawHeight);
+            }
+            int width = (int) Math.round(drawWidth);
+            int height = (int) Math.round(drawHeight);
+            g.drawImage(downscaled(source, width, height), 0, 0, width, height, null);
+        });
+    }
+
+    /**
+     * Area-averages a larger capture down to its drawn size, which reads {@link FrameArena}
+     * frames in place and avoids the aliasing of a single bilinear pass.
+     */
+    private static BufferedImage downscaled(BufferedImage source, int width, int height) {
+        boolean smaller = width <= source.getWidth() && height <= source.getHeight()
+                && (width < source.getWidth() || height < source.getHeight());
+        return smaller ? SCALERS.get().scale(source, width, height) : source;
+    }
+
+    /** The drop shadow a capture of the given size casts in {@code slot}, on its own tile. */
+    private Layer renderShadow(Slot slot, int sourceWidth, int sourceHeight) {
+        double scale = Math.min(slot.fitWidth() / sourceWidth, slot.fitHeight() / sourceHeight);
+        double drawWidth = sourceWidth * scale;
+        double drawHeight = sourceHeight * scale;
+        return renderTile(slot, drawWidth, drawHeight, SHADOW_MARGIN,
+                g -> paintPhotoShadow(g, drawWidth, drawHeight));
+    }
+
+    /**
+     * Paints into a transparent tile covering the photo box plus {@code margin}, with
+     * the origin translated to the box's (fractional) top-left corner.
+     */
+    private static Layer renderTile(Slot slot, double drawWidth, double drawHeight, int margin,
+            Consumer<Graphics2D> painter) {
+        int originX = (int) Math.floor(slot.x()) - margin;
+        int originY = (int) Math.floor(slot.y()) - margin;
+        int tileWidth = (int) Math.ceil(drawWidth) + margin * 2 + 1;
+        int tileHeight = (int) Math.ceil(drawHeight) + margin * 2 + 1;
+
+        BufferedImage tile = new BufferedImage(tileWidth, tileHeight, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = tile.createGraphics();
+        try {
+            applyQualityHints(g);
+            g.translate(slot.x() - originX, slot.y() - originY);
+            painter.accept(g);
+        } finally {
+            g.dispose();
+        }
+        return new Layer(tile, originX, originY);
+    }
+
+    private static void paintPhotoShadow(Graphics2D g, double drawWidth, double drawHeight) {
+        // dropshadow(gaussian, rgba(15, 23, 42, 0.45), 26, 0.45, 0, 10)
+        paintShadow(g, new Rectangle2D.Double(0, 0, drawWidth, drawHeight), PHOTO_SHADOW, 26, 0.45, 0, 10);
+    }
+
+    /**
+     * Approximates JavaFX's gaussian {@code dropshadow}: the shape is grown by
+     * {@code radius * spread}, then blurred over the remaining radius with three
+     * box passes (close to a gaussian with sigma = blurRadius / 3).
+     */
+    private static void paintShadow(Graphics2D target, Shape shape, Color color, double radius, double spread,
+            double offsetX, double offsetY) {
+        Rectangle2D bounds = shape.getBounds2D();
+        int margin = (int) Math.ceil(radius) + 2;
+        int w = (int) Math.ceil(bounds.getWidth()) + margin * 2;
+        int h = (int) Math.ceil(bounds.getHeight()) + margin * 2;
+        if (w <= 0 || h <= 0) {
+            return;
+        }
+
+        BufferedImage mask = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D mg = mask.createGraphics();
+        try {
+            mg.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            mg.translate(margin - bounds.getX(), margin - bounds.getY());
+            // Src keeps the overlap of fill and stroke at the shadow colour's own alpha.
+            mg.setComposite(AlphaComposite.Src);
+            mg.setColor(color);
+            mg.fill(shape);
+            double dilate = radius * spread;
+            if (dilate > 0) {
+                mg.setStroke(new BasicStroke((float) (dilate * 2), BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+                mg.draw(shape);
+            }
+        } finally {
+            mg.dispose();
+        }
+
+        double sigma = radius * (1 - spread) / 3.0;
+        int box = sigma > 0.5 ? (int) Math.round(Math.sqrt(4 * sigma * sigma + 1)) : 0;
+        blurAlpha(mask, box / 2, color.getRGB() & 0xFFFFFF);
+
+        target.drawImage(mask, (int) Math.round(bounds.getX() - margin + offsetX),
+                (int) Math.round(bounds.getY() - margin + offsetY), null);
+    }
+
+    /**
+     * Three-pass separable box blur over the alpha channel; the colour channels are
+     * rewritten to {@code rgb} so antialiased edges keep the shadow colour.
+     */
+    private static void blurAlpha(BufferedImage image, int boxRadius, int rgb) {
+        int w = image.getWidth();
+        int h = image.getHeight();
+        int[] argb = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        int[] alpha = new int[argb.length];
+        for (int i = 0; i < argb.length; i++) {
+            alpha[i] = argb[i] >>> 24;
+        }
+        if (boxRadius > 0) {
+            int[] scratch = new int[alpha.length];
+            for (int pass = 0; pass < 3; pass++) {
+                boxBlur(alpha, scratch, w, h, boxRadius, true);
+                boxBlur(scratch, alpha, w, h, boxRadius, false);
+            }
+        }
+        for (int i = 0; i < argb.length; i++) {
+            argb[i] = (alpha[i] << 24) | rgb;
+        }
+    }
+
+    private static void boxBlur(int[] in, int[] out, int w, int h, int r, boolean horizontal) {
+        int span = r * 2 + 1;
+        int lines = horizontal ? h : w;
+        int length = horizontal ? w : h;
+        int step = horizontal ? 1 : w;
+        for (int line = 0; line < lines; line++) {
+            int start = horizontal ? line * w : line;
+            int sum = 0;
+            for (int i = 0; i <= r && i < length; i++) {
+                sum += in[start + i * step];
+            }
+            for (int i = 0; i < length; i++) {
+                out[start + i * step] = sum / span;
+                int leaving = i - r;
+                int entering = i + r + 1;
+                if (leaving >= 0) {
+                    sum -= in[start + leaving * step];
+                }
+                if (entering < length) {
+                    sum += in[start + entering * step];
+                }
+            }
+        }
+    }
+
+    private static Font eventFont(TextStyle style) {
+        return switch (style) {
+            case SCRIPT -> resolveFont(Font.BOLD, "Great Vibes", "Brush Script MT", "Serif");
+            case MODERN -> resolveFont(Font.BOLD, "Montserrat SemiBold", "Segoe UI Semibold", "SansSerif");
+            case CLASSIC -> resolveFont(Font.BOLD, "Playfair Display", "Georgia", "Serif");
+        };
+    }
+
+    /** Picks the first installed family, mirroring a CSS font-family fallback list. */
+    private static Font resolveFont(int weight, String... families) {
+        for (String family : families) {
+            if (INSTALLED_FONTS.contains(family)) {
+                return new Font(family, weight, 1).deriveFont(LABEL_FONT_SIZE);
+            }
+        }
+        return new Font(families[families.length - 1], weight, 1).deriveFont(LABEL_FONT_SIZE);
+    }
+
+    /** Gradient stops from the {@code .template-canvas-*} rules in application.css. */
+    private static Color[] canvasStops(FrameTheme theme) {
+        return switch (theme) {
+            case BIRTHDAY_CELEBRATION -> new Color[] {
+                    new Color(0x1f2937), new Color(0x312e81), new Color(0x4338ca)};
+            case WEDDING_ELEGANCE -> new Color[] {
+                    new Color(0xfdf2f8), new Color(0xede9fe), new Color(0xfff4d6)};
+            case BRIDE_GLAM -> new Color[] {
+                    new Color(0xfff5f7), new Color(0xfde2f3), new Color(0xf8bbd0)};
+            case GROOM_CLASSIC -> new Color[] {
+                    new Color(0x0f172a), new Color(0x1e3a8a), new Color(0x0b1120)};
+        };
+    }
+
+    private static void applyQualityHints(Graphics2D g) {
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g.setComposite(AlphaComposite.SrcOver);
+    }
+
+    private record Layer(BufferedImage image, int x, int y) {
+    }
+
+    private record Slot(double x, double y, double fitWidth, double fitHeight) {
+    }
+
+    /** Everything the static layers depend on. */
+    private record StaticKey(TemplateLayout layout, FrameTheme theme, TextStyle style, String eventName,
+            String dateText, Dimension captureSize) {
+    }
+
+    private record StaticLayers(BufferedImage background, List<Layer> shadows) {
+    }
+}
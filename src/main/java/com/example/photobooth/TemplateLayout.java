@@ -0,0 +1,92 @@
+package com.example.photobooth;
+
+/**
+ * Geometry of the photo strip template: where the event labels, the large main
+ * photo and the thumbnail row sit on a canvas of a given size. Shared by the
+ * scene-graph template and the headless compositor so both place content
+ * identically.
+ *
+ * <p>Photo boxes are "fit" boxes: as with an {@code ImageView} using
+ * {@code preserveRatio}, the photo is scaled to fit inside the box and anchored
+ * at its top-left corner.</p>
+ */
+record TemplateLayout(
+        int width,
+        int height,
+        double padding,
+        double eventX,
+        double eventY,
+        double dateX,
+        double dateY,
+        double dateWidth,
+        double mainX,
+        double mainY,
+        double mainFitWidth,
+        double mainFitHeight,
+        double thumbRowTop,
+        double thumbWidth,
+        double thumbHeight,
+        double thumbSpacing) {
+
+    static final int STRIP_WIDTH = 1800;
+    static final int STRIP_HEIGHT = 1200;
+
+    static TemplateLayout strip() {
+        return of(STRIP_WIDTH, STRIP_HEIGHT);
+    }
+
+    static TemplateLayout of(int width, int height) {
+        // Layout constants
+        final double padding = 48; // outer padding
+        final double topBarHeight = 90; // space for the top-left/right labels
+        final double betweenSections = 28; // spacing between major sections
+        double thumbRowHeight = 200; // height target for thumbnail row
+        double thumbSpacing = 18; // gap between thumbnails
+        double rightLabelWidth = 320;
+
+        double mainWidth = width - padding * 2;
+        // Height available after top bar + spacing + thumb row + spacing + bottom padding
+        double availableForMain = height - padding - topBarHeight - betweenSections - thumbRowHeight
+                - betweenSections - padding;
+
+        // Ensure a reasonable minimum height; if tight, shrink thumb row a bit
+        if (availableForMain < 360) {
+            thumbRowHeight = Math.max(170, thumbRowHeight - 30);
+            availableForMain = height - padding - topBarHeight - betweenSections - thumbRowHeight
+                    - betweenSections - padding;
+        }
+
+        double mainHeight = availableForMain;
+        double mainTop = padding + topBarHeight + betweenSections;
+
+        // scale with a little breathing room
+        double mainFitWidth = mainWidth * 0.95;
+        double mainFitHeight = mainHeight * 0.95;
+
+        double usableThumbWidth = mainWidth - (thumbSpacing * 3); // 4 thumbs -> 3 gaps
+        double thumbWidth = usableThumbWidth / 4.0;
+
+        return new TemplateLayout(
+                width,
+                height,
+                padding,
+                padding + 10,
+                padding - 8, // slightly tuck upward
+                width - padding - rightLabelWidth - 10,
+                padding - 8,
+                rightLabelWidth,
+                padding + (mainWidth - mainFitWidth) / 2.0,
+                mainTop + (mainHeight - mainFitHeight) / 2.0,
+                mainFitWidth,
+                mainFitHeight,
+                mainTop + mainHeight + betweenSections,
+                thumbWidth,
+                thumbRowHeight,
+                thumbSpacing);
+    }
+
+    /** Left edge of thumbnail {@code slot} (0-based) in the row under the main photo. */
+    double thumbX(int slot) {
+        return padding + (thumbWidth + thumbSpacing) * slot + 10; // tiny nudge
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.photobooth;
+
+import javafx.embed.swing.SwingFXUtils;
+import javafx.scene.image.Image;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Converts captures to JavaFX images on a worker thread, once each. A capture is
+ * downscaled with {@link AreaAverageScaler} to the size of its photo box on the
+ * printed strip, which is also larger than its slot in the on-screen thumbnail
+ * column. The same image then serves the thumbnail and the scene-graph template.
+ *
+ * <p>Results are remembered per capture instance and dropped when the capture is
+ * garbage collected. The scaler and its intermediate images are reused between
+ * captures, because the worker is the only thread that touches them.</p>
+ */
+final class ThumbnailService implements AutoCloseable {
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(new DaemonThreadFactory("thumbnails"));
+    private final AreaAverageScaler scaler = new AreaAverageScaler();
+    private final Map<Dimension, BufferedImage> scratch = new HashMap<>();
+    private final Map<BufferedImage, CompletableFuture<Image>> converted =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    /** Size capture slot {@code slot} is converted at: its photo box on the strip. */
+    static Dimension slotSize(int slot, int captureWidth, int captureHeight) {
+        TemplateLayout layout = TemplateLayout.strip();
+        return slot == 0
+                ? AreaAverageScaler.fit(captureWidth, captureHeight, layout.mainFitWidth(), layout.mainFitHeight())
+                : AreaAverageScaler.fit(captureWidth, captureHeight, layout.thumbWidth(), layout.thumbHeight());
+    }
+
+    /** Starts converting {@code capture}, shown in slot {@code slot}, unless that has already been done. */
+    CompletableFuture<Image> convert(BufferedImage capture, int slot) {
+        return converted.computeIfAbsent(capture,
+                key -> CompletableFuture.supplyAsync(() -> toFxImage(capture, slot), worker));
+    }
+
+    /** The converted image for {@code capture}, waiting for or starting its conversion as needed. */
+    Image fxImage(BufferedImage capture, int slot) throws InterruptedException, ExecutionException {
+        return convert(capture, slot).get();
+    }
+
+    private Image toFxImage(BufferedImage capture, int slot) {
+        Dimension size = slotSize(slot, capture.getWidth(), capture.getHeight());
+        if (size.width == capture.getWidth() && size.height == capture.getHeight()) {
+            return SwingFXUtils.toFXImage(capture, null);
+        }
+        // toFXImage copies the pixels, so one scratch image per size is enough.
+        BufferedImage scaled = scratch.computeIfAbsent(size,
+                s -> new BufferedImage(s.width, s.height, BufferedImage.TYPE_INT_RGB));
+        return SwingFXUtils.toFXImage(scaler.scale(capture, scaled), null);
+    }
+
+    @Override
+    public void close() {
+        worker.shutdownNow();
+    }
+}
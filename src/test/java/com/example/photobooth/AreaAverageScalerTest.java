@@ -0,0 +1,81 @@
+package com.example.photobooth;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AreaAverageScalerTest {
+
+    @Test
+    void averagesEachBlockOfPixels() {
+        BufferedImage source = new BufferedImage(4, 2, BufferedImage.TYPE_INT_RGB);
+        source.setRGB(0, 0, 0x000000);
+        source.setRGB(1, 0, 0xFFFFFF);
+        source.setRGB(0, 1, 0xFFFFFF);
+        source.setRGB(1, 1, 0x000000);
+        for (int x = 2; x < 4; x++) {
+            source.setRGB(x, 0, 0x204060);
+            source.setRGB(x, 1, 0x6080A0);
+        }
+
+        BufferedImage scaled = new AreaAverageScaler().scale(source, 2, 1);
+
+        assertEquals(0x808080, scaled.getRGB(0, 0) & 0xFFFFFF);
+        assertEquals(0x406080, scaled.getRGB(1, 0) & 0xFFFFFF);
+    }
+
+    @Test
+    void matchesTheAwtAreaAveragingFilterAtFractionalRatios() {
+        BufferedImage source = noise(1280, 720);
+        Dimension size = AreaAverageScaler.fit(1280, 720, 415.5, 300);
+        AreaAverageScaler scaler = new AreaAverageScaler();
+
+        BufferedImage ours = scaler.scale(source, size.width, size.height);
+        // Second call reuses the cached weights and buffers.
+        ours = scaler.scale(source, new BufferedImage(size.width, size.height, BufferedImage.TYPE_INT_RGB));
+        BufferedImage awt = awtAreaAverage(source, size.width, size.height);
+
+        for (int y = 0; y < size.height; y++) {
+            for (int x = 0; x < size.width; x++) {
+                int a = ours.getRGB(x, y);
+                int b = awt.getRGB(x, y);
+                for (int shift = 0; shift <= 16; shift += 8) {
+                    int difference = Math.abs(((a >> shift) & 0xFF) - ((b >> shift) & 0xFF));
+                    assertTrue(difference <= 1, "pixel " + x + "," + y + " differs by " + difference);
+                }
+            }
+        }
+    }
+
+    @Test
+    void fitKeepsAspectRatioAndNeverUpscales() {
+        assertEquals(new Dimension(400, 225), AreaAverageScaler.fit(1920, 1080, 400, 300));
+        assertEquals(new Dimension(640, 480), AreaAverageScaler.fit(640, 480, 1600, 900));
+    }
+
+    private static BufferedImage noise(int width, int height) {
+        Random random = new Random(42);
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt(0x1000000));
+            }
+        }
+        return image;
+    }
+
+    private static BufferedImage awtAreaAverage(BufferedImage source, int width, int height) {
+        Image scaled = source.getScaledInstance(width, height, Image.SCALE_AREA_AVERAGING);
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        g.drawImage(scaled, 0, 0, null);
+        g.dispose();
+        return target;
+    }
+}
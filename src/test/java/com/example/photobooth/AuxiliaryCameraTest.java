@@ -0,0 +1,87 @@
+package com.example.photobooth;
+
+import com.github.sarxos.webcam.Webcam;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuxiliaryCameraTest {
+
+    private static final Dimension VGA = new Dimension(640, 480);
+
+    @Test
+    void everyCameraDeliversAFrameForTheSameShutterInstant() throws Exception {
+        Webcam.setDriver(new SyntheticWebcamDriver(2, VGA, 30));
+        List<Webcam> webcams = Webcam.getWebcams();
+        CaptureRuntime runtime = new CaptureRuntime("aux-test");
+        CountDownLatch previews = new CountDownLatch(2);
+        AuxiliaryCamera first = new AuxiliaryCamera(webcams.get(0), runtime, frame -> previews.countDown(),
+                Assertions::fail);
+        AuxiliaryCamera second = new AuxiliaryCamera(webcams.get(1), runtime, frame -> previews.countDown(),
+                Assertions::fail);
+        try {
+            assertTrue(previews.await(5, TimeUnit.SECONDS));
+            assertTrue(first.isOpen());
+            assertEquals(2, runtime.activeTasks());
+
+            long shutter = System.nanoTime();
+            Future<BufferedImage> wide = first.snapshotAt(shutter, false, 0);
+            Future<BufferedImage> closeUp = second.snapshotAt(shutter, true, TimeUnit.MILLISECONDS.toNanos(150));
+
+            assertEquals(VGA.width, wide.get(5, TimeUnit.SECONDS).getWidth());
+            assertEquals(VGA.height, closeUp.get(5, TimeUnit.SECONDS).getHeight());
+        } finally {
+            first.close();
+            second.close();
+        }
+        assertEquals(0, runtime.activeTasks());
+        assertFalse(webcams.get(0).isOpen());
+        runtime.close();
+    }
+
+    @Test
+    void snapshotKeepsTheShutterFrameWhileTheMainStillTakesItsTime() throws Exception {
+        Webcam.setDriver(new SyntheticWebcamDriver(1, VGA, 30));
+        Webcam webcam = Webcam.getWebcams().get(0);
+        CaptureRuntime runtime = new CaptureRuntime("aux-align-test");
+        CountDownLatch streaming = new CountDownLatch(1);
+        AuxiliaryCamera camera = new AuxiliaryCamera(webcam, runtime, frame -> streaming.countDown(),
+                Assertions::fail);
+        try {
+            assertTrue(streaming.await(5, TimeUnit.SECONDS));
+
+            long shutter = System.nanoTime();
+            Future<BufferedImage> snapshot = camera.snapshotAt(shutter, false, 0);
+            BufferedImage atShutter = camera.frameAt(shutter, false, 0);
+            // A full-resolution still on the main camera; the ring rolls over several times meanwhile.
+            Thread.sleep(600);
+            BufferedImage afterStill = camera.frameAt(System.nanoTime(), false, 0);
+
+            BufferedImage picked = snapshot.get(5, TimeUnit.SECONDS);
+            assertTrue(samePixels(atShutter, picked), "the frame nearest the shutter");
+            assertFalse(samePixels(afterStill, picked), "not a frame from after the still");
+        } finally {
+            camera.close();
+            runtime.close();
+        }
+    }
+
+    private static boolean samePixels(BufferedImage a, BufferedImage b) {
+        for (int y = 0; y < a.getHeight(); y += 8) {
+            for (int x = 0; x < a.getWidth(); x++) {
+                if (a.getRGB(x, y) != b.getRGB(x, y)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
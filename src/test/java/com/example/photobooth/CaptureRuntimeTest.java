@@ -0,0 +1,67 @@
+package com.example.photobooth;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CaptureRuntimeTest {
+
+    @Test
+    void cancelStopsBlockedTasksWithinTimeout() throws Exception {
+        try (CaptureRuntime runtime = new CaptureRuntime("test")) {
+            CaptureRuntime.Scope scope = runtime.open("camera");
+            CountDownLatch started = new CountDownLatch(2);
+            scope.fork("stream", () -> {
+                started.countDown();
+                new CountDownLatch(1).await();
+                return null;
+            });
+            scope.fork("countdown", () -> {
+                started.countDown();
+                Thread.sleep(60_000);
+                return null;
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            assertTrue(scope.cancelAndJoin(Duration.ofSeconds(2)));
+            assertEquals(0, runtime.activeTasks());
+        }
+    }
+
+    @Test
+    void cancelledScopeRefusesNewTasks() {
+        try (CaptureRuntime runtime = new CaptureRuntime("test")) {
+            CaptureRuntime.Scope scope = runtime.open("session");
+            scope.cancel();
+            Future<?> task = scope.fork("late", () -> fail("should not run"));
+            assertTrue(task.isCancelled());
+        }
+    }
+
+    @Test
+    void thousandsOfSessionsLeaveNothingBehind() throws Exception {
+        try (CaptureRuntime runtime = new CaptureRuntime("test")) {
+            for (int i = 0; i < 2_000; i++) {
+                CaptureRuntime.Scope scope = runtime.open("session-" + i);
+                scope.fork("sequence", () -> {
+                    Thread.sleep(1);
+                    return null;
+                });
+                scope.fork("still-switch", () -> 42);
+                if (i % 2 == 0) {
+                    scope.cancel();
+                }
+                assertTrue(scope.join(Duration.ofSeconds(2)));
+                scope.close();
+            }
+            assertEquals(0, runtime.activeTasks());
+            assertEquals(0, runtime.openScopes());
+            assertEquals(4_000, runtime.tasksStarted());
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.photobooth;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrameArenaTest {
+
+    private static final long VGA_BYTES = 640L * 480 * Integer.BYTES;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void frameViewHoldsTheCapturedPixels() throws Exception {
+        FrameArena arena = new FrameArena(VGA_BYTES);
+        BufferedImage capture = gradient(640, 480);
+
+        FrameArena.Frame frame = arena.lease(capture);
+
+        BufferedImage view = frame.image();
+        assertEquals(640, view.getWidth());
+        assertEquals(480, view.getHeight());
+        for (int y = 0; y < 480; y += 37) {
+            for (int x = 0; x < 640; x += 41) {
+                assertEquals(capture.getRGB(x, y), view.getRGB(x, y));
+            }
+        }
+        assertEquals(1, arena.leased());
+    }
+
+    @Test
+    void exhaustedArenaAppliesBackPressureUntilAFrameIsReleased() throws Exception {
+        FrameArena arena = new FrameArena(2 * VGA_BYTES);
+        BufferedImage capture = gradient(640, 480);
+        FrameArena.Frame first = arena.lease(capture);
+        arena.lease(capture);
+
+        assertNull(arena.tryLease(capture, Duration.ofMillis(50)));
+
+        CountDownLatch leased = new CountDownLatch(1);
+        AtomicReference<FrameArena.Frame> third = new AtomicReference<>();
+        Thread waiter = Thread.ofVirtual().start(() -> {
+            try {
+                third.set(arena.lease(capture));
+                leased.countDown();
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertFalse(leased.await(100, TimeUnit.MILLISECONDS));
+
+        first.release();
+        first.release();
+
+        assertTrue(leased.await(5, TimeUnit.SECONDS));
+        waiter.join();
+        assertEquals(2, arena.leased());
+        assertEquals(2 * VGA_BYTES, arena.reservedBytes(), "the released slot was reused, not reallocated");
+    }
+
+    @Test
+    void smallFreeSlotsMakeRoomForALargerFrame() throws Exception {
+        FrameArena arena = new FrameArena(VGA_BYTES + 320L * 240 * Integer.BYTES);
+        arena.lease(gradient(320, 240)).release();
+
+        FrameArena.Frame large = arena.tryLease(gradient(640, 480), Duration.ZERO);
+
+        assertNotNull(large, "an idle slot that is too small must not block a new frame");
+        assertThrows(IllegalArgumentException.class, () -> arena.lease(gradient(1280, 720)));
+    }
+
+    @Test
+    void framesEncodeAndScaleStraightFromTheArena() throws Exception {
+        FrameArena arena = new FrameArena(VGA_BYTES);
+        BufferedImage capture = gradient(640, 480);
+        FrameArena.Frame frame = arena.lease(capture);
+
+        try (JpegEncoder encoder = new JpegEncoder(0.95f, JpegEncoder.ChromaSubsampling.YUV444, 1)) {
+            Path written = encoder.write(frame.image(), directory.resolve("frame.jpg"));
+            BufferedImage decoded = ImageIO.read(written.toFile());
+            assertEquals(640, decoded.getWidth());
+            assertEquals(480, decoded.getHeight());
+        }
+        BufferedImage fromArena = new AreaAverageScaler().scale(frame.image(), 160, 120);
+        BufferedImage fromHeap = new AreaAverageScaler().scale(capture, 160, 120);
+        assertEquals(fromHeap.getRGB(80, 60), fromArena.getRGB(80, 60));
+    }
+
+    private static BufferedImage gradient(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, (x * 255 / width) << 16 | (y * 255 / height) << 8 | ((x + y) & 0xFF));
+            }
+        }
+        return image;
+    }
+}
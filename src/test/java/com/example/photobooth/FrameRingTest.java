@@ -0,0 +1,100 @@
+package com.example.photobooth;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrameRingTest {
+
+    private static final int SIZE = 16;
+
+    @Test
+    void closestToPicksTheNearestCaptureTime() {
+        FrameRing ring = new FrameRing(3, SIZE, SIZE);
+        assertNull(ring.closestTo(0));
+
+        ring.write(flat(0x101010), 100);
+        ring.write(flat(0x202020), 200);
+        ring.write(flat(0x303030), 300);
+
+        assertEquals(0x101010, colourOf(ring.closestTo(0)));
+        assertEquals(0x202020, colourOf(ring.closestTo(240)));
+        assertEquals(0x303030, colourOf(ring.closestTo(260)));
+        assertEquals(0x303030, colourOf(ring.closestTo(10_000)));
+    }
+
+    @Test
+    void sharpestAroundPicksTheMostDetailedFrameInTheWindow() {
+        FrameRing ring = new FrameRing(4, SIZE, SIZE);
+        ring.write(checkerboard(0x000000, 0xFFFFFF), 100);
+        ring.write(flat(0x202020), 200);
+        ring.write(checkerboard(0x404040, 0x606060), 300);
+        ring.write(flat(0x808080), 400);
+
+        // The high-contrast frame at 100 is the sharpest overall but outside the window.
+        BufferedImage picked = ring.sharpestAround(350, 100);
+        assertEquals(0x404040, picked.getRGB(0, 0) & 0xFFFFFF);
+        assertEquals(0x606060, picked.getRGB(1, 0) & 0xFFFFFF);
+
+        assertEquals(0x000000, ring.sharpestAround(150, 100).getRGB(0, 0) & 0xFFFFFF);
+        // Nothing within the window: the closest frame stands in.
+        assertEquals(0x808080, colourOf(ring.sharpestAround(1_000, 10)));
+    }
+
+    @Test
+    void oldestFramesAreOverwrittenOnceTheRingWraps() {
+        FrameRing ring = new FrameRing(2, SIZE, SIZE);
+        assertEquals(Long.MIN_VALUE, ring.newestNanos());
+
+        ring.writeRgb(rgb(0x112233), 100);
+        assertEquals(100, ring.newestNanos());
+        ring.writeRgb(rgb(0x445566), 200);
+        ring.writeRgb(rgb(0x778899), 300);
+
+        assertEquals(300, ring.newestNanos());
+        assertEquals(0x445566, colourOf(ring.closestTo(100)), "the frame at 100 was overwritten");
+        assertEquals(0x778899, colourOf(ring.closestTo(300)));
+
+        // A frame of another size is ignored and leaves the ring as it was.
+        ring.write(new BufferedImage(SIZE * 2, SIZE, BufferedImage.TYPE_INT_RGB), 400);
+        assertEquals(300, ring.newestNanos());
+    }
+
+    /** The colour of a uniform frame, checked at both corners. */
+    private static int colourOf(BufferedImage frame) {
+        int colour = frame.getRGB(0, 0) & 0xFFFFFF;
+        assertEquals(colour, frame.getRGB(SIZE - 1, SIZE - 1) & 0xFFFFFF);
+        return colour;
+    }
+
+    private static BufferedImage flat(int rgb) {
+        BufferedImage image = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE; x++) {
+                image.setRGB(x, y, rgb);
+            }
+        }
+        return image;
+    }
+
+    private static BufferedImage checkerboard(int even, int odd) {
+        BufferedImage image = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE; x++) {
+                image.setRGB(x, y, (x + y) % 2 == 0 ? even : odd);
+            }
+        }
+        return image;
+    }
+
+    private static ByteBuffer rgb(int rgb) {
+        ByteBuffer bytes = ByteBuffer.allocate(SIZE * SIZE * 3);
+        for (int i = 0; i < SIZE * SIZE; i++) {
+            bytes.put((byte) (rgb >> 16)).put((byte) (rgb >> 8)).put((byte) rgb);
+        }
+        return bytes.flip();
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.photobooth;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.image.BufferedImage;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GalleryCatalogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reopenedCatalogListsStripsAndDecodesThumbnailsOnDemand() throws Exception {
+        Path file = directory.resolve("gallery").resolve("strips.catalog");
+        try (GalleryCatalog catalog = new GalleryCatalog(file, 8)) {
+            for (int i = 0; i < 3; i++) {
+                catalog.add("Party " + i, "stamp" + i, directory.resolve("party_strip_" + i + ".jpg"),
+                        strip(600, 1800, i));
+            }
+        }
+
+        try (GalleryCatalog catalog = new GalleryCatalog(file, 8)) {
+            List<GalleryCatalog.Entry> entries = catalog.entries();
+            assertEquals(3, entries.size());
+            assertEquals("Party 2", entries.get(2).eventName());
+            assertEquals("stamp2", entries.get(2).stamp());
+            assertEquals(directory.resolve("party_strip_2.jpg").toAbsolutePath(), entries.get(2).stripFile());
+            assertEquals(0, catalog.cachedThumbnails());
+
+            BufferedImage thumbnail = catalog.thumbnail(entries.get(1)).get(5, TimeUnit.SECONDS);
+            assertEquals(GalleryCatalog.THUMBNAIL_WIDTH, thumbnail.getWidth());
+            assertEquals(GalleryCatalog.THUMBNAIL_HEIGHT, thumbnail.getHeight());
+            // Each strip is a flat colour, so the JPEG round trip stays close to it.
+            int rgb = thumbnail.getRGB(60, 180);
+            assertEquals(40, (rgb >> 16) & 0xFF, 6);
+            assertSame(catalog.thumbnail(entries.get(1)).get(), catalog.thumbnail(entries.get(1)).get());
+        }
+    }
+
+    @Test
+    void thumbnailCacheEvictsLeastRecentlyUsed() throws Exception {
+        try (GalleryCatalog catalog = new GalleryCatalog(directory.resolve("strips.catalog"), 2)) {
+            GalleryCatalog.Entry first = catalog.add("Party", "a", directory.resolve("a.jpg"), strip(60, 180, 0));
+            GalleryCatalog.Entry second = catalog.add("Party", "b", directory.resolve("b.jpg"), strip(60, 180, 1));
+            GalleryCatalog.Entry third = catalog.add("Party", "c", directory.resolve("c.jpg"), strip(60, 180, 2));
+
+            BufferedImage firstThumbnail = catalog.thumbnail(first).get(5, TimeUnit.SECONDS);
+            catalog.thumbnail(second).get(5, TimeUnit.SECONDS);
+            catalog.thumbnail(first).get(5, TimeUnit.SECONDS);
+            catalog.thumbnail(third).get(5, TimeUnit.SECONDS);
+
+            assertEquals(2, catalog.cachedThumbnails());
+            assertSame(firstThumbnail, catalog.thumbnail(first).get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void tornLastRecordIsDroppedOnOpen() throws Exception {
+        Path file = directory.resolve("strips.catalog");
+        long intact;
+        try (GalleryCatalog catalog = new GalleryCatalog(file, 4)) {
+            catalog.add("Party", "a", directory.resolve("a.jpg"), strip(60, 180, 0));
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                intact = channel.size();
+            }
+            catalog.add("Party", "b", directory.resolve("b.jpg"), strip(60, 180, 1));
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(intact + 20);
+        }
+
+        try (GalleryCatalog catalog = new GalleryCatalog(file, 4)) {
+            assertEquals(1, catalog.size());
+            assertEquals(20, catalog.droppedBytes());
+            GalleryCatalog.Entry entry = catalog.add("Party", "c", directory.resolve("c.jpg"), strip(60, 180, 2));
+            assertNotNull(catalog.thumbnail(entry).get(5, TimeUnit.SECONDS));
+        }
+        try (GalleryCatalog catalog = new GalleryCatalog(file, 4)) {
+            assertEquals(List.of("a", "c"), catalog.entries().stream().map(GalleryCatalog.Entry::stamp).toList());
+        }
+    }
+
+    @Test
+    void failedDecodeIsNotCached() throws Exception {
+        Path file = directory.resolve("strips.catalog");
+        try (GalleryCatalog catalog = new GalleryCatalog(file, 4)) {
+            GalleryCatalog.Entry entry = catalog.add("Party", "a", directory.resolve("a.jpg"), strip(60, 180, 0));
+            byte[] jpeg = new byte[entry.thumbnailLength()];
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                channel.read(ByteBuffer.wrap(jpeg), entry.thumbnailOffset());
+                channel.write(ByteBuffer.allocate(jpeg.length), entry.thumbnailOffset());
+            }
+
+            ExecutionException failure = assertThrows(ExecutionException.class,
+                    () -> catalog.thumbnail(entry).get(5, TimeUnit.SECONDS));
+            assertNotNull(failure.getCause());
+            assertEquals(0, catalog.cachedThumbnails());
+
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.wrap(jpeg), entry.thumbnailOffset());
+            }
+            assertNotNull(catalog.thumbnail(entry).get(5, TimeUnit.SECONDS));
+            assertEquals(1, catalog.cachedThumbnails());
+        }
+    }
+
+    private static BufferedImage strip(int width, int height, int seed) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        int rgb = (seed * 40) << 16 | 0x80 << 8 | 0x20;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, rgb);
+            }
+        }
+        return image;
+    }
+}
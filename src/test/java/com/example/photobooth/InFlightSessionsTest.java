@@ -0,0 +1,77 @@
+package com.example.photobooth;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InFlightSessionsTest {
+
+    @Test
+    void printedSessionHoldsItsSlotUntilTheJobSettles() {
+        InFlightSessions sessions = new InFlightSessions(1);
+        Path strip = Path.of("strip_a.jpg");
+
+        assertTrue(sessions.tryAcquire("a"));
+        assertFalse(sessions.tryAcquire("b"));
+        sessions.printing("a", strip);
+        sessions.pipelineFinished("a", false);
+        assertFalse(sessions.tryAcquire("b"), "slot is held while the strip waits for a printer");
+
+        sessions.printFinished(strip);
+
+        assertEquals(0, sessions.inFlight());
+        assertTrue(sessions.tryAcquire("b"));
+    }
+
+    @Test
+    void releasesOnceWhicheverSideReportsFirst() {
+        InFlightSessions sessions = new InFlightSessions(2);
+        Path strip = Path.of("strip_a.jpg");
+        assertTrue(sessions.tryAcquire("a"));
+        sessions.printing("a", strip);
+
+        sessions.printFinished(strip);
+        sessions.pipelineFinished("a", false);
+        sessions.release("a");
+
+        assertTrue(sessions.tryAcquire("b"));
+        assertTrue(sessions.tryAcquire("c"));
+        assertFalse(sessions.tryAcquire("d"), "a double release would have freed an extra slot");
+    }
+
+    @Test
+    void waitingCaptureStartsWhenASlotFrees() throws Exception {
+        InFlightSessions sessions = new InFlightSessions(1);
+        assertTrue(sessions.tryAcquire("a"));
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread waiter = Thread.ofVirtual().start(() -> {
+            try {
+                sessions.acquire("b");
+                acquired.countDown();
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        assertFalse(acquired.await(100, TimeUnit.MILLISECONDS));
+        sessions.pipelineFinished("a", true);
+
+        assertTrue(acquired.await(5, TimeUnit.SECONDS));
+        waiter.join();
+        assertEquals(1, sessions.inFlight());
+    }
+
+    @Test
+    void ignoresPrintJobsItDidNotStart() {
+        InFlightSessions sessions = new InFlightSessions(1);
+        assertTrue(sessions.tryAcquire("a"));
+
+        sessions.printFinished(Path.of("recovered.jpg"));
+
+        assertEquals(1, sessions.inFlight());
+    }
+}
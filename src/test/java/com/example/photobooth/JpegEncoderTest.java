@@ -0,0 +1,157 @@
+package com.example.photobooth;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JpegEncoderTest {
+
+    @TempDir
+    Path directory;
+
+    private JpegEncoder encoder;
+
+    @AfterEach
+    void closeEncoder() {
+        if (encoder != null) {
+            encoder.close();
+        }
+    }
+
+    @Test
+    void writesTheConfiguredChromaSubsampling() throws Exception {
+        encoder = new JpegEncoder(0.9f, JpegEncoder.ChromaSubsampling.YUV420, 1);
+        Path target = encoder.write(pattern(64, 48), directory.resolve("strip.jpg"));
+
+        Element root = metadataOf(target);
+        NodeList components = root.getElementsByTagName("componentSpec");
+        assertEquals(3, components.getLength());
+        for (int i = 0; i < components.getLength(); i++) {
+            Element component = (Element) components.item(i);
+            assertEquals(i == 0 ? "2" : "1", component.getAttribute("HsamplingFactor"), "component " + i);
+            assertEquals(i == 0 ? "2" : "1", component.getAttribute("VsamplingFactor"), "component " + i);
+        }
+    }
+
+    @Test
+    void filesOnlyAppearUnderTheirNamesOnceCommitted() throws Exception {
+        encoder = new JpegEncoder(0.9f, JpegEncoder.ChromaSubsampling.YUV444, 2);
+        Path strip = directory.resolve("strip.jpg");
+        Path photo = directory.resolve("photo.jpg");
+
+        List<JpegEncoder.PendingFile> pending = encoder.encodeAll(List.of(
+                new JpegEncoder.Output(pattern(64, 48), strip),
+                new JpegEncoder.Output(pattern(32, 24), photo)));
+
+        assertFalse(Files.exists(strip));
+        assertFalse(Files.exists(photo));
+        assertEquals(2, partialFiles().size());
+        for (JpegEncoder.PendingFile file : pending) {
+            assertTrue(file.size() > 0);
+            file.commit();
+        }
+        assertEquals(48, ImageIO.read(strip.toFile()).getHeight());
+        assertEquals(24, ImageIO.read(photo.toFile()).getHeight());
+        assertEquals(List.of(), partialFiles());
+    }
+
+    @Test
+    void aFailedOutputDiscardsTheWholeBatch() throws Exception {
+        encoder = new JpegEncoder(0.9f, JpegEncoder.ChromaSubsampling.YUV444, 2);
+        List<JpegEncoder.Output> outputs = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            outputs.add(new JpegEncoder.Output(pattern(64, 48), directory.resolve("photo_" + i + ".jpg")));
+        }
+        outputs.add(new JpegEncoder.Output(pattern(64, 48), directory.resolve("missing").resolve("strip.jpg")));
+
+        assertThrows(IOException.class, () -> encoder.encodeAll(outputs));
+
+        awaitNoPartialFiles();
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(List.of(), files.toList());
+        }
+    }
+
+    @Test
+    void anInterruptedBatchLeavesNoTemporaryFiles() throws Exception {
+        encoder = new JpegEncoder(0.9f, JpegEncoder.ChromaSubsampling.YUV444, 2);
+        List<JpegEncoder.Output> outputs = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            outputs.add(new JpegEncoder.Output(pattern(1600, 1200), directory.resolve("photo_" + i + ".jpg")));
+        }
+
+        Thread.currentThread().interrupt();
+        assertThrows(InterruptedException.class, () -> encoder.encodeAll(outputs));
+
+        awaitNoPartialFiles();
+    }
+
+    @Test
+    void partialFilesLeftByACrashAreSwept() throws Exception {
+        Path session = Files.createDirectories(directory.resolve("session"));
+        Path partial = Files.createFile(session.resolve(".strip.jpg1234567.part"));
+        Path journalPartial = Files.createFile(directory.resolve(".journal1234.part"));
+        Path kept = Files.createFile(session.resolve("strip.jpg"));
+
+        assertEquals(1, JpegEncoder.discardPartialFiles(directory));
+
+        assertFalse(Files.exists(partial));
+        assertTrue(Files.exists(journalPartial), "only the encoder's own temporary files are swept");
+        assertTrue(Files.exists(kept));
+        assertEquals(0, JpegEncoder.discardPartialFiles(directory.resolve("absent")));
+    }
+
+    private List<Path> partialFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".part")).toList();
+        }
+    }
+
+    /** Encodes already running when a batch gives up finish on the pool and discard their own output. */
+    private void awaitNoPartialFiles() throws Exception {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!partialFiles().isEmpty()) {
+            assertTrue(System.nanoTime() < deadline, "temporary files left behind: " + partialFiles());
+            Thread.sleep(20);
+        }
+    }
+
+    private static Element metadataOf(Path file) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            ImageReader reader = ImageIO.getImageReaders(input).next();
+            try {
+                reader.setInput(input);
+                IIOMetadata metadata = reader.getImageMetadata(0);
+                return (Element) metadata.getAsTree("javax_imageio_jpeg_image_1.0");
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage pattern(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, (x * 255 / width) << 16 | (y * 255 / height) << 8 | ((x ^ y) & 0xFF));
+            }
+        }
+        return image;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.photobooth;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void percentilesAreWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int ms = 1; ms <= 100; ms++) {
+            histogram.record(ms * 1_000_000L);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(100, snapshot.count());
+        assertEquals(50.5, snapshot.mean(), 0.01);
+        assertEquals(50, snapshot.p50(), 50 * 0.07);
+        assertEquals(90, snapshot.p90(), 90 * 0.07);
+        assertEquals(99, snapshot.p99(), 99 * 0.07);
+        assertEquals(100, snapshot.max(), 0.001);
+    }
+
+    @Test
+    void resetClearsEverything() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(5_000_000L);
+        histogram.reset();
+        assertEquals(new LatencyHistogram.Snapshot(0, 0, 0, 0, 0, 0), histogram.snapshot());
+    }
+
+    @Test
+    void stagesArePublishedOverJmx() throws Exception {
+        BoothMetrics.shared().registerMBeans();
+        BoothMetrics.shared().record(BoothMetrics.Stage.ENCODE, 12_000_000L);
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName encode = new ObjectName(BoothMetrics.JMX_DOMAIN + ":type=Latency,name=encode");
+        assertTrue((Long) server.getAttribute(encode, "Count") >= 1);
+        assertEquals("JPEG encode", server.getAttribute(encode, "Description"));
+        assertNotNull(server.getAttribute(new ObjectName(BoothMetrics.JMX_DOMAIN + ":type=Preview"),
+                "FramesPerSecond"));
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.photobooth;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PreviewPacerTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    void frameCostComesOutOfTheIntervalAndALateLoopDoesNotBurst() {
+        PreviewPacer pacer = new PreviewPacer(25, 0);
+
+        assertEquals(0, pacer.delayNanos(1_000 * MS));
+        // The frame took 15 ms, so only the remaining 25 ms of the 40 ms interval is slept.
+        assertEquals(25 * MS, pacer.delayNanos(1_015 * MS));
+        // Slightly late: the next frame is due straight away, then the schedule holds.
+        assertEquals(0, pacer.delayNanos(1_090 * MS));
+        assertEquals(30 * MS, pacer.delayNanos(1_090 * MS));
+        // Stalled for a second: start again from now instead of firing the missed frames.
+        assertEquals(0, pacer.delayNanos(2_500 * MS));
+        assertEquals(40 * MS, pacer.delayNanos(2_500 * MS));
+    }
+
+    @Test
+    void slowFramesLowerTheRateAndCheapFramesRaiseItBackToTheCap() {
+        PreviewPacer pacer = new PreviewPacer(60, 30);
+        assertEquals(30, pacer.targetFps(), 1e-9);
+
+        long now = 0;
+        for (int i = 0; i < 200; i++) {
+            pacer.frameDone(now, now + 95 * MS);
+            now += 100 * MS;
+        }
+        assertEquals(PreviewPacer.MIN_FPS, pacer.targetFps(), 1e-9);
+        assertEquals(95, pacer.frameCostMillis(), 1);
+
+        for (int i = 0; i < 400; i++) {
+            pacer.frameDone(now, now + 5 * MS);
+            now += 100 * MS;
+        }
+        assertEquals(30, pacer.targetFps(), 1e-9);
+    }
+
+    @Test
+    void unusableConfiguredRatesFallBackToTheDefault() {
+        assertEquals(24, PreviewPacer.configuredFps(" 24 "), 1e-9);
+        for (String value : new String[] {null, "", "fast", "NaN", "Infinity", "0", "-5"}) {
+            assertEquals(PreviewPacer.DEFAULT_FPS, PreviewPacer.configuredFps(value), 1e-9, value);
+        }
+    }
+
+    @Test
+    void effectiveRateFollowsFrameStarts() {
+        PreviewPacer pacer = new PreviewPacer(30, 0);
+        for (int i = 0; i < 100; i++) {
+            pacer.frameStarted(1 + i * 50 * MS);
+        }
+        assertEquals(20, pacer.effectiveFps(), 0.01);
+    }
+}
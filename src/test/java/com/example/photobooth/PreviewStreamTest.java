@@ -0,0 +1,126 @@
+package com.example.photobooth;
+
+import com.github.sarxos.webcam.Webcam;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PreviewStreamTest {
+
+    private static final Dimension VGA = new Dimension(640, 480);
+    private static final int WARM_UP_FRAMES = 300;
+    private static final int MEASURED_FRAMES = 500;
+    /** A VGA frame is 900 KB of pixels; anything per frame beyond a few objects is a regression. */
+    private static final long MAX_BYTES_PER_FRAME = 256;
+
+    @TempDir
+    Path directory;
+
+    private Webcam camera;
+    private CountingSink sink;
+    private PreviewStream stream;
+
+    @BeforeEach
+    void openSyntheticCamera() {
+        Webcam.setDriver(new SyntheticWebcamDriver(1, VGA, 0));
+        camera = Webcam.getWebcams().get(0);
+        camera.setViewSize(VGA);
+        camera.open();
+        sink = new CountingSink(VGA.width * VGA.height);
+        stream = new PreviewStream(camera, new FrameRing(PhotoBooth.CAPTURE_COUNT, VGA.width, VGA.height), sink,
+                sink::frameReady, frame -> fail("raw-byte stream fell back to images"));
+    }
+
+    @AfterEach
+    void closeCamera() {
+        camera.close();
+    }
+
+    @Test
+    void steadyStateFramesDoNotAllocate() {
+        pump(WARM_UP_FRAMES);
+
+        long perFrame = allocatedPerFrame();
+
+        assertEquals(WARM_UP_FRAMES + MEASURED_FRAMES, sink.frames);
+        assertTrue(perFrame <= MAX_BYTES_PER_FRAME, "preview loop allocated " + perFrame + " bytes per frame");
+    }
+
+    @Test
+    void steadyStateFramesDoNotAllocateWhileRecording() throws Exception {
+        Path dump = directory.resolve("preview.jfr");
+        long perFrame;
+        try (Recording recording = new Recording()) {
+            recording.enable(BoothEvents.FrameDelivered.class);
+            recording.start();
+            pump(WARM_UP_FRAMES);
+            perFrame = allocatedPerFrame();
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        assertTrue(perFrame <= MAX_BYTES_PER_FRAME, "preview loop allocated " + perFrame + " bytes per frame");
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump).stream()
+                .filter(event -> event.getEventType().getName().equals("com.example.photobooth.FrameDelivered"))
+                .toList();
+        assertEquals(WARM_UP_FRAMES + MEASURED_FRAMES, events.size());
+        RecordedEvent first = events.get(0);
+        assertEquals(camera.getName(), first.getString("camera"));
+        assertEquals(VGA.width, first.getInt("width"));
+        assertEquals(VGA.height, first.getInt("height"));
+    }
+
+    private long allocatedPerFrame() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        pump(MEASURED_FRAMES);
+        return (threads.getCurrentThreadAllocatedBytes() - before) / MEASURED_FRAMES;
+    }
+
+    private void pump(int frames) {
+        for (int i = 0; i < frames; i++) {
+            assertTrue(stream.pumpFrame());
+        }
+    }
+
+    /** Packs frames the way {@link PreviewSurface} does, without needing the FX toolkit. */
+    private static final class CountingSink implements PreviewStream.FrameSink {
+        private final int[] pixels;
+        private int frames;
+
+        private CountingSink(int size) {
+            pixels = new int[size];
+        }
+
+        @Override
+        public void writeRgb(ByteBuffer rgb) {
+            int count = Math.min(pixels.length, rgb.limit() / 3);
+            for (int i = 0, p = 0; i < count; i++, p += 3) {
+                pixels[i] = 0xFF000000 | (rgb.get(p) & 0xFF) << 16 | (rgb.get(p + 1) & 0xFF) << 8 | (rgb.get(p + 2) & 0xFF);
+            }
+        }
+
+        @Override
+        public void writeImage(BufferedImage frame) {
+            frame.getRGB(0, 0, frame.getWidth(), frame.getHeight(), pixels, 0, frame.getWidth());
+        }
+
+        void frameReady() {
+            frames++;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.photobooth;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrintSpoolerTest {
+
+    @TempDir
+    Path spoolDirectory;
+
+    @Test
+    void spreadsJobsAcrossPrintersByOutstandingCount() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingPrinter slow = new RecordingPrinter("slow", release, 0);
+        RecordingPrinter fast = new RecordingPrinter("fast", null, 0);
+        CompletionListener listener = new CompletionListener(6);
+
+        try (PrintSpooler spooler = new PrintSpooler(spoolDirectory, 3, listener)) {
+            spooler.setPrinters(List.of(slow, fast));
+            for (int i = 0; i < 6; i++) {
+                spooler.submit(strip("strip" + i), null);
+                Thread.sleep(20);
+            }
+            release.countDown();
+            assertTrue(listener.done.await(5, TimeUnit.SECONDS));
+        }
+
+        assertEquals(6, slow.printed.size() + fast.printed.size());
+        assertTrue(fast.printed.size() > slow.printed.size(), "the blocked printer should receive fewer jobs");
+    }
+
+    @Test
+    void retriesFailedJobOnAnotherPrinter() throws Exception {
+        RecordingPrinter broken = new RecordingPrinter("broken", null, Integer.MAX_VALUE);
+        RecordingPrinter working = new RecordingPrinter("working", null, 0);
+        CompletionListener listener = new CompletionListener(1);
+
+        try (PrintSpooler spooler = new PrintSpooler(spoolDirectory, 3, listener)) {
+            // Both printers are idle, so the first one listed gets the job first.
+            spooler.setPrinters(List.of(broken, working));
+            spooler.submit(strip("strip"), null);
+            assertTrue(listener.done.await(5, TimeUnit.SECONDS));
+            assertEquals(0, spooler.outstanding());
+        }
+
+        assertEquals(1, broken.attempts);
+        assertEquals(List.of("working"), listener.printers);
+        assertTrue(listener.failures.isEmpty());
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() throws Exception {
+        RecordingPrinter broken = new RecordingPrinter("broken", null, Integer.MAX_VALUE);
+        CompletionListener listener = new CompletionListener(1);
+
+        try (PrintSpooler spooler = new PrintSpooler(spoolDirectory, 2, listener)) {
+            spooler.setPrinters(List.of(broken));
+            spooler.submit(strip("strip"), null);
+            assertTrue(listener.done.await(5, TimeUnit.SECONDS));
+        }
+
+        assertEquals(2, broken.attempts);
+        assertEquals(1, listener.failures.size());
+        assertTrue(Files.exists(spoolDirectory.resolve("failed")));
+    }
+
+    @Test
+    void recoversQueuedJobsAfterRestart() throws Exception {
+        Path strip = strip("strip");
+        try (PrintSpooler spooler = new PrintSpooler(spoolDirectory, 3, null)) {
+            spooler.submit(strip, null);
+            assertEquals(1, spooler.outstanding());
+        }
+
+        RecordingPrinter printer = new RecordingPrinter("printer", null, 0);
+        CompletionListener listener = new CompletionListener(1);
+        try (PrintSpooler spooler = new PrintSpooler(spoolDirectory, 3, listener)) {
+            assertEquals(1, spooler.recover());
+            spooler.setPrinters(List.of(printer));
+            assertTrue(listener.done.await(5, TimeUnit.SECONDS));
+            PrintSpooler.PrinterStats stats = spooler.stats().get(0);
+            assertEquals("printer", stats.name());
+            assertEquals(1, stats.completed());
+        }
+
+        assertEquals(List.of(strip.toAbsolutePath()), printer.printed);
+        try (var files = Files.list(spoolDirectory)) {
+            assertTrue(files.noneMatch(file -> file.toString().endsWith(".job")));
+        }
+    }
+
+    private Path strip(String name) throws IOException {
+        return Files.createFile(spoolDirectory.resolve(name + ".jpg"));
+    }
+
+    /** Stand-in printer that only records the jobs it receives. */
+    private static final class RecordingPrinter implements PrinterBackend {
+        private final String name;
+        private final CountDownLatch gate;
+        private final int failures;
+        private final List<Path> printed = new CopyOnWriteArrayList<>();
+        private volatile int attempts;
+
+        private RecordingPrinter(String name, CountDownLatch gate, int failures) {
+            this.name = name;
+            this.gate = gate;
+            this.failures = failures;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public void print(PrintSpooler.SpoolJob job) throws Exception {
+            attempts++;
+            if (gate != null) {
+                gate.await();
+            }
+            if (attempts <= failures) {
+                throw new IOException("Paper jam");
+            }
+            printed.add(job.stripFile());
+        }
+    }
+
+    private static final class CompletionListener implements PrintSpooler.Listener {
+        private final CountDownLatch done;
+        private final List<String> printers = new CopyOnWriteArrayList<>();
+        private final List<String> failures = new CopyOnWriteArrayList<>();
+
+        private CompletionListener(int jobs) {
+            this.done = new CountDownLatch(jobs);
+        }
+
+        @Override
+        public void jobPrinted(PrintSpooler.SpoolJob job, String printerName) {
+            printers.add(printerName);
+            done.countDown();
+        }
+
+        @Override
+        public void jobFailed(PrintSpooler.SpoolJob job, String reason) {
+            failures.add(reason);
+            done.countDown();
+        }
+    }
+}
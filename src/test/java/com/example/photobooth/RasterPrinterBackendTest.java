@@ -0,0 +1,89 @@
+package com.example.photobooth;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.print.PageFormat;
+import java.awt.print.Printable;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RasterPrinterBackendTest {
+
+    @Test
+    void landscapePageKeepsTheLayoutMargins() {
+        // 4x6 paper in points, landscape, with uneven hardware margins.
+        PageFormat format = RasterPrinterBackend.pageFormat(288, 432, true, 10, 14, 6, 8);
+
+        assertEquals(PageFormat.LANDSCAPE, format.getOrientation());
+        assertEquals(432, format.getWidth(), 1e-9);
+        assertEquals(288, format.getHeight(), 1e-9);
+        assertEquals(10, format.getImageableX(), 1e-9);
+        assertEquals(6, format.getImageableY(), 1e-9);
+        assertEquals(432 - 10 - 14, format.getImageableWidth(), 1e-9);
+        assertEquals(288 - 6 - 8, format.getImageableHeight(), 1e-9);
+    }
+
+    @Test
+    void stripFillsThePageAtTheDeviceResolution() {
+        PageFormat format = RasterPrinterBackend.pageFormat(288, 432, true, 0, 0, 0, 0);
+        BufferedImage strip = filled(1800, 1200);
+
+        // A 150 dpi device: 6x4 inches is 900x600 pixels, fewer than the strip has.
+        BufferedImage page = new BufferedImage(900, 600, BufferedImage.TYPE_INT_RGB);
+        RasterPrinterBackend.StripPrintable printable = new RasterPrinterBackend.StripPrintable(strip);
+        for (int pass = 0; pass < 2; pass++) {
+            Graphics2D g = page.createGraphics();
+            g.scale(150 / 72.0, 150 / 72.0);
+            assertEquals(Printable.PAGE_EXISTS, printable.print(g, format, 0));
+            g.dispose();
+        }
+
+        assertEquals(0x3366CC, page.getRGB(0, 0) & 0xFFFFFF);
+        assertEquals(0x3366CC, page.getRGB(899, 599) & 0xFFFFFF);
+        assertEquals(Printable.NO_SUCH_PAGE, printable.print(page.createGraphics(), format, 1));
+    }
+
+    @Test
+    void smallStripIsStretchedOnceToFillThePage() {
+        PageFormat format = RasterPrinterBackend.pageFormat(288, 432, true, 0, 0, 0, 0);
+        BufferedImage strip = filled(300, 200);
+
+        // What PostScript and CUPS jobs hand over: one unit per point, whatever the printer resolves.
+        BufferedImage page = new BufferedImage(432, 288, BufferedImage.TYPE_INT_RGB);
+        RasterPrinterBackend.StripPrintable printable = new RasterPrinterBackend.StripPrintable(strip);
+        Graphics2D g = page.createGraphics();
+        assertEquals(Printable.PAGE_EXISTS, printable.print(g, format, 0));
+        g.dispose();
+
+        assertEquals(0x3366CC, page.getRGB(0, 0) & 0xFFFFFF);
+        assertEquals(0x3366CC, page.getRGB(431, 287) & 0xFFFFFF);
+    }
+
+    @Test
+    void stripKeepsItsAspectRatioCentredOnThePage() {
+        PageFormat format = RasterPrinterBackend.pageFormat(288, 432, true, 0, 0, 0, 0);
+        // Square strip on a 3:2 page: 288 points wide, with 72-point bars left and right.
+        BufferedImage strip = filled(200, 200);
+
+        BufferedImage page = new BufferedImage(432, 288, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = page.createGraphics();
+        assertEquals(Printable.PAGE_EXISTS, new RasterPrinterBackend.StripPrintable(strip).print(g, format, 0));
+        g.dispose();
+
+        assertEquals(0, page.getRGB(36, 144) & 0xFFFFFF);
+        assertEquals(0x3366CC, page.getRGB(216, 144) & 0xFFFFFF);
+        assertEquals(0, page.getRGB(395, 144) & 0xFFFFFF);
+    }
+
+    private static BufferedImage filled(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D fill = image.createGraphics();
+        fill.setColor(new Color(0x3366CC));
+        fill.fillRect(0, 0, width, height);
+        fill.dispose();
+        return image;
+    }
+}
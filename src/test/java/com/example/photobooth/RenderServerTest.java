@@ -0,0 +1,202 @@
+package com.example.photobooth;
+
+import com.example.photobooth.PhotoBooth.FrameTheme;
+import com.example.photobooth.PhotoBooth.TextStyle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RenderServerTest {
+
+    private static final String TOKEN = "shared-secret";
+
+    @TempDir
+    Path directory;
+
+    private JpegEncoder encoder;
+    private RenderServer server;
+    private final BlockingQueue<SessionPipeline.Session> printed = new LinkedBlockingQueue<>();
+
+    @BeforeEach
+    void startServer() throws Exception {
+        encoder = new JpegEncoder(0.9f, JpegEncoder.ChromaSubsampling.YUV444, 1);
+        // The first capture stands in for the strip; rendering is not what is under test here.
+        server = new RenderServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), TOKEN,
+                directory.resolve("server"), session -> session.captures().get(0), encoder,
+                (session, stripFile, strip) -> {
+                    printed.add(session);
+                    return "Printed centrally";
+                }, 4);
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.close();
+        encoder.close();
+    }
+
+    @Test
+    void uploadedSessionIsRenderedPrintedAndReportedBackToTheBooth() throws Exception {
+        BlockingQueue<SessionPipeline.Status> statuses = new LinkedBlockingQueue<>();
+        List<BufferedImage> captures = new ArrayList<>();
+        for (int i = 0; i < PhotoBooth.CAPTURE_COUNT; i++) {
+            captures.add(pattern(64 + i, 48, i));
+        }
+        SessionPipeline.Session session = new SessionPipeline.Session("20261018_120000", captures,
+                FrameTheme.values()[0], TextStyle.values()[0], "Café night", "Oct 18",
+                new File("unused"), "cafe", true, System.nanoTime());
+
+        try (RenderClient client = new RenderClient(URI.create("http://127.0.0.1:" + server.port()), TOKEN,
+                "north door", statuses::add)) {
+            client.submit(session);
+
+            List<SessionPipeline.Stage> stages = new ArrayList<>();
+            SessionPipeline.Status status;
+            do {
+                status = statuses.poll(10, TimeUnit.SECONDS);
+                assertNotNull(status, "no status after " + stages);
+                assertEquals("20261018_120000", status.stamp());
+                stages.add(status.stage());
+            } while (status.stage() != SessionPipeline.Stage.COMPLETED
+                    && status.stage() != SessionPipeline.Stage.FAILED);
+
+            assertEquals(SessionPipeline.Stage.COMPLETED, status.stage());
+            assertEquals(SessionPipeline.Stage.QUEUED, stages.get(0));
+            assertTrue(status.message().contains("Printed centrally"));
+            assertEquals(0, status.pending());
+            assertEquals(1, status.completed());
+        }
+
+        SessionPipeline.Session received = printed.poll(5, TimeUnit.SECONDS);
+        assertNotNull(received);
+        assertEquals("north_door-20261018_120000", received.stamp());
+        assertEquals("Café night", received.eventName());
+        assertTrue(received.print());
+        for (int i = 0; i < captures.size(); i++) {
+            BufferedImage expected = captures.get(i);
+            BufferedImage actual = received.captures().get(i);
+            assertEquals(expected.getWidth(), actual.getWidth());
+            for (int y = 0; y < expected.getHeight(); y += 7) {
+                for (int x = 0; x < expected.getWidth(); x += 5) {
+                    assertEquals(expected.getRGB(x, y), actual.getRGB(x, y));
+                }
+            }
+        }
+        assertTrue(Files.exists(directory.resolve("server").resolve("north_door")
+                .resolve("cafe_strip_north_door-20261018_120000.jpg")));
+    }
+
+    @Test
+    void uploadedBaseNameCannotLeaveTheBoothFolder() throws Exception {
+        BlockingQueue<SessionPipeline.Status> statuses = new LinkedBlockingQueue<>();
+        List<BufferedImage> captures = new ArrayList<>();
+        for (int i = 0; i < PhotoBooth.CAPTURE_COUNT; i++) {
+            captures.add(pattern(32, 24, i));
+        }
+        SessionPipeline.Session session = new SessionPipeline.Session("20261018_130000", captures,
+                FrameTheme.values()[0], TextStyle.values()[0], "", "", new File("unused"), "../../escaped", false,
+                System.nanoTime());
+
+        try (RenderClient client = new RenderClient(URI.create("http://127.0.0.1:" + server.port()), TOKEN,
+                "booth", statuses::add)) {
+            client.submit(session);
+            SessionPipeline.Status status;
+            do {
+                status = statuses.poll(10, TimeUnit.SECONDS);
+                assertNotNull(status);
+            } while (status.stage() != SessionPipeline.Stage.COMPLETED
+                    && status.stage() != SessionPipeline.Stage.FAILED);
+            assertEquals(SessionPipeline.Stage.COMPLETED, status.stage());
+        }
+
+        try (var files = Files.walk(directory)) {
+            List<Path> strips = files.filter(file -> file.getFileName().toString().contains("escaped")).toList();
+            assertEquals(1, strips.size());
+            assertEquals(directory.resolve("server").resolve("booth"), strips.get(0).getParent());
+        }
+    }
+
+    @Test
+    void malformedUploadIsRejected() throws Exception {
+        HttpResponse<String> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.port() + RenderServer.SESSIONS_PATH))
+                        .header(RenderServer.TOKEN_HEADER, TOKEN)
+                        .POST(HttpRequest.BodyPublishers.ofString("not a session"))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(400, response.statusCode());
+        assertTrue(printed.isEmpty());
+    }
+
+    @Test
+    void requestsWithoutTheSharedTokenAreRefused() throws Exception {
+        HttpClient http = HttpClient.newHttpClient();
+        URI sessions = URI.create("http://127.0.0.1:" + server.port() + RenderServer.SESSIONS_PATH);
+
+        HttpResponse<String> anonymous = http.send(HttpRequest.newBuilder(sessions)
+                        .POST(HttpRequest.BodyPublishers.ofString("not a session")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> wrongToken = http.send(HttpRequest.newBuilder(sessions.resolve("/sessions/x/events"))
+                        .header(RenderServer.TOKEN_HEADER, "guess").GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(401, anonymous.statusCode());
+        assertEquals(401, wrongToken.statusCode());
+        assertThrows(IllegalArgumentException.class, () -> new RenderServer(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), " ", directory.resolve("open"),
+                session -> session.captures().get(0), encoder, (session, stripFile, strip) -> "", 1));
+    }
+
+    @Test
+    void uploadPastItsPixelBudgetIsRefusedBeforeItsPixelsAreRead() throws Exception {
+        List<BufferedImage> captures = new ArrayList<>();
+        for (int i = 0; i < PhotoBooth.CAPTURE_COUNT; i++) {
+            captures.add(pattern(100, 100, i));
+        }
+        SessionPipeline.Session session = new SessionPipeline.Session("s", captures, FrameTheme.values()[0],
+                TextStyle.values()[0], "", "", new File("unused"), "party", false, System.nanoTime());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            RenderServer.writeSession(out, "booth", session);
+        }
+
+        assertEquals(PhotoBooth.CAPTURE_COUNT, RenderServer.readSession(
+                new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), 50_000).captures().size());
+        assertThrows(RenderServer.UploadTooLargeException.class, () -> RenderServer.readSession(
+                new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), 49_999));
+    }
+
+    private static BufferedImage pattern(int width, int height, int seed) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, (x * 3 + seed) << 16 | (y * 5) << 8 | (seed * 50 & 0xFF));
+            }
+        }
+        return image;
+    }
+}
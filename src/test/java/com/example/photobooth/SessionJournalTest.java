@@ -0,0 +1,146 @@
+package com.example.photobooth;
+
+import com.example.photobooth.PhotoBooth.FrameTheme;
+import com.example.photobooth.PhotoBooth.TextStyle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private final JpegEncoder encoder = new JpegEncoder(0.9f, JpegEncoder.ChromaSubsampling.YUV444, 1);
+
+    @AfterEach
+    void closeEncoder() {
+        encoder.close();
+    }
+
+    @Test
+    void capturedSessionIsRecoveredOnceWithItsPixels() throws Exception {
+        Path journalDirectory = directory.resolve("journal");
+        File sessionDirectory = directory.resolve("strips").toFile();
+        FrameArena arena = new FrameArena(16L << 20);
+        List<BufferedImage> originals = new ArrayList<>();
+
+        SessionJournal journal = new SessionJournal(journalDirectory, encoder);
+        journal.sessionStarted("s1", FrameTheme.values()[0], TextStyle.values()[0], "Tab\there & 100%", "Oct 18",
+                sessionDirectory, "party", true);
+        for (int i = 0; i < PhotoBooth.CAPTURE_COUNT; i++) {
+            BufferedImage capture = pattern(64, 48, i);
+            originals.add(capture);
+            FrameArena.Frame frame = arena.lease(capture);
+            journal.frameCaptured("s1", i, frame);
+            // The capture side lets go straight away; the journal's own reference keeps the slot alive.
+            frame.release();
+        }
+        journal.sessionCaptured("s1");
+        journal.close();
+        assertEquals(0, journal.pendingWrites());
+        assertEquals(0, arena.leased());
+
+        SessionJournal reopened = new SessionJournal(journalDirectory, encoder);
+        assertEquals(1, reopened.unfinishedSessions());
+        List<SessionPipeline.Session> recovered = new ArrayList<>();
+        assertEquals(new SessionJournal.Recovered(1, 0), reopened.recover(recovered::add));
+        assertEquals(1, recovered.size());
+        SessionPipeline.Session session = recovered.get(0);
+        assertEquals("s1", session.stamp());
+        assertEquals("Tab\there & 100%", session.eventName());
+        assertEquals(sessionDirectory.getAbsoluteFile(), session.directory());
+        assertTrue(session.print());
+        for (int i = 0; i < PhotoBooth.CAPTURE_COUNT; i++) {
+            assertPixelsEqual(originals.get(i), session.captures().get(i));
+        }
+        reopened.close();
+
+        // A second crash before the strip is saved gives up on rendering and keeps the photos.
+        SessionJournal again = new SessionJournal(journalDirectory, encoder);
+        assertEquals(new SessionJournal.Recovered(0, PhotoBooth.CAPTURE_COUNT),
+                again.recover(retried -> fail("rendered twice")));
+        again.close();
+        assertEquals(PhotoBooth.CAPTURE_COUNT, sessionDirectory.list().length);
+        for (File photo : sessionDirectory.listFiles()) {
+            assertTrue(photo.getName().matches("party_photo_s1_\\d\\.jpg"), photo.getName());
+            assertEquals(64, ImageIO.read(photo).getWidth());
+        }
+        assertFalse(Files.exists(journalDirectory.resolve("s1-0.rgb")));
+    }
+
+    @Test
+    void finishedAndPartialSessionsAreCompactedAway() throws Exception {
+        Path journalDirectory = directory.resolve("journal");
+        File sessionDirectory = directory.resolve("strips").toFile();
+        FrameArena arena = new FrameArena(16L << 20);
+
+        SessionJournal journal = new SessionJournal(journalDirectory, encoder);
+        journal.sessionStarted("done", FrameTheme.values()[0], TextStyle.values()[0], "", "", sessionDirectory,
+                "party", false);
+        FrameArena.Frame first = arena.lease(pattern(32, 24, 1));
+        journal.frameCaptured("done", 0, first);
+        first.release();
+        journal.sessionFinished("done");
+        journal.sessionStarted("partial", FrameTheme.values()[0], TextStyle.values()[0], "", "", sessionDirectory,
+                "party", false);
+        FrameArena.Frame second = arena.lease(pattern(32, 24, 2));
+        journal.frameCaptured("partial", 0, second);
+        second.release();
+        journal.close();
+
+        SessionJournal reopened = new SessionJournal(journalDirectory, encoder);
+        assertEquals(1, reopened.unfinishedSessions());
+        assertEquals(new SessionJournal.Recovered(0, 1), reopened.recover(session -> fail("not fully captured")));
+        reopened.close();
+        assertEquals(0, new SessionJournal(journalDirectory, encoder).unfinishedSessions());
+
+        assertEquals(0, Files.size(journalDirectory.resolve("sessions.journal")));
+        try (var files = Files.list(journalDirectory)) {
+            assertEquals(List.of("sessions.journal"), files.map(file -> file.getFileName().toString()).toList());
+        }
+    }
+
+    @Test
+    void tornRecordsAreSkippedAndCounted() throws Exception {
+        Path journalDirectory = directory.resolve("journal");
+        Files.createDirectories(journalDirectory);
+        Files.writeString(journalDirectory.resolve("sessions.journal"), "FRAME\tlost\t0\nBEG");
+
+        SessionJournal journal = new SessionJournal(journalDirectory, encoder);
+        journal.close();
+
+        assertEquals(2, journal.skippedRecords());
+        assertEquals(0, journal.unfinishedSessions());
+    }
+
+    private static BufferedImage pattern(int width, int height, int seed) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, (x * 4 + seed) << 16 | (y * 5) << 8 | (seed * 40 & 0xFF));
+            }
+        }
+        return image;
+    }
+
+    private static void assertPixelsEqual(BufferedImage expected, BufferedImage actual) {
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                assertEquals(expected.getRGB(x, y), actual.getRGB(x, y));
+            }
+        }
+    }
+}
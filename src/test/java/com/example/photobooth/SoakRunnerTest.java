@@ -0,0 +1,37 @@
+package com.example.photobooth;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SoakRunnerTest {
+
+    @TempDir
+    Path output;
+
+    @Test
+    void runsSessionsEndToEndAgainstSyntheticDevices() throws Exception {
+        SoakRunner.Options options = SoakRunner.parseArgs(new String[]{
+                "--sessions", "4",
+                "--camera", "size=640x480,fps=0",
+                "--printer", "count=2,ms=10",
+                "--output", output.toString(),
+                "--report-every", "2"});
+
+        SoakRunner.Report report = new SoakRunner(options).run();
+
+        assertEquals(4, report.completed());
+        assertEquals(0, report.failed());
+        assertEquals(4, report.printed());
+        assertEquals(0, report.activeCaptureTasks());
+        assertEquals(0, report.leasedFrames(), "every capture went back to the frame arena");
+        try (Stream<Path> files = Files.list(output)) {
+            assertTrue(files.noneMatch(file -> file.toString().endsWith(".jpg")), "printed strips are cleaned up");
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.photobooth;
+
+import com.github.sarxos.webcam.Webcam;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StillCaptureTest {
+
+    private static final Dimension VGA = new Dimension(640, 480);
+    private static final Dimension SENSOR = new Dimension(1920, 1080);
+
+    private final ReentrantLock cameraLock = new ReentrantLock();
+    private Webcam camera;
+
+    @BeforeEach
+    void openSyntheticCamera() {
+        Webcam.setDriver(new SyntheticWebcamDriver(1, SENSOR, 0));
+        camera = Webcam.getWebcams().get(0);
+        StillCapture.registerViewSizes(camera);
+        camera.setViewSize(VGA);
+        camera.open(true);
+    }
+
+    @AfterEach
+    void closeCamera() {
+        camera.close();
+    }
+
+    @Test
+    void staysAtTheLargestSizeTheSensorDeliversUntilSwitchedBack() {
+        StillCapture still = new StillCapture(camera, VGA, cameraLock);
+
+        assertTrue(still.switchToStill());
+        assertTrue(still.isAtStillSize());
+        for (int shot = 0; shot < PhotoBooth.CAPTURE_COUNT; shot++) {
+            BufferedImage frame = still.grab();
+            assertEquals(SENSOR.width, frame.getWidth());
+            assertEquals(SENSOR.height, frame.getHeight());
+            assertTrue(still.switchToStill(), "already at the still size");
+        }
+        BufferedImage preview = still.grabPreview();
+        assertEquals(VGA.width, preview.getWidth());
+        assertEquals(VGA.height, preview.getHeight());
+        assertSame(preview, still.grabPreview(), "preview frames reuse one image");
+        int bar = (VGA.height - VGA.width * SENSOR.height / SENSOR.width) / 2;
+        assertEquals(0, preview.getRGB(VGA.width / 2, bar / 2) & 0xFFFFFF, "letterboxed above the picture");
+
+        still.switchToPreview();
+
+        assertFalse(still.isAtStillSize());
+        assertNull(still.grabPreview());
+        assertEquals(VGA, camera.getViewSize());
+        assertTrue(camera.isOpen());
+        assertTrue(still.supportsStills());
+    }
+}
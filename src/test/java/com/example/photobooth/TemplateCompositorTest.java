@@ -0,0 +1,77 @@
+package com.example.photobooth;
+
+import com.example.photobooth.PhotoBooth.FrameTheme;
+import com.example.photobooth.PhotoBooth.TextStyle;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TemplateCompositorTest {
+
+    @Test
+    void cachedLayersRenderTheSameStripAsAColdRender() throws Exception {
+        TemplateCompositor compositor = new TemplateCompositor(null);
+        List<BufferedImage> first = captures(640, 480, 0);
+        List<BufferedImage> second = captures(640, 480, 100);
+
+        compositor.render(first, FrameTheme.WEDDING_ELEGANCE, TextStyle.CLASSIC, "Ana & Ben", "June 1");
+        BufferedImage cached = compositor.render(second, FrameTheme.WEDDING_ELEGANCE, TextStyle.CLASSIC,
+                "Ana & Ben", "June 1");
+        BufferedImage cold = new TemplateCompositor(null).render(second, FrameTheme.WEDDING_ELEGANCE,
+                TextStyle.CLASSIC, "Ana & Ben", "June 1");
+
+        assertEquals(1, compositor.cachedLayerSets());
+        assertArrayEquals(pixels(cold), pixels(cached));
+    }
+
+    @Test
+    void changedSettingsRenderNewLayers() throws Exception {
+        TemplateCompositor compositor = new TemplateCompositor(null);
+        List<BufferedImage> captures = captures(640, 480, 0);
+
+        BufferedImage before = compositor.render(captures, FrameTheme.BIRTHDAY_CELEBRATION, TextStyle.SCRIPT,
+                "Party", "May 5");
+        BufferedImage after = compositor.render(captures, FrameTheme.BIRTHDAY_CELEBRATION, TextStyle.SCRIPT,
+                "Another Party", "May 5");
+
+        assertEquals(2, compositor.cachedLayerSets());
+        assertFalse(Arrays.equals(pixels(before), pixels(after)));
+
+        compositor.invalidate();
+        assertEquals(0, compositor.cachedLayerSets());
+    }
+
+    private static List<BufferedImage> captures(int width, int height, int seed) {
+        List<BufferedImage> captures = new ArrayList<>();
+        for (int i = 0; i < PhotoBooth.CAPTURE_COUNT; i++) {
+            captures.add(capture(width, height, seed + i));
+        }
+        return captures;
+    }
+
+    private static BufferedImage capture(int width, int height, int seed) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setColor(Color.getHSBColor(seed / 10f, 0.6f, 0.8f));
+            g.fillRect(0, 0, width, height);
+            g.setColor(Color.WHITE);
+            g.fillOval(width / 4, height / 4, width / 2, height / 2);
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    private static int[] pixels(BufferedImage image) {
+        return ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    }
+}